@@ -0,0 +1,48 @@
+package sora.command;
+
+import java.util.ArrayList;
+
+import sora.exception.SoraException;
+import sora.manager.TaskManager;
+import sora.storage.ArchiveEntry;
+import sora.ui.Ui;
+
+/**
+ * Represents a command that searches the archive for tasks whose description
+ * contains a keyword.
+ */
+public class ArchiveSearchCommand implements Command {
+
+    private final String keyword;
+
+    /**
+     * Constructs an {@code ArchiveSearchCommand} with the given keyword.
+     *
+     * @param keyword Keyword to search for.
+     */
+    public ArchiveSearchCommand(String keyword) {
+        this.keyword = keyword.trim().toLowerCase();
+    }
+
+    /**
+     * Executes the command by streaming through the archive and displaying the
+     * matching tasks with their archive entry numbers.
+     *
+     * @param taskManager Manager class used to manage the list of tasks.
+     * @param ui          User interface class used to display messages.
+     * @throws SoraException If the archive cannot be read.
+     */
+    @Override
+    public void execute(TaskManager taskManager, Ui ui) throws SoraException {
+        if (taskManager == null) {
+            throw new NullPointerException("TaskManager object should not be null");
+        }
+
+        if (ui == null) {
+            throw new NullPointerException("Ui object should not be null");
+        }
+
+        ArrayList<ArchiveEntry> matches = taskManager.searchArchive(this.keyword);
+        ui.showArchiveResult(matches, this.keyword);
+    }
+}
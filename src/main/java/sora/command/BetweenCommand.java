@@ -0,0 +1,103 @@
+package sora.command;
+
+import java.time.DateTimeException;
+import java.util.List;
+
+import sora.exception.InvalidFormatException;
+import sora.exception.SoraException;
+import sora.manager.TaskManager;
+import sora.parser.ParsedDateTime;
+import sora.task.Task;
+import sora.ui.Ui;
+
+/**
+ * Represents a command to list all tasks occurring within a range of dates.
+ */
+public class BetweenCommand implements Command {
+
+    private static final String NO_TASK_MSG_TEMPLATE =
+            "Hmm... No tasks found between %s and %s."
+                    + "\n Looks like a free stretch! ";
+
+    private final ParsedDateTime from;
+    private final ParsedDateTime to;
+
+    /**
+     * Constructs a {@code BetweenCommand} for the given range.
+     * <p>
+     * Note: Time will be ignored when matching task.
+     *
+     * @param range The first and last date of the range separated by a space,
+     *              each in {@code yyyy-MM-dd} or {@code yyyy-MM-dd HH:mm} format.
+     * @throws InvalidFormatException If the range does not hold two valid dates,
+     *                                or if the last date is before the first.
+     */
+    public BetweenCommand(String range) throws InvalidFormatException {
+        String[] parts = range.trim().split("\\s+");
+        ParsedDateTime[] dates = null;
+        for (int split = 1; split < parts.length && dates == null; split++) {
+            dates = parseRange(String.join(" ", List.of(parts).subList(0, split)),
+                    String.join(" ", List.of(parts).subList(split, parts.length)));
+        }
+
+        if (dates == null) {
+            throw new InvalidFormatException("Oops! I need two dates to search between"
+                    + "\n Try something like: between 2026-02-16 2026-02-20");
+        }
+        if (dates[1].getEpochDay() < dates[0].getEpochDay()) {
+            throw new InvalidFormatException("Oops! End date/time cannot be before start date/time");
+        }
+        this.from = dates[0];
+        this.to = dates[1];
+    }
+
+    /**
+     * Executes the command by looking up the tasks that occur within the
+     * range in the date index of the task manager.
+     *
+     * @param taskManager Manager class used to manage the list of tasks.
+     * @param ui          User interface class used to display messages.
+     * @throws NullPointerException If either {@code taskManager} or {@code ui} is
+     *                              {@code null}. This exception is thrown to indicate
+     *                              improper initialization of
+     *                              the object.
+     * @throws SoraException If an error occurs during command execution.
+     */
+    @Override
+    public void execute(TaskManager taskManager, Ui ui) throws SoraException {
+        if (taskManager == null) {
+            throw new NullPointerException("TaskManager object should not be null");
+        }
+
+        if (ui == null) {
+            throw new NullPointerException("Ui object should not be null");
+        }
+
+        loadTasks(taskManager);
+        List<Task> matchedTasks = taskManager.getTasksBetween(this.from.getDate(), this.to.getDate());
+        if (matchedTasks.isEmpty()) {
+            ui.showError(String.format(NO_TASK_MSG_TEMPLATE, this.from, this.to));
+            return;
+        }
+
+        ui.showTasks(matchedTasks, matchedTasks.size());
+    }
+
+    private static ParsedDateTime[] parseRange(String from, String to) {
+        try {
+            return new ParsedDateTime[] {ParsedDateTime.dateTimeParser(from), ParsedDateTime.dateTimeParser(to)};
+        } catch (InvalidFormatException | DateTimeException invalidDateException) {
+            return null;
+        }
+    }
+
+    @Override
+    public void loadTasks(TaskManager taskManager) {
+        taskManager.loadTasksSince(this.from.getDate());
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+}
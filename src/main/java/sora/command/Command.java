@@ -17,4 +17,32 @@ public interface Command {
      * @throws SoraException if execution fails due to invalid user input.
      */
     void execute(TaskManager taskManager, Ui ui) throws SoraException;
+
+    /**
+     * Checks if the command only reads tasks, so that it may run alongside
+     * other commands on a snapshot of the task list.
+     * <p>
+     * A snapshot does not load persisted tasks, so a read-only command that
+     * needs tasks which may not have been loaded yet loads them in
+     * {@link #loadTasks(TaskManager)} instead.
+     *
+     * @return {@code true} if the command does not change any task.
+     */
+    default boolean isReadOnly() {
+        return false;
+    }
+
+    /**
+     * Loads the persisted tasks the command reads, if they have not been
+     * loaded yet.
+     * <p>
+     * Loading adds tasks to the task list, so it is run in order with the
+     * commands that change tasks, before a read-only command runs on its
+     * snapshot.
+     *
+     * @param taskManager Manager class used to manage the list of tasks.
+     */
+    default void loadTasks(TaskManager taskManager) {
+        // most commands only read the tasks that are already loaded
+    }
 }
@@ -12,8 +12,8 @@ public class ExitCommand implements Command {
     /**
      * Executes the exit command.
      * <p>
-     * Note: no action is required here as application will terminate
-     * after execution.
+     * Flushes any changes that have not been written to storage yet, as the
+     * application will terminate after execution.
      *
      * @param taskManager Manager class used to manage the list of tasks.
      * @param ui          User interface class used to display messages.
@@ -21,7 +21,7 @@ public class ExitCommand implements Command {
      */
     @Override
     public void execute(TaskManager taskManager, Ui ui) throws SoraException {
-        // exit handled by main application
+        taskManager.flush();
     }
 
 }
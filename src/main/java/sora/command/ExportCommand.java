@@ -0,0 +1,46 @@
+package sora.command;
+
+import java.nio.file.Path;
+
+import sora.exception.SoraException;
+import sora.manager.TaskManager;
+import sora.ui.Ui;
+
+/**
+ * Represents a command that writes every task to a CSV or JSON Lines file.
+ */
+public class ExportCommand implements Command {
+
+    private final Path target;
+
+    /**
+     * Constructs an {@code ExportCommand}.
+     *
+     * @param target Path of the file to write.
+     */
+    public ExportCommand(Path target) {
+        this.target = target;
+    }
+
+    /**
+     * Executes the command by streaming the task list into the file.
+     *
+     * @param taskManager Manager class used to manage the list of tasks.
+     * @param ui          User interface class used to display messages.
+     * @throws SoraException If the file type is not supported or the file
+     *                       cannot be written.
+     */
+    @Override
+    public void execute(TaskManager taskManager, Ui ui) throws SoraException {
+        if (taskManager == null) {
+            throw new NullPointerException("TaskManager object should not be null");
+        }
+
+        if (ui == null) {
+            throw new NullPointerException("Ui object should not be null");
+        }
+
+        int exported = taskManager.exportTasks(this.target);
+        ui.showTasksExported(exported, this.target);
+    }
+}
@@ -1,6 +1,7 @@
 package sora.command;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import sora.exception.SoraException;
 import sora.manager.TaskManager;
@@ -47,8 +48,20 @@ public class FindCommand implements Command {
             throw new NullPointerException("Ui object should not be null");
         }
 
-        ArrayList<Task> matches = matcher.findMatchingTasks(taskManager.getTasks());
+        loadTasks(taskManager);
+        List<Task> tasks = taskManager.getTasks();
+        ArrayList<Task> matches = matcher.findMatchingTasks(tasks);
 
-        ui.showSearchResult(taskManager.getTasks(), matches, keyword);
+        ui.showSearchResult(tasks, matches, keyword);
+    }
+
+    @Override
+    public void loadTasks(TaskManager taskManager) {
+        taskManager.loadAllTasks();
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
     }
 }
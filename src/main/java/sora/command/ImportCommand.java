@@ -0,0 +1,50 @@
+package sora.command;
+
+import java.nio.file.Path;
+
+import sora.exception.SoraException;
+import sora.manager.TaskManager;
+import sora.storage.CorruptionReport;
+import sora.ui.Ui;
+
+/**
+ * Represents a command that adds every task of a CSV or JSON Lines file to
+ * the task list.
+ */
+public class ImportCommand implements Command {
+
+    private final Path source;
+
+    /**
+     * Constructs an {@code ImportCommand}.
+     *
+     * @param source Path of the file to import.
+     */
+    public ImportCommand(Path source) {
+        this.source = source;
+    }
+
+    /**
+     * Executes the command by streaming the file into the task list and
+     * displaying how many tasks were imported.
+     *
+     * @param taskManager Manager class used to manage the list of tasks.
+     * @param ui          User interface class used to display messages.
+     * @throws SoraException If the file type is not supported or the file
+     *                       cannot be read.
+     */
+    @Override
+    public void execute(TaskManager taskManager, Ui ui) throws SoraException {
+        if (taskManager == null) {
+            throw new NullPointerException("TaskManager object should not be null");
+        }
+
+        if (ui == null) {
+            throw new NullPointerException("Ui object should not be null");
+        }
+
+        CorruptionReport report = new CorruptionReport(false);
+        int imported = taskManager.importTasks(this.source, report);
+        ui.showTasksImported(imported, taskManager.getTaskCount(), report);
+    }
+}
@@ -1,7 +1,10 @@
 package sora.command;
 
+import java.util.List;
+
 import sora.exception.SoraException;
 import sora.manager.TaskManager;
+import sora.task.Task;
 import sora.ui.Ui;
 
 /**
@@ -28,6 +31,18 @@ public class ListCommand implements Command {
             throw new NullPointerException("Ui object should not be null");
         }
 
-        ui.showTasks(taskManager.getTasks(), taskManager.getTaskCount());
+        loadTasks(taskManager);
+        List<Task> tasks = taskManager.getTasks();
+        ui.showTasks(tasks, tasks.size());
+    }
+
+    @Override
+    public void loadTasks(TaskManager taskManager) {
+        taskManager.loadAllTasks();
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
     }
 }
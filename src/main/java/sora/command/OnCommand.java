@@ -1,13 +1,11 @@
 package sora.command;
 
-import java.util.ArrayList;
+import java.util.List;
 
 import sora.exception.InvalidFormatException;
 import sora.exception.SoraException;
 import sora.manager.TaskManager;
 import sora.parser.ParsedDateTime;
-import sora.task.Deadline;
-import sora.task.Event;
 import sora.task.Task;
 import sora.ui.Ui;
 
@@ -35,8 +33,8 @@ public class OnCommand implements Command {
     }
 
     /**
-     * Executes the command by iterating through the tasks and
-     * identifying tasks that occur on the target date.
+     * Executes the command by looking up the tasks that occur on the target
+     * date in the date index of the task manager.
      *
      * @param taskManager Manager class used to manage the list of tasks.
      * @param ui          User interface class used to display messages.
@@ -56,42 +54,12 @@ public class OnCommand implements Command {
             throw new NullPointerException("Ui object should not be null");
         }
 
-        ArrayList<Task> matchedTasks = getMatchedTask(taskManager.getTasks());
+        loadTasks(taskManager);
+        List<Task> matchedTasks = taskManager.getTasksOn(this.targetDate.getDate());
         displayMatchedTask(ui, matchedTasks);
     }
 
-
-    /**
-     * Filters the list of tasks and returns those that occurs on the target date.
-     *
-     * @param tasks List of tasks to search.
-     * @return List of tasks matching the target date.
-     * @throws NullPointerException If {@code task} is null.
-     */
-    private ArrayList<Task> getMatchedTask(ArrayList<Task> tasks)
-            throws NullPointerException {
-        ArrayList<Task> matchedTasks = new ArrayList<>();
-
-        for (Task task : tasks) {
-            if (task == null) {
-                throw new NullPointerException("Task in list should not be null");
-            }
-
-            if (task instanceof Deadline deadline) {
-                if (deadline.getDeadline().getDate().equals(this.targetDate.getDate())) {
-                    matchedTasks.add(task);
-                }
-            } else if (task instanceof Event event) {
-                if (event.getStartDate().getDate().equals(this.targetDate.getDate())
-                        || event.getEndDate().getDate().equals(this.targetDate.getDate())) {
-                    matchedTasks.add(task);
-                }
-            }
-        }
-        return matchedTasks;
-    }
-
-    private void displayMatchedTask(Ui ui, ArrayList<Task> matchedTasks) {
+    private void displayMatchedTask(Ui ui, List<Task> matchedTasks) {
         if (matchedTasks.isEmpty()) {
             ui.showError(String.format(NO_TASK_MSG_TEMPLATE, this.targetDate));
             return;
@@ -99,4 +67,14 @@ public class OnCommand implements Command {
 
         ui.showTasks(matchedTasks, matchedTasks.size());
     }
+
+    @Override
+    public void loadTasks(TaskManager taskManager) {
+        taskManager.loadTasksSince(this.targetDate.getDate());
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
 }
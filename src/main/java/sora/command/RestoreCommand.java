@@ -0,0 +1,46 @@
+package sora.command;
+
+import sora.exception.SoraException;
+import sora.manager.TaskManager;
+import sora.task.Task;
+import sora.ui.Ui;
+
+/**
+ * Represents a command that moves an archived task back into the task list.
+ */
+public class RestoreCommand implements Command {
+
+    private final int index;
+
+    /**
+     * Constructs a {@code RestoreCommand}.
+     *
+     * @param index Zero-based entry number of the archived task.
+     */
+    public RestoreCommand(int index) {
+        this.index = index;
+    }
+
+    /**
+     * Executes the command by restoring the archived task to the end of the
+     * task list.
+     *
+     * @param taskManager Manager class used to manage the list of tasks.
+     * @param ui          User interface class used to display messages.
+     * @throws SoraException If the archived task does not exist or the archive
+     *                       cannot be updated.
+     */
+    @Override
+    public void execute(TaskManager taskManager, Ui ui) throws SoraException {
+        if (taskManager == null) {
+            throw new NullPointerException("TaskManager object should not be null");
+        }
+
+        if (ui == null) {
+            throw new NullPointerException("Ui object should not be null");
+        }
+
+        Task task = taskManager.restoreArchivedTask(this.index);
+        ui.showTaskRestored(task, taskManager.getTaskCount());
+    }
+}
@@ -21,6 +21,16 @@ public class DeleteCommand extends IndexCommand {
         super(index);
     }
 
+    /**
+     * Constructs a {@code DeleteCommand} for a task given by its index or ID.
+     *
+     * @param index Index of the task to be removed, ignored if an ID is given.
+     * @param id    ID of the task, or {@link Task#NO_ID} to use the index.
+     */
+    public DeleteCommand(int index, long id) {
+        super(index, id);
+    }
+
     /**
      * Removes the task from the task list based on the given index.
      * Displays an error message if the task cannot be found.
@@ -11,14 +11,16 @@ import sora.ui.Ui;
  * Base abstract class for commands that requires a task index.
  * <p>
  * This class handles common validation logic, such as retrieving
- * a task and checking index bounds.
+ * a task and checking index bounds. A task may also be referred to by its
+ * ID, which is turned into its current index when the command is executed.
  */
 public abstract class IndexCommand implements Command {
 
     private static final String TASK_NOT_FOUND_MSG =
             "Whoops! That task does not exist."
                     + "\nDouble-check the number and try again";
-    private final int index;
+    private final long id;
+    private int index;
 
     /**
      * Constructs an {@code IndexCommand}.
@@ -26,7 +28,18 @@ public abstract class IndexCommand implements Command {
      * @param index Index of the task.
      */
     public IndexCommand(int index) {
+        this(index, Task.NO_ID);
+    }
+
+    /**
+     * Constructs an {@code IndexCommand} for a task given by its index or ID.
+     *
+     * @param index Index of the task, ignored if an ID is given.
+     * @param id    ID of the task, or {@link Task#NO_ID} to use the index.
+     */
+    public IndexCommand(int index, long id) {
         this.index = index;
+        this.id = id;
     }
 
     public int getIndex() {
@@ -54,6 +67,10 @@ public abstract class IndexCommand implements Command {
             throw new NullPointerException("Ui object should not be null");
         }
 
+        if (this.id != Task.NO_ID) {
+            this.index = taskManager.getTaskIndex(this.id);
+        }
+
         if (this.index < 0 || this.index >= taskManager.getTaskCount()) {
             throw new InvalidFormatException(TASK_NOT_FOUND_MSG);
         }
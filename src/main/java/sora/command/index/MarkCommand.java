@@ -18,6 +18,16 @@ public class MarkCommand extends IndexCommand {
         super(index);
     }
 
+    /**
+     * Constructs a {@code MarkCommand} for a task given by its index or ID.
+     *
+     * @param index Index of the task to be marked as complete, ignored if an ID is given.
+     * @param id    ID of the task, or {@link Task#NO_ID} to use the index.
+     */
+    public MarkCommand(int index, long id) {
+        super(index, id);
+    }
+
     /**
      * Marks the task as done and display a confirmation message.
      *
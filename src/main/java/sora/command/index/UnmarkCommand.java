@@ -18,6 +18,16 @@ public class UnmarkCommand extends IndexCommand {
         super(index);
     }
 
+    /**
+     * Constructs a {@code UnmarkCommand} for a task given by its index or ID.
+     *
+     * @param index Index of the task to be unmarked, ignored if an ID is given.
+     * @param id    ID of the task, or {@link Task#NO_ID} to use the index.
+     */
+    public UnmarkCommand(int index, long id) {
+        super(index, id);
+    }
+
 
     /**
      * Marks the task as not done and display a confirmation message.
@@ -5,6 +5,8 @@ package sora.exception;
  */
 public class InvalidFormatException extends SoraException {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * Constructs a {@code InvalidFormatException} with a user-friendly
      * error message.
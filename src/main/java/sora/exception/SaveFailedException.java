@@ -0,0 +1,21 @@
+package sora.exception;
+
+/**
+ * Thrown when changes to the task list could not be saved.
+ */
+public class SaveFailedException extends SoraException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs a {@code SaveFailedException} with a user-friendly error
+     * message and the error that made the save fail.
+     *
+     * @param message The error message to be displayed to the user.
+     * @param cause   The error that made the save fail.
+     */
+    public SaveFailedException(String message, Throwable cause) {
+        super(message);
+        initCause(cause);
+    }
+}
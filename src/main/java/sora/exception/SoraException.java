@@ -9,6 +9,8 @@ package sora.exception;
  */
 public abstract class SoraException extends RuntimeException {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * Construct {@code SoraException} with a user-friendly error
      * message.
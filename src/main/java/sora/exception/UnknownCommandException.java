@@ -5,6 +5,8 @@ package sora.exception;
  */
 public class UnknownCommandException extends SoraException {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * Constructs a {@code UnknownCommandException} with a user-friendly error
      * message.
@@ -6,6 +6,7 @@ import sora.command.Command;
 import sora.command.ExitCommand;
 import sora.exception.SoraException;
 import sora.parser.CommandParser;
+import sora.ui.ConsoleOutput;
 import sora.ui.OutputHandler;
 import sora.ui.Ui;
 
@@ -20,7 +21,7 @@ public class CommandHandler {
     private final Ui ui;
     private final Scanner scanner;
     private final TaskManager taskManager;
-    private boolean isRunning;
+    private volatile boolean isRunning;
 
 
     /**
@@ -64,10 +65,18 @@ public class CommandHandler {
      * <p>
      * Serve as an entry point for handling user interactions and processing commands.
      * Continues running until an {@code ExitCommand} is entered by the user.
+     * <p>
+     * If the {@link CommandPipeline} is selected, commands are handed to it
+     * and run in stages while further input is read.
      */
     public void run() {
         assert this.scanner != null : "Scanner object must be initialized";
 
+        if (CommandPipeline.isEnabled()) {
+            runPipeline();
+            return;
+        }
+
         while (this.isRunning) {
             String rawInput = this.scanner.nextLine();
             String input = rawInput.strip();
@@ -76,6 +85,23 @@ public class CommandHandler {
         this.scanner.close();
     }
 
+    /**
+     * Reads commands until the exit command or the end of input, and runs
+     * them through a {@link CommandPipeline}.
+     */
+    private void runPipeline() {
+        try (CommandPipeline pipeline = new CommandPipeline(new ConsoleOutput(), this.taskManager, this::runCommand)) {
+            while (this.scanner.hasNextLine()) {
+                String input = this.scanner.nextLine().strip();
+                pipeline.submit(input);
+                if (CommandParser.isExitCommand(input)) {
+                    break;
+                }
+            }
+        }
+        this.scanner.close();
+    }
+
     /**
      * Processes a single input command for GUI usage.
      *
@@ -114,17 +140,38 @@ public class CommandHandler {
     private void handleCommand(String input) {
         Command command = CommandParser.parse(input);
         if (command instanceof ExitCommand) {
-            stopProgram();
+            stopProgram(this.ui);
         }
 
         command.execute(this.taskManager, this.ui);
     }
 
+    /**
+     * Runs a parsed command for the {@link CommandPipeline}, showing its
+     * messages on the given {@code Ui}.
+     *
+     * @param command     The command to run.
+     * @param taskManager The task manager, or a snapshot of it for a read-only command.
+     * @param ui          The user interface for the messages of the command.
+     */
+    private void runCommand(Command command, TaskManager taskManager, Ui ui) {
+        try {
+            if (command instanceof ExitCommand) {
+                stopProgram(ui);
+            }
+            command.execute(taskManager, ui);
+        } catch (SoraException soraException) {
+            ui.showError(soraException.getMessage());
+        }
+    }
+
     /**
      * Stops the program and display the farewell message.
+     *
+     * @param ui The user interface for the farewell message.
      */
-    private void stopProgram() {
+    private void stopProgram(Ui ui) {
         this.isRunning = false;
-        this.ui.farewellMessage();
+        ui.farewellMessage();
     }
 }
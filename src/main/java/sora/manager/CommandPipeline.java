@@ -0,0 +1,272 @@
+package sora.manager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import sora.command.Command;
+import sora.exception.SoraException;
+import sora.parser.CommandParser;
+import sora.ui.OutputHandler;
+import sora.ui.Ui;
+
+/**
+ * Runs commands in stages on separate threads, so that a stream of commands
+ * from a script or another program is handled at a steady pace.
+ * <p>
+ * Input lines are queued in a bounded {@link RingBuffer} and parsed by a
+ * single parser thread, and every command is queued for a single writer
+ * thread, which takes them in the order they were submitted. The writer
+ * applies commands that change tasks itself, one at a time. When it reaches a
+ * {@link Command#isReadOnly() read-only} command, it loads the tasks the
+ * command {@link Command#loadTasks(TaskManager) needs} and hands the command a
+ * {@link TaskManager#snapshot() snapshot} of the task manager, on which it runs
+ * on a pool of reader threads while the writer moves on. A read-only command
+ * therefore sees exactly the tasks it would have seen if the commands had run
+ * one by one.
+ * <p>
+ * Each command writes its messages to a buffer, and the buffers are shown in
+ * the order the commands were submitted. When any stage falls behind, the
+ * buffers before it fill up and {@link #submit(String)} waits for room.
+ */
+public class CommandPipeline implements AutoCloseable {
+
+    /** System property selecting the pipeline; set to {@code staged} to use it. */
+    public static final String MODE_PROPERTY = "sora.pipeline";
+
+    /** System property for the number of commands each buffer holds. */
+    public static final String CAPACITY_PROPERTY = "sora.pipeline.capacity";
+
+    /** System property for the number of reader threads. */
+    public static final String READERS_PROPERTY = "sora.pipeline.readers";
+
+    private static final String STAGED = "staged";
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final OutputHandler output;
+    private final TaskManager taskManager;
+    private final Runner runner;
+    private final RingBuffer<String> inputs;
+    private final RingBuffer<Reply> commands;
+    private final ThreadPoolExecutor readers;
+    private final Thread parser;
+    private final Thread writer;
+
+    private final Map<Long, Reply> finishedReplies = new HashMap<>();
+    private long nextReplyToShow;
+
+    /**
+     * Runs a command of the pipeline.
+     */
+    @FunctionalInterface
+    public interface Runner {
+        /**
+         * Runs the command on the given task manager.
+         *
+         * @param command     The command to run.
+         * @param taskManager The task manager, or a snapshot of it for a
+         *                    read-only command.
+         * @param ui          The user interface for the messages of the command.
+         */
+        void run(Command command, TaskManager taskManager, Ui ui);
+    }
+
+    /**
+     * The messages of one command, kept until every earlier command has shown
+     * its own.
+     */
+    private static class Reply implements OutputHandler {
+        private final long sequence;
+        private final List<Consumer<OutputHandler>> messages = new ArrayList<>();
+        private Command command;
+
+        Reply(long sequence) {
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void show(String message) {
+            this.messages.add(output -> output.show(message));
+        }
+
+        @Override
+        public void showError(String message) {
+            this.messages.add(output -> output.showError(message));
+        }
+    }
+
+    /**
+     * Constructs a {@code CommandPipeline} and starts its threads.
+     *
+     * @param output      The output handler the messages of commands are shown on.
+     * @param taskManager The task manager the commands run on.
+     * @param runner      Runs a command with the given {@link Ui}.
+     * @param capacity    Number of commands each buffer holds.
+     * @param readers     Number of threads running read-only commands.
+     */
+    public CommandPipeline(OutputHandler output, TaskManager taskManager, Runner runner, int capacity,
+            int readers) {
+        assert output != null && taskManager != null && runner != null
+                : "Output, task manager and runner must not be null";
+        this.output = output;
+        this.taskManager = taskManager;
+        this.runner = runner;
+        this.inputs = new RingBuffer<>(capacity);
+        this.commands = new RingBuffer<>(capacity);
+
+        AtomicInteger readerCount = new AtomicInteger();
+        // a full queue makes the writer run the command itself, which holds back further commands
+        this.readers = new ThreadPoolExecutor(readers, readers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity), runnable -> {
+                    Thread thread = new Thread(runnable, "sora-pipeline-reader-" + readerCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+        this.parser = new Thread(this::runParser, "sora-pipeline-parser");
+        this.writer = new Thread(this::runWriter, "sora-pipeline-writer");
+        this.parser.setDaemon(true);
+        this.writer.setDaemon(true);
+        this.parser.start();
+        this.writer.start();
+    }
+
+    /**
+     * Constructs a {@code CommandPipeline} with limits taken from the
+     * {@code sora.pipeline.*} system properties.
+     *
+     * @param output      The output handler the messages of commands are shown on.
+     * @param taskManager The task manager the commands run on.
+     * @param runner      Runs a command with the given {@link Ui}.
+     */
+    public CommandPipeline(OutputHandler output, TaskManager taskManager, Runner runner) {
+        this(output, taskManager, runner, Math.max(1, Integer.getInteger(CAPACITY_PROPERTY, DEFAULT_CAPACITY)),
+                Math.max(1, Integer.getInteger(READERS_PROPERTY, Runtime.getRuntime().availableProcessors())));
+    }
+
+    /**
+     * Checks if the staged pipeline is selected by the {@code sora.pipeline}
+     * system property.
+     *
+     * @return {@code true} if the property is set to {@code staged}.
+     */
+    public static boolean isEnabled() {
+        return STAGED.equalsIgnoreCase(System.getProperty(MODE_PROPERTY, "").trim());
+    }
+
+    /**
+     * Queues an input line to be run as a command, waiting for room if the
+     * pipeline is full.
+     *
+     * @param input The command entered by the user.
+     * @throws IllegalStateException If the pipeline has been closed.
+     */
+    public void submit(String input) throws IllegalStateException {
+        try {
+            this.inputs.put(input);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits until every submitted command has run and shown its messages,
+     * then stops the threads of the pipeline.
+     */
+    @Override
+    public void close() {
+        this.inputs.close();
+        try {
+            this.parser.join();
+            this.writer.join();
+            this.readers.shutdown();
+            this.readers.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runParser() {
+        long sequence = 0;
+        try {
+            for (String input = this.inputs.take(); input != null; input = this.inputs.take()) {
+                Reply reply = new Reply(sequence++);
+                try {
+                    reply.command = CommandParser.parse(input);
+                } catch (SoraException soraException) {
+                    reply.showError(soraException.getMessage());
+                    finish(reply);
+                    continue;
+                }
+                this.commands.put(reply);
+            }
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        } finally {
+            this.commands.close();
+        }
+    }
+
+    private void runWriter() {
+        try {
+            for (Reply reply = this.commands.take(); reply != null; reply = this.commands.take()) {
+                if (reply.command.isReadOnly()) {
+                    runReader(reply);
+                } else {
+                    run(reply, this.taskManager);
+                }
+            }
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Loads the tasks a read-only command needs and hands it a snapshot of the
+     * task manager, taken before any later command is applied.
+     */
+    private void runReader(Reply reply) {
+        TaskManager snapshot;
+        try {
+            reply.command.loadTasks(this.taskManager);
+            snapshot = this.taskManager.snapshot();
+        } catch (RuntimeException exception) {
+            reply.showError("Oops! Something went wrong: " + exception.getMessage());
+            finish(reply);
+            return;
+        }
+        this.readers.execute(() -> run(reply, snapshot));
+    }
+
+    private void run(Reply reply, TaskManager taskManager) {
+        try {
+            this.runner.run(reply.command, taskManager, new Ui(reply));
+        } catch (RuntimeException exception) {
+            // a failed command must not stop the commands after it
+            reply.showError("Oops! Something went wrong: " + exception.getMessage());
+        } finally {
+            finish(reply);
+        }
+    }
+
+    /**
+     * Shows the messages of the reply, and of every later reply that is
+     * already finished, once every earlier reply has been shown.
+     */
+    private synchronized void finish(Reply reply) {
+        this.finishedReplies.put(reply.sequence, reply);
+        for (Reply next = this.finishedReplies.remove(this.nextReplyToShow); next != null;
+                next = this.finishedReplies.remove(this.nextReplyToShow)) {
+            for (Consumer<OutputHandler> message : next.messages) {
+                message.accept(this.output);
+            }
+            this.nextReplyToShow++;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package sora.manager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import sora.task.Deadline;
+import sora.task.Event;
+import sora.task.Task;
+
+/**
+ * Indexes tasks by the dates they occur on, so that the tasks of a date or a
+ * range of dates are found without going through the whole task list.
+ * <p>
+ * The IDs of tasks are kept in a {@link DateSpanTree}: a {@link Deadline}
+ * spans just its due date, and an {@link Event} the days from its start to
+ * its end, so an event occurs on every day it is happening. Other tasks are
+ * not indexed. Finding the tasks of a date takes O(log n) time plus the
+ * number of tasks found, and may be done from any thread while the index is
+ * being changed. As the completion status of a task is not indexed, a task
+ * replaced by a copy with another status stays indexed as it is.
+ */
+public class DateIndex {
+
+    private final DateSpanTree spans;
+
+    /**
+     * Constructs an empty {@code DateIndex}.
+     */
+    public DateIndex() {
+        this(new DateSpanTree());
+    }
+
+    private DateIndex(DateSpanTree spans) {
+        this.spans = spans;
+    }
+
+    /**
+     * Returns a copy of the index, made in O(1) time. Later changes to either
+     * index do not show in the other.
+     *
+     * @return The copy.
+     */
+    public DateIndex copy() {
+        return new DateIndex(this.spans.copy());
+    }
+
+    /**
+     * Adds a task to the index.
+     *
+     * @param task The task to add.
+     */
+    public void add(Task task) {
+        if (task instanceof Deadline deadline) {
+            long due = deadline.getDeadline().getEpochDay();
+            this.spans.add(task.getId(), due, due);
+        } else if (task instanceof Event event) {
+            this.spans.add(task.getId(), event.getStartDate().getEpochDay(), event.getEndDate().getEpochDay());
+        }
+    }
+
+    /**
+     * Adds every given task to the index.
+     *
+     * @param tasks The tasks to add.
+     */
+    public void addAll(Collection<? extends Task> tasks) {
+        for (Task task : tasks) {
+            add(task);
+        }
+    }
+
+    /**
+     * Removes a task from the index.
+     *
+     * @param task The task to remove.
+     */
+    public void remove(Task task) {
+        if (task instanceof Deadline deadline) {
+            this.spans.remove(task.getId(), deadline.getDeadline().getEpochDay());
+        } else if (task instanceof Event event) {
+            this.spans.remove(task.getId(), event.getStartDate().getEpochDay());
+        }
+    }
+
+    /**
+     * Removes every task from the index.
+     */
+    public void clear() {
+        this.spans.clear();
+    }
+
+    /**
+     * Returns the IDs of the deadlines due on the given date and of the
+     * events happening on it.
+     *
+     * @param date The date to look up.
+     * @return The IDs, in no particular order.
+     */
+    public List<Long> on(LocalDate date) {
+        List<Long> ids = new ArrayList<>();
+        this.spans.findActive(date, ids);
+        return ids;
+    }
+
+    /**
+     * Returns the IDs of the deadlines due on any date of the given range and
+     * of the events happening on any date of it.
+     *
+     * @param from The first date of the range.
+     * @param to   The last date of the range.
+     * @return The IDs, each once and in no particular order.
+     */
+    public List<Long> between(LocalDate from, LocalDate to) {
+        List<Long> ids = new ArrayList<>();
+        this.spans.findOverlapping(from, to, ids);
+        return ids;
+    }
+}
@@ -0,0 +1,199 @@
+package sora.manager;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * Indexes task IDs by a span of days, such as the days from the start of an
+ * event to its end.
+ * <p>
+ * IDs are kept in a persistent AVL tree ordered by start date, where every
+ * node also knows the latest end date in its subtree. A query skips every
+ * subtree that ends before the queried dates and every right subtree that
+ * starts after them, so finding the tasks active on a date, or intersecting a
+ * range of dates, takes O(log n) time plus the number of tasks found.
+ * <p>
+ * Nodes are never changed once created, and a change only copies the nodes
+ * on its path. Changes must come from one thread at a time, but every query
+ * reads a single version of the tree, so queries may run on any thread
+ * without locking.
+ * <p>
+ * Only IDs are kept, rather than the tasks themselves, so the index does not
+ * hold on to task objects; every ID in the tree must be distinct.
+ */
+public class DateSpanTree {
+
+    private volatile Node root;
+
+    private static class Node {
+        private final long id;
+        private final long start;
+        private final long end;
+        private final long maxEnd;
+        private final Node left;
+        private final Node right;
+        private final int height;
+
+        Node(long id, long start, long end, Node left, Node right) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.maxEnd = Math.max(end, Math.max(maxEnd(left), maxEnd(right)));
+        }
+
+        Node with(Node left, Node right) {
+            return new Node(this.id, this.start, this.end, left, right);
+        }
+    }
+
+    /**
+     * Adds the ID of a task spanning the given days to the tree.
+     *
+     * @param id       The ID of the task.
+     * @param startDay The first day of the span, as an epoch day.
+     * @param endDay   The last day of the span, as an epoch day.
+     */
+    public void add(long id, long startDay, long endDay) {
+        this.root = insert(this.root, new Node(id, startDay, endDay, null, null));
+    }
+
+    /**
+     * Removes the ID of a task from the tree.
+     *
+     * @param id       The ID of the task.
+     * @param startDay The first day of the span the ID was added with, as an
+     *                 epoch day.
+     */
+    public void remove(long id, long startDay) {
+        this.root = delete(this.root, startDay, id);
+    }
+
+    /**
+     * Removes every task from the tree.
+     */
+    public void clear() {
+        this.root = null;
+    }
+
+    /**
+     * Returns a copy of the tree, made in O(1) time by sharing its nodes. As
+     * nodes are never changed, later changes to either tree do not show in
+     * the other.
+     *
+     * @return The copy.
+     */
+    public DateSpanTree copy() {
+        DateSpanTree copy = new DateSpanTree();
+        copy.root = this.root;
+        return copy;
+    }
+
+    /**
+     * Finds the tasks whose span covers the given date, i.e. that start on or
+     * before it and end on or after it.
+     *
+     * @param date    The date to look up.
+     * @param matches Receives the IDs of the tasks found, in no particular order.
+     */
+    public void findActive(LocalDate date, Collection<? super Long> matches) {
+        findOverlapping(date, date, matches);
+    }
+
+    /**
+     * Finds the tasks whose span intersects the given range of dates.
+     *
+     * @param from    The first date of the range.
+     * @param to      The last date of the range.
+     * @param matches Receives the IDs of the tasks found, in no particular order.
+     */
+    public void findOverlapping(LocalDate from, LocalDate to, Collection<? super Long> matches) {
+        collect(this.root, from.toEpochDay(), to.toEpochDay(), matches);
+    }
+
+    private static void collect(Node node, long from, long to, Collection<? super Long> matches) {
+        if (node == null || node.maxEnd < from) {
+            return;
+        }
+        collect(node.left, from, to, matches);
+        if (node.start > to) {
+            return; // later nodes start even later
+        }
+        if (node.end >= from) {
+            matches.add(node.id);
+        }
+        collect(node.right, from, to, matches);
+    }
+
+    private static int compare(long start, long id, Node node) {
+        int byStart = Long.compare(start, node.start);
+        return byStart != 0 ? byStart : Long.compare(id, node.id);
+    }
+
+    private static Node insert(Node node, Node inserted) {
+        if (node == null) {
+            return inserted;
+        }
+        if (compare(inserted.start, inserted.id, node) < 0) {
+            return balance(node, insert(node.left, inserted), node.right);
+        }
+        return balance(node, node.left, insert(node.right, inserted));
+    }
+
+    private static Node delete(Node node, long start, long id) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = compare(start, id, node);
+        if (comparison < 0) {
+            return balance(node, delete(node.left, start, id), node.right);
+        }
+        if (comparison > 0) {
+            return balance(node, node.left, delete(node.right, start, id));
+        }
+
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        Node successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor, node.left, delete(node.right, successor.start, successor.id));
+    }
+
+    /**
+     * Copies the node over the given subtrees, rotating copies into place if
+     * their heights differ by two.
+     */
+    private static Node balance(Node node, Node left, Node right) {
+        if (height(left) > height(right) + 1) {
+            if (height(left.left) >= height(left.right)) {
+                return left.with(left.left, node.with(left.right, right));
+            }
+            Node pivot = left.right;
+            return pivot.with(left.with(left.left, pivot.left), node.with(pivot.right, right));
+        }
+        if (height(right) > height(left) + 1) {
+            if (height(right.right) >= height(right.left)) {
+                return right.with(node.with(left, right.left), right.right);
+            }
+            Node pivot = right.left;
+            return pivot.with(node.with(left, pivot.left), right.with(pivot.right, right.right));
+        }
+        return node.with(left, right);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static long maxEnd(Node node) {
+        return node == null ? Long.MIN_VALUE : node.maxEnd;
+    }
+}
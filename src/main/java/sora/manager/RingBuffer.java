@@ -0,0 +1,87 @@
+package sora.manager;
+
+/**
+ * A bounded first-in, first-out buffer over a fixed array of slots, used to
+ * hand items from one thread to another.
+ * <p>
+ * Adding an item waits while every slot is full, so a producer that runs
+ * ahead of its consumer is slowed down to the pace of the consumer instead
+ * of filling memory. Taking an item waits while the buffer is empty.
+ *
+ * @param <T> Type of the items.
+ */
+public class RingBuffer<T> {
+
+    private final Object[] slots;
+    private int head;
+    private int count;
+    private boolean isClosed;
+
+    /**
+     * Constructs an empty {@code RingBuffer}.
+     *
+     * @param capacity Number of items the buffer can hold.
+     * @throws IllegalArgumentException If {@code capacity} is not positive.
+     */
+    public RingBuffer(int capacity) throws IllegalArgumentException {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.slots = new Object[capacity];
+    }
+
+    /**
+     * Adds an item to the end of the buffer, waiting for a free slot if the
+     * buffer is full.
+     *
+     * @param item The item to add.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     * @throws IllegalStateException If the buffer has been closed.
+     */
+    public synchronized void put(T item) throws InterruptedException {
+        while (this.count == this.slots.length && !this.isClosed) {
+            wait();
+        }
+        if (this.isClosed) {
+            throw new IllegalStateException("Buffer is closed");
+        }
+
+        this.slots[(this.head + this.count) % this.slots.length] = item;
+        this.count++;
+        notifyAll();
+    }
+
+    /**
+     * Removes the item at the front of the buffer, waiting for one if the
+     * buffer is empty.
+     *
+     * @return The item, or {@code null} if the buffer has been closed and
+     *         every item has been taken.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized T take() throws InterruptedException {
+        while (this.count == 0) {
+            if (this.isClosed) {
+                return null;
+            }
+            wait();
+        }
+
+        T item = (T) this.slots[this.head];
+        this.slots[this.head] = null;
+        this.head = (this.head + 1) % this.slots.length;
+        this.count--;
+        notifyAll();
+        return item;
+    }
+
+    /**
+     * Closes the buffer. Items already in it can still be taken, but no more
+     * items can be added.
+     */
+    public synchronized void close() {
+        this.isClosed = true;
+        notifyAll();
+    }
+}
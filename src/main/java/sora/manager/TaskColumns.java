@@ -0,0 +1,230 @@
+package sora.manager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import sora.parser.DateInputType;
+import sora.parser.ParsedDateTime;
+import sora.task.Deadline;
+import sora.task.Event;
+import sora.task.Task;
+import sora.task.ToDo;
+
+/**
+ * Keeps tasks as rows of primitive columns instead of as objects.
+ * <p>
+ * A {@link Deadline} held as objects takes the task, a {@link ParsedDateTime},
+ * and the name string with its bytes: four objects. A row takes a type byte,
+ * the ID, the start and end as epoch minutes, a few bits, and the bytes of
+ * its name in a shared pool, with no object at all. {@link #view(int) Views} of a row are
+ * created as {@link Task} objects only when the task is read.
+ * <p>
+ * Rows are only ever appended, never changed, so a row can be read from any
+ * thread once it has been safely published, e.g. through a volatile write
+ * made after it was appended. The columns themselves are published through a
+ * volatile field whenever they grow, and every new column holds a copy of all
+ * earlier rows, so a reader never sees a half-copied column. Rows of tasks
+ * that were removed or replaced stay until the owner copies the live rows
+ * into new columns.
+ */
+public class TaskColumns {
+
+    /** System property selecting the task layout; set to {@code columnar} to use columns. */
+    public static final String LAYOUT_PROPERTY = "sora.tasks.layout";
+
+    private static final String COLUMNAR = "columnar";
+    private static final int INITIAL_ROWS = 16;
+
+    private static final byte TODO = 0;
+    private static final byte DEADLINE = 1;
+    private static final byte EVENT = 2;
+
+    private static final byte DONE = 1;
+    private static final byte START_HAS_TIME = 2;
+    private static final byte END_HAS_TIME = 4;
+
+    private volatile Rows rows;
+    private int namePoolSize;
+    private int rowCount;
+
+    /**
+     * Constructs empty {@code TaskColumns} with room for the given number of
+     * rows before they have to grow.
+     *
+     * @param capacity Expected number of rows.
+     */
+    public TaskColumns(int capacity) {
+        int rows = Math.max(INITIAL_ROWS, capacity);
+        this.rows = new Rows(new byte[rows], new byte[rows], new long[rows], new long[rows], new long[rows],
+                new int[rows + 1], new byte[INITIAL_ROWS * 16]);
+    }
+
+    /**
+     * The columns holding the rows. A new instance with larger columns is
+     * published whenever a row or a name no longer fits, so readers only
+     * see columns whose earlier rows are complete.
+     */
+    private static class Rows {
+        private final byte[] types;
+        private final byte[] flags;
+        private final long[] ids;
+        private final long[] starts;
+        private final long[] ends;
+        private final int[] nameStarts;
+        private final byte[] namePool;
+
+        Rows(byte[] types, byte[] flags, long[] ids, long[] starts, long[] ends, int[] nameStarts, byte[] namePool) {
+            this.types = types;
+            this.flags = flags;
+            this.ids = ids;
+            this.starts = starts;
+            this.ends = ends;
+            this.nameStarts = nameStarts;
+            this.namePool = namePool;
+        }
+    }
+
+    /**
+     * Checks if the columnar layout is selected by the
+     * {@code sora.tasks.layout} system property.
+     *
+     * @return {@code true} if the property is set to {@code columnar}.
+     */
+    public static boolean isEnabled() {
+        return COLUMNAR.equalsIgnoreCase(System.getProperty(LAYOUT_PROPERTY, "").trim());
+    }
+
+    /**
+     * Returns the number of rows, including rows of removed tasks.
+     *
+     * @return The number of rows.
+     */
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    /**
+     * Appends a row holding the given task.
+     *
+     * @param task The task to store.
+     * @return The number of the new row.
+     * @throws IllegalArgumentException If the task is not a {@link ToDo},
+     *                                  {@link Deadline} or {@link Event}.
+     */
+    public int append(Task task) throws IllegalArgumentException {
+        byte type;
+        byte flags = task.isDone() ? DONE : 0;
+        long start = 0;
+        long end = 0;
+        if (task instanceof Deadline deadline) {
+            type = DEADLINE;
+            start = deadline.getDeadline().toEpochMinute();
+            flags |= deadline.getDeadline().isDateOnly() ? 0 : START_HAS_TIME;
+        } else if (task instanceof Event event) {
+            type = EVENT;
+            start = event.getStartDate().toEpochMinute();
+            end = event.getEndDate().toEpochMinute();
+            flags |= event.getStartDate().isDateOnly() ? 0 : START_HAS_TIME;
+            flags |= event.getEndDate().isDateOnly() ? 0 : END_HAS_TIME;
+        } else if (task instanceof ToDo) {
+            type = TODO;
+        } else {
+            throw new IllegalArgumentException("Unknown task type: " + task.getClass().getSimpleName());
+        }
+
+        Rows rows = reserveRow();
+        rows.types[this.rowCount] = type;
+        rows.flags[this.rowCount] = flags;
+        rows.ids[this.rowCount] = task.getId();
+        rows.starts[this.rowCount] = start;
+        rows.ends[this.rowCount] = end;
+        appendName(task.getName().getBytes(StandardCharsets.UTF_8));
+        return this.rowCount++;
+    }
+
+    /**
+     * Appends a copy of a row of other columns.
+     *
+     * @param source The columns holding the row.
+     * @param row    The number of the row in {@code source}.
+     * @return The number of the new row.
+     */
+    public int copyRow(TaskColumns source, int row) {
+        Rows from = source.rows;
+        Rows rows = reserveRow();
+        rows.types[this.rowCount] = from.types[row];
+        rows.flags[this.rowCount] = from.flags[row];
+        rows.ids[this.rowCount] = from.ids[row];
+        rows.starts[this.rowCount] = from.starts[row];
+        rows.ends[this.rowCount] = from.ends[row];
+        appendName(Arrays.copyOfRange(from.namePool, from.nameStarts[row], from.nameStarts[row + 1]));
+        return this.rowCount++;
+    }
+
+    /**
+     * Returns the ID of the task in the given row.
+     *
+     * @param row The number of the row.
+     * @return The ID of the task.
+     */
+    public long getId(int row) {
+        return this.rows.ids[row];
+    }
+
+    /**
+     * Creates a task object holding the task in the given row.
+     * <p>
+     * Every call creates a new object, so views of the same row are told
+     * apart from other tasks by their ID rather than by identity.
+     *
+     * @param row The number of the row.
+     * @return A new task equal to the stored one.
+     */
+    public Task view(int row) {
+        Rows rows = this.rows;
+        byte flags = rows.flags[row];
+        String name = new String(rows.namePool, rows.nameStarts[row],
+                rows.nameStarts[row + 1] - rows.nameStarts[row], StandardCharsets.UTF_8);
+        Task task = switch (rows.types[row]) {
+        case DEADLINE -> new Deadline(name, dateTime(rows.starts[row], (flags & START_HAS_TIME) != 0));
+        case EVENT -> new Event(name, dateTime(rows.starts[row], (flags & START_HAS_TIME) != 0),
+                dateTime(rows.ends[row], (flags & END_HAS_TIME) != 0));
+        default -> new ToDo(name);
+        };
+
+        if ((flags & DONE) != 0) {
+            task.markAsDone();
+        }
+        task.setId(rows.ids[row]);
+        return task;
+    }
+
+    private static ParsedDateTime dateTime(long epochMinute, boolean hasTime) {
+        return ParsedDateTime.ofEpochMinute(epochMinute, hasTime ? DateInputType.DATETIME : DateInputType.DATE_ONLY);
+    }
+
+    private Rows reserveRow() {
+        Rows rows = this.rows;
+        if (this.rowCount == rows.types.length) {
+            int size = this.rowCount + (this.rowCount >> 1);
+            rows = new Rows(Arrays.copyOf(rows.types, size), Arrays.copyOf(rows.flags, size),
+                    Arrays.copyOf(rows.ids, size), Arrays.copyOf(rows.starts, size), Arrays.copyOf(rows.ends, size),
+                    Arrays.copyOf(rows.nameStarts, size + 1), rows.namePool);
+            this.rows = rows;
+        }
+        return rows;
+    }
+
+    private void appendName(byte[] name) {
+        Rows rows = this.rows;
+        if (this.namePoolSize + name.length > rows.namePool.length) {
+            byte[] namePool = Arrays.copyOf(rows.namePool,
+                    Math.max(this.namePoolSize + name.length, rows.namePool.length + (rows.namePool.length >> 1)));
+            rows = new Rows(rows.types, rows.flags, rows.ids, rows.starts, rows.ends, rows.nameStarts, namePool);
+            this.rows = rows;
+        }
+        System.arraycopy(name, 0, rows.namePool, this.namePoolSize, name.length);
+        this.namePoolSize += name.length;
+        rows.nameStarts[this.rowCount + 1] = this.namePoolSize;
+    }
+}
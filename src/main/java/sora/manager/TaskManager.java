@@ -1,9 +1,23 @@
 package sora.manager;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 
-import sora.storage.Storage;
+import sora.exception.InvalidFormatException;
+import sora.exception.SaveFailedException;
+import sora.storage.ArchiveEntry;
+import sora.storage.ArchiveStore;
+import sora.storage.CorruptionReport;
+import sora.storage.ExternalChange;
+import sora.storage.StorageEngine;
+import sora.storage.TaskTransfer;
 import sora.task.Task;
+import sora.ui.ConsoleOutput;
 import sora.ui.OutputHandler;
 
 /**
@@ -11,11 +25,26 @@ import sora.ui.OutputHandler;
  * <p>
  * Responsible for adding and retrieving tasks,
  * and providing the current task list and task count.
+ * <p>
+ * A {@code TaskManager} may be shared between threads. Changes are made one
+ * at a time while holding the lock of the manager, whereas reads never lock:
+ * they work on {@link TaskTree#snapshot() snapshots}, which share their nodes
+ * with the task list and are not affected by later changes, so any number of
+ * readers proceed while a change is being made. A whole {@link #snapshot()}
+ * of the manager may be taken as well, for reads that must all see the same
+ * tasks.
  */
 public class TaskManager {
 
-    private final Storage storage;
-    private final ArrayList<Task> tasks;
+    /** Number of imported rows held in memory before they are added to the task list. */
+    static final int IMPORT_BATCH_SIZE = 1000;
+
+    private final StorageEngine storage;
+    private final TaskTree tasks;
+    private final DateIndex dateIndex;
+    private final WriteBehindPersister persister;
+    private final ArchiveStore archive;
+    private final boolean isSnapshot;
 
     /**
      * Constructs a {@code TaskManager} with GUI or custom output support.
@@ -29,11 +58,7 @@ public class TaskManager {
      *                              initialization of the object.
      */
     public TaskManager(OutputHandler outputHandler) throws NullPointerException {
-        if (outputHandler == null) {
-            throw new NullPointerException("OutputHandler must not be null");
-        }
-        this.storage = new Storage(outputHandler);
-        this.tasks = new ArrayList<>(this.storage.load());
+        this(createStorage(outputHandler));
     }
 
     /**
@@ -42,17 +67,85 @@ public class TaskManager {
      * Storage messages will be printed directly to the console.
      */
     public TaskManager() {
-        this.storage = new Storage();
-        this.tasks = new ArrayList<>(this.storage.load());
+        this(new ConsoleOutput());
+    }
+
+    /**
+     * Constructs a {@code TaskManager} backed by the given {@link StorageEngine}.
+     *
+     * @param storage The engine used to load and persist tasks.
+     * @throws NullPointerException If {@code storage} is {@code null}.
+     */
+    public TaskManager(StorageEngine storage) throws NullPointerException {
+        this(storage, ArchiveStore.fromSystemProperty());
+    }
+
+    /**
+     * Constructs a {@code TaskManager} backed by the given {@link StorageEngine}
+     * and {@link ArchiveStore}.
+     * <p>
+     * Completed tasks that are due for archival are moved into the archive
+     * right after loading.
+     *
+     * @param storage The engine used to load and persist tasks.
+     * @param archive The archive receiving old completed tasks.
+     * @throws NullPointerException If {@code storage} or {@code archive} is {@code null}.
+     */
+    public TaskManager(StorageEngine storage, ArchiveStore archive) throws NullPointerException {
+        if (storage == null) {
+            throw new NullPointerException("StorageEngine must not be null");
+        }
+        if (archive == null) {
+            throw new NullPointerException("ArchiveStore must not be null");
+        }
+        this.storage = storage;
+        this.archive = archive;
+        ArrayList<Task> loadedTasks = this.storage.load();
+        this.tasks = new TaskTree(loadedTasks, TaskColumns.isEnabled(), this.storage.loadLastId());
+        this.dateIndex = new DateIndex();
+        this.dateIndex.addAll(this.tasks);
+        this.isSnapshot = false;
+        this.persister = createPersister();
+        persistAssignedIds();
+        archiveCompletedTasks(LocalDate.now());
+        this.storage.watch(this::mergeExternalChanges);
+    }
+
+    private TaskManager(TaskManager source) {
+        this.storage = source.storage;
+        this.archive = source.archive;
+        this.tasks = source.tasks.snapshot();
+        this.dateIndex = source.dateIndex.copy();
+        this.persister = null;
+        this.isSnapshot = true;
     }
 
     /**
-     * Retrieve the array of all tasks.
+     * Returns a read-only view of the task manager as it is now.
+     * <p>
+     * The view is taken in O(1) time and holds the tasks and the date index
+     * as they are at this point; later changes do not show in it. Its tasks
+     * cannot be changed, and it does not load persisted tasks, so tasks that
+     * are read through it must have been loaded before.
      *
-     * @return An {@link ArrayList} of {@link Task} objects.
+     * @return The snapshot.
      */
-    public ArrayList<Task> getTasks() {
-        return this.tasks;
+    public synchronized TaskManager snapshot() {
+        return this.isSnapshot ? this : new TaskManager(this);
+    }
+
+    /**
+     * Retrieve an unmodifiable snapshot of all tasks.
+     * <p>
+     * The snapshot is taken in O(1) time without locking and does not change
+     * when tasks are added or removed later, so it may be read while other
+     * threads change the task list. Tasks are looked up by number in it in
+     * O(log n) time.
+     *
+     * @return A {@link List} of {@link Task} objects.
+     */
+    public List<Task> getTasks() {
+        return this.tasks.snapshot();
     }
 
     /**
@@ -67,6 +160,10 @@ public class TaskManager {
     /**
      * Adds a new task to the task list
      * and persists the updated list.
+     * <p>
+     * With write-behind persistence the list is saved later by the
+     * {@link WriteBehindPersister}. If the task belongs to persisted tasks that
+     * have not been loaded yet, they are loaded first.
      *
      * @param task The {@link Task} object to add.
      * @throws NullPointerException If {@code task} is {@code null}. This
@@ -77,8 +174,107 @@ public class TaskManager {
         if (task == null) {
             throw new NullPointerException("Cannot add empty task");
         }
-        this.tasks.add(task);
-        this.storage.save(this.tasks);
+        checkWritable();
+        if (this.storage.isCold(task)) {
+            loadAllTasks();
+        }
+
+        synchronized (this) {
+            this.tasks.add(task);
+            this.tasks.takeAssignedIdCount(); // the ID is persisted with the task
+            this.storage.saveLastId(this.tasks.getLastId());
+            this.dateIndex.add(task);
+            if (this.persister != null) {
+                this.persister.markDirty();
+            } else {
+                this.storage.append(this.tasks.snapshot(), task);
+            }
+        }
+    }
+
+    /**
+     * Adds the given tasks to the end of the task list and persists the
+     * updated list once.
+     *
+     * @param newTasks The tasks to add.
+     */
+    public void addTasks(List<Task> newTasks) {
+        checkWritable();
+        if (newTasks.isEmpty()) {
+            return;
+        }
+        for (Task task : newTasks) {
+            if (this.storage.isCold(task)) {
+                loadAllTasks();
+                break;
+            }
+        }
+
+        synchronized (this) {
+            this.tasks.addAll(newTasks);
+            this.tasks.takeAssignedIdCount(); // the IDs are persisted with the tasks
+            this.storage.saveLastId(this.tasks.getLastId());
+            this.dateIndex.addAll(newTasks);
+            if (this.persister != null) {
+                this.persister.markDirty();
+            } else {
+                this.storage.save(this.tasks.snapshot());
+            }
+        }
+    }
+
+    /**
+     * Adds every task of a CSV or JSON Lines file to the task list.
+     * <p>
+     * The file is streamed and its rows are added in batches of
+     * {@value #IMPORT_BATCH_SIZE}, each persisted once, so a large file never
+     * has to fit in memory. Rows that cannot be read are skipped. If the file
+     * cannot be read to the end, the batches added before stay in the list.
+     *
+     * @param source Path of the file to import.
+     * @param report The report where skipped rows will be recorded.
+     * @return The number of imported tasks.
+     * @throws InvalidFormatException If the file type is not supported or the
+     *                                file cannot be read.
+     */
+    public int importTasks(Path source, CorruptionReport report) throws InvalidFormatException {
+        checkWritable();
+        ArrayList<Task> batch = new ArrayList<>();
+        int[] importedCount = new int[1];
+        try {
+            TaskTransfer.importTasks(source, task -> {
+                batch.add(task);
+                if (batch.size() == IMPORT_BATCH_SIZE) {
+                    addTasks(batch);
+                    importedCount[0] += batch.size();
+                    batch.clear();
+                }
+            }, report);
+        } catch (IOException ioException) {
+            throw new InvalidFormatException("Oops! I couldn't read " + source);
+        }
+
+        addTasks(batch);
+        return importedCount[0] + batch.size();
+    }
+
+    /**
+     * Writes every task to a CSV or JSON Lines file.
+     *
+     * @param target Path of the file to write.
+     * @return The number of exported tasks.
+     * @throws InvalidFormatException If the file type is not supported or the
+     *                                file cannot be written.
+     */
+    public int exportTasks(Path target) throws InvalidFormatException {
+        loadAllTasks();
+        List<Task> snapshot = this.tasks.snapshot();
+        try {
+            TaskTransfer.exportTasks(target, snapshot);
+        } catch (IOException ioException) {
+            throw new InvalidFormatException("Oops! I couldn't write " + target);
+        }
+        return snapshot.size();
     }
 
     /**
@@ -89,11 +285,59 @@ public class TaskManager {
      *         {@code null} otherwise.
      */
     public Task getTask(int index) {
-        if (isValidIndex(index)) {
+        List<Task> snapshot = this.tasks.snapshot();
+        if (index < 0 || index >= snapshot.size()) {
             return null;
         }
 
-        return this.tasks.get(index);
+        return snapshot.get(index);
+    }
+
+    /**
+     * Retrieves a task by its ID.
+     *
+     * @param id The ID of the task.
+     * @return The {@link Task} object if a task has the ID;
+     *         {@code null} otherwise.
+     */
+    public Task getTaskById(long id) {
+        return this.tasks.getById(id);
+    }
+
+    /**
+     * Finds the current index of the task with the given ID.
+     *
+     * @param id The ID of the task.
+     * @return The zero-based index of the task, or -1 if no task has the ID.
+     */
+    public int getTaskIndex(long id) {
+        return this.tasks.indexOfId(id);
+    }
+
+    /**
+     * Finds the tasks occurring on the given date through the date index.
+     * <p>
+     * A deadline occurs on its due date and an event on every day from its
+     * start date to its end date.
+     *
+     * @param date The date to look up.
+     * @return The matching tasks, in task list order.
+     */
+    public List<Task> getTasksOn(LocalDate date) {
+        return inListOrder(this.dateIndex.on(date));
+    }
+
+    /**
+     * Finds the tasks occurring on any date of the given range through the
+     * date index, including events that start before the range or end after
+     * it.
+     *
+     * @param from The first date of the range.
+     * @param to   The last date of the range.
+     * @return The matching tasks, in task list order.
+     */
+    public List<Task> getTasksBetween(LocalDate from, LocalDate to) {
+        return inListOrder(this.dateIndex.between(from, to));
     }
 
     /**
@@ -104,13 +348,19 @@ public class TaskManager {
      * @return The {@link Task} object if index is valid;
      *         {@code null} otherwise.
      */
-    public Task removeTask(int index) {
+    public synchronized Task removeTask(int index) {
+        checkWritable();
         if (isValidIndex(index)) {
             return null;
         }
 
         Task task = this.tasks.remove(index);
-        this.storage.save(this.tasks);
+        this.dateIndex.remove(task);
+        if (this.persister != null) {
+            this.persister.markDirty();
+        } else {
+            this.storage.remove(this.tasks.snapshot(), index);
+        }
 
         return task;
     }
@@ -125,14 +375,14 @@ public class TaskManager {
      * @return The {@link Task} object if index is valid;
      *         {@code null} otherwise.
      */
-    public Task markTask(int index) {
+    public synchronized Task markTask(int index) {
+        checkWritable();
         if (isValidIndex(index)) {
             return null;
         }
 
-        Task task = this.tasks.get(index);
-        task.markAsDone();
-        this.storage.save(this.tasks);
+        Task task = replaceTask(index, this.tasks.get(index).withStatus(true));
+        persistUpdate(index);
         return task;
     }
 
@@ -146,17 +396,275 @@ public class TaskManager {
      * @return The {@link Task} object if index is valid;
      *         {@code null} otherwise.
      */
-    public Task unmarkTask(int index) {
+    public synchronized Task unmarkTask(int index) {
+        checkWritable();
         if (isValidIndex(index)) {
             return null;
         }
 
-        Task task = this.tasks.get(index);
-        task.markAsNotDone();
-        this.storage.save(this.tasks);
+        Task task = replaceTask(index, this.tasks.get(index).withStatus(false));
+        persistUpdate(index);
+        return task;
+    }
+
+    /**
+     * Moves completed tasks that are due for archival out of the task list and
+     * into the archive.
+     * <p>
+     * Tasks are appended to the archive before the task list is saved, so a
+     * failure never loses a task. If the archive cannot be written, the tasks
+     * stay in the task list. Persisted tasks that have not been loaded are
+     * archived by the {@link StorageEngine} without loading them.
+     *
+     * @param today The current date.
+     * @return The number of archived tasks.
+     */
+    public synchronized int archiveCompletedTasks(LocalDate today) {
+        checkWritable();
+        int coldCount;
+        try {
+            coldCount = this.storage.archiveCold(this.archive, today);
+        } catch (IOException ioException) {
+            coldCount = 0;
+        }
+
+        ArrayList<Task> remaining = new ArrayList<>();
+        ArrayList<Task> archived = new ArrayList<>();
+        for (Task task : this.tasks) {
+            if (this.archive.isDue(task, today)) {
+                archived.add(task);
+            } else {
+                remaining.add(task);
+            }
+        }
+
+        if (archived.isEmpty()) {
+            return coldCount;
+        }
+
+        try {
+            this.archive.append(archived);
+        } catch (IOException ioException) {
+            return coldCount;
+        }
+
+        this.tasks.clear();
+        this.tasks.addAll(remaining);
+        this.dateIndex.clear();
+        this.dateIndex.addAll(remaining);
+        this.storage.save(this.tasks.snapshot());
+        return coldCount + archived.size();
+    }
+
+    /**
+     * Finds archived tasks whose name contains the given keyword.
+     *
+     * @param keyword Keyword to search for.
+     * @return The matching archive entries.
+     * @throws InvalidFormatException If the archive cannot be read.
+     */
+    public ArrayList<ArchiveEntry> searchArchive(String keyword) throws InvalidFormatException {
+        try {
+            return this.archive.search(keyword);
+        } catch (IOException ioException) {
+            throw new InvalidFormatException("Oops! I couldn't read my archive");
+        }
+    }
+
+    /**
+     * Moves an archived task back to the end of the task list.
+     * <p>
+     * The task is added and saved before it is removed from the archive, so a
+     * failure in between leaves it in both places rather than in neither.
+     *
+     * @param index Zero-based entry number of the archived task.
+     * @return The restored {@link Task}.
+     * @throws InvalidFormatException If the entry does not exist or the archive
+     *                                cannot be read or rewritten.
+     */
+    public Task restoreArchivedTask(int index) throws InvalidFormatException {
+        checkWritable();
+        Task task;
+        try {
+            task = this.archive.get(index + 1);
+        } catch (IOException ioException) {
+            throw new InvalidFormatException("Oops! I couldn't read my archive");
+        }
+
+        addTask(task);
+        flush();
+        try {
+            this.archive.remove(index + 1);
+        } catch (IOException ioException) {
+            throw new InvalidFormatException("Oops! I couldn't update my archive"
+                    + "\n The task is back in your list, but also still archived");
+        }
         return task;
     }
 
+    /**
+     * Merges changes made to the persisted tasks by other programs.
+     * <p>
+     * Tasks appended elsewhere are added to the end of the list, so the
+     * numbers of existing tasks do not change; any other change reloads the
+     * list. Nothing is merged while write-behind changes are pending, as their
+     * save keeps a copy of the other version instead.
+     */
+    public synchronized void mergeExternalChanges() {
+        checkWritable();
+        if (this.persister != null && this.persister.hasPendingChanges()) {
+            return;
+        }
+
+        ExternalChange change = this.storage.checkExternalChange();
+        if (change == null) {
+            return;
+        }
+        if (!change.isAppend()) {
+            this.tasks.clear();
+            this.dateIndex.clear();
+        }
+        this.tasks.addAll(change.getTasks());
+        this.dateIndex.addAll(change.getTasks());
+        persistAssignedIds();
+    }
+
+    /**
+     * Ensures that every persisted task is part of the task list.
+     * <p>
+     * Storage engines may leave old tasks out when loading; they are appended
+     * to the end of the list here, so the numbers of the tasks already in the
+     * list do not change.
+     */
+    public void loadAllTasks() {
+        loadTasksSince(null);
+    }
+
+    /**
+     * Ensures that every persisted task that may occur on or after the given
+     * date is part of the task list.
+     * <p>
+     * Nothing is waited for unless the {@link StorageEngine} has such tasks
+     * left to load, so reads do not block on write-behind saves. A
+     * {@link #snapshot()} never loads tasks.
+     *
+     * @param since Earliest date of interest, or {@code null} for all tasks.
+     */
+    public void loadTasksSince(LocalDate since) {
+        if (this.isSnapshot || !this.storage.hasColdTasks(since)) {
+            return;
+        }
+        // pending saves must not run on a snapshot without the newly loaded tasks
+        flush();
+        synchronized (this) {
+            List<Task> coldTasks = this.storage.loadCold(since);
+            this.tasks.addAll(coldTasks);
+            this.dateIndex.addAll(coldTasks);
+            persistAssignedIds();
+        }
+    }
+
+    /**
+     * Waits until all pending changes have been written to storage.
+     * <p>
+     * Changes are persisted synchronously unless write-behind persistence is
+     * enabled, in which case this method blocks until the writer thread has
+     * saved them. Background work of the {@link StorageEngine} is awaited too.
+     */
+    public void flush() {
+        if (this.persister != null) {
+            this.persister.flush();
+        }
+        this.storage.flush();
+    }
+
+    /**
+     * Persists the task list if tasks read from storage were given new IDs,
+     * e.g. when they were saved before tasks had IDs, so that they keep the
+     * same IDs the next time they are loaded. The highest ID given out is
+     * recorded first, so that it is never given out again.
+     */
+    private void persistAssignedIds() {
+        this.storage.saveLastId(this.tasks.getLastId());
+        if (this.tasks.takeAssignedIdCount() == 0) {
+            return;
+        }
+        if (this.persister != null) {
+            this.persister.markDirty();
+        } else {
+            this.storage.save(this.tasks.snapshot());
+        }
+    }
+
+    /**
+     * Looks up the tasks with the given IDs in a snapshot of the task list,
+     * in the order of their numbers.
+     * <p>
+     * The snapshot is taken after the date index was read. Tasks are added
+     * to the list before the index and removed from it before the index, so
+     * every ID is in the snapshot unless its task was removed in between, in
+     * which case it is left out.
+     */
+    private List<Task> inListOrder(Collection<Long> ids) {
+        TaskTree snapshot = this.tasks.snapshot();
+        int[] positions = new int[ids.size()];
+        int count = 0;
+        for (long id : ids) {
+            int position = snapshot.indexOfId(id);
+            if (position >= 0) {
+                positions[count++] = position;
+            }
+        }
+        Arrays.sort(positions, 0, count);
+
+        ArrayList<Task> sorted = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sorted.add(snapshot.get(positions[i]));
+        }
+        return sorted;
+    }
+
+    /**
+     * Replaces the task at the given index, leaving snapshots holding the
+     * previous task unchanged.
+     */
+    private Task replaceTask(int index, Task task) {
+        this.tasks.set(index, task); // the date index holds the same ID and dates
+        return task;
+    }
+
+    private void persistUpdate(int index) {
+        if (this.persister != null) {
+            this.persister.markDirty();
+        } else {
+            this.storage.update(this.tasks.snapshot(), index);
+        }
+    }
+
+    private static StorageEngine createStorage(OutputHandler outputHandler) {
+        if (outputHandler == null) {
+            throw new NullPointerException("OutputHandler must not be null");
+        }
+        return StorageEngine.fromSystemProperty(outputHandler);
+    }
+
+    private WriteBehindPersister createPersister() {
+        if (!WriteBehindPersister.isEnabled()) {
+            return null;
+        }
+        return new WriteBehindPersister(this.tasks::snapshot, snapshot -> {
+            if (this.storage.save(snapshot) == null) { // engines report a failed save by returning null
+                throw new SaveFailedException("the memory file could not be written", null);
+            }
+        });
+    }
+
+    private void checkWritable() {
+        if (this.isSnapshot) {
+            throw new UnsupportedOperationException("Snapshots cannot be changed");
+        }
+    }
+
     private boolean isValidIndex(int index) {
         return index < 0 || index >= getTaskCount();
     }
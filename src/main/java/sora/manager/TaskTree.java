@@ -0,0 +1,638 @@
+package sora.manager;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import sora.task.Task;
+
+/**
+ * A task list backed by a persistent order-statistic AVL tree.
+ * <p>
+ * Every node knows the size of its subtree, so the task at a display
+ * position is found by walking down from the root. Getting, inserting and
+ * removing a task by position therefore take O(log n) time wherever the
+ * position is, unlike an {@link java.util.ArrayList}, which shifts every later
+ * task when one near the front is removed.
+ * <p>
+ * Nodes are never changed once created: a change copies the O(log n) nodes
+ * on the path to the changed position and shares the rest of the tree. A
+ * {@link #snapshot()} therefore costs O(1) time, and it keeps showing the
+ * tasks as they were while the list goes on changing. Changes must come from
+ * one thread at a time, but snapshots and the lookups of the list may be
+ * used from any thread without locking.
+ * <p>
+ * Nodes hold either the task objects or, in the columnar layout, the rows of
+ * the tasks in {@link TaskColumns}, which take a fraction of the memory. In
+ * the columnar layout every read creates a new view of the task.
+ * <p>
+ * Iterating over the list visits every node once, and large bulk additions
+ * rebuild a perfectly balanced tree in linear time.
+ * <p>
+ * The tree also indexes its tasks by {@link Task#getId() ID}, and tasks are
+ * told apart by their ID. Every node also holds a key that grows with its
+ * position, so the number of a task is found by searching for the key of its
+ * ID in O(log n) time. Tasks without an ID, or with the ID of another task in
+ * the list, are given the next unused ID when they are added. IDs only grow,
+ * so the ID of a removed task is not given out again.
+ */
+public class TaskTree extends AbstractList<Task> {
+
+    /** Distance between the keys of neighbouring tasks after a renumbering. */
+    private static final long KEY_GAP = 1L << 32;
+
+    /** Number of rows of removed tasks that are kept before the columns are compacted. */
+    private static final int MIN_DEAD_ROWS = 1024;
+
+    private final Map<Long, Slot> slotsById;
+    private final boolean isSnapshot;
+    private volatile Version version;
+    private long lastId;
+    private int assignedIdCount;
+
+    /**
+     * Constructs an empty {@code TaskTree} holding task objects.
+     */
+    public TaskTree() {
+        this(List.of(), false);
+    }
+
+    /**
+     * Constructs a {@code TaskTree} holding the given tasks in order.
+     *
+     * @param tasks Tasks to be added.
+     */
+    public TaskTree(Collection<? extends Task> tasks) {
+        this(tasks, false);
+    }
+
+    /**
+     * Constructs a {@code TaskTree} holding the given tasks in order, either
+     * as objects or as rows of {@link TaskColumns}.
+     *
+     * @param tasks      Tasks to be added.
+     * @param isColumnar Whether the tasks are kept in columns.
+     */
+    public TaskTree(Collection<? extends Task> tasks, boolean isColumnar) {
+        this(tasks, isColumnar, Task.NO_ID);
+    }
+
+    /**
+     * Constructs a {@code TaskTree} holding the given tasks in order, giving
+     * tasks that need a new ID only IDs above the given one.
+     *
+     * @param tasks      Tasks to be added.
+     * @param isColumnar Whether the tasks are kept in columns.
+     * @param lastId     Highest ID given out before, e.g. to tasks that have
+     *                   been removed since.
+     */
+    public TaskTree(Collection<? extends Task> tasks, boolean isColumnar, long lastId) {
+        this.slotsById = new ConcurrentHashMap<>();
+        this.isSnapshot = false;
+        this.version = new Version(null, isColumnar ? new TaskColumns(0) : null);
+        this.lastId = lastId;
+        rebuild(tasks);
+    }
+
+    private TaskTree(Version version, Map<Long, Slot> slotsById) {
+        this.slotsById = slotsById;
+        this.isSnapshot = true;
+        this.version = version;
+    }
+
+    /**
+     * A tree together with the columns its rows refer to, so that both are
+     * read at once.
+     */
+    private static class Version {
+        private final Node root;
+        private final TaskColumns columns;
+
+        Version(Node root, TaskColumns columns) {
+            this.root = root;
+            this.columns = columns;
+        }
+
+        Task taskOf(Node node) {
+            return node.task != null ? node.task : this.columns.view(node.row);
+        }
+
+        long idOf(Node node) {
+            return node.task != null ? node.task.getId() : this.columns.getId(node.row);
+        }
+    }
+
+    private static class Node {
+        private final Task task;
+        private final int row;
+        private final long key;
+        private final Node left;
+        private final Node right;
+        private final int height;
+        private final int size;
+
+        Node(Task task, int row, long key, Node left, Node right) {
+            this.task = task;
+            this.row = row;
+            this.key = key;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = size(left) + size(right) + 1;
+        }
+
+        Node with(Node left, Node right) {
+            return new Node(this.task, this.row, this.key, left, right);
+        }
+    }
+
+    /**
+     * Where a task with an ID sits in the tree. The map of slots is shared
+     * with the snapshots of the tree, which check that a slot still matches
+     * their own nodes before using it. The task is kept only when the tree
+     * holds task objects.
+     */
+    private static class Slot {
+        private final Task task;
+        private final long key;
+
+        Slot(Task task, long key) {
+            this.task = task;
+            this.key = key;
+        }
+    }
+
+    /**
+     * Visits the nodes of a tree in order, in O(n) time overall. As nodes
+     * never change, the iterator never fails because of a later change to
+     * the list.
+     */
+    private static class NodeIterator implements Iterator<Node> {
+        private final Deque<Node> path = new ArrayDeque<>();
+
+        NodeIterator(Node root) {
+            pushLeft(root);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !this.path.isEmpty();
+        }
+
+        @Override
+        public Node next() {
+            if (this.path.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Node node = this.path.pop();
+            pushLeft(node.right);
+            return node;
+        }
+
+        private void pushLeft(Node node) {
+            for (Node next = node; next != null; next = next.left) {
+                this.path.push(next);
+            }
+        }
+    }
+
+    /**
+     * Returns an unmodifiable view of the tasks as they are now.
+     * <p>
+     * The view shares its nodes with this tree, so it is taken in O(1) time,
+     * and later changes to this tree do not show in it. It may be read from
+     * any thread without locking.
+     *
+     * @return The snapshot.
+     */
+    public TaskTree snapshot() {
+        return this.isSnapshot ? this : new TaskTree(this.version, this.slotsById);
+    }
+
+    @Override
+    public int size() {
+        return size(this.version.root);
+    }
+
+    @Override
+    public Task get(int index) {
+        Version current = this.version;
+        return current.taskOf(find(current.root, index));
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        checkWritable();
+        Version current = this.version;
+        Node node = find(current.root, index);
+        Task previous = current.taskOf(node);
+        long id = current.idOf(node);
+        if (task.getId() == id) {
+            this.slotsById.put(id, new Slot(current.columns == null ? task : null, node.key));
+        } else {
+            register(task, node.key);
+            this.slotsById.remove(id);
+        }
+        Node replacement = leaf(current.columns, task, node.key);
+        this.version = new Version(replace(current.root, index, replacement), current.columns);
+        compactIfDue();
+        return previous;
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        checkWritable();
+        if (index < 0 || index > size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        long key = keyFor(index);
+        register(task, key);
+        Version current = this.version;
+        this.version = new Version(insert(current.root, index, leaf(current.columns, task, key)), current.columns);
+    }
+
+    /**
+     * Adds the given tasks to the end of the list.
+     * <p>
+     * If at least as many tasks are added as the list already holds, the
+     * tree is rebuilt in linear time instead of inserting them one by one.
+     *
+     * @param tasks Tasks to be added.
+     * @return {@code true} if the list changed.
+     */
+    @Override
+    public boolean addAll(Collection<? extends Task> tasks) {
+        checkWritable();
+        if (tasks.size() < size()) {
+            return super.addAll(tasks);
+        }
+        if (tasks.isEmpty()) {
+            return false;
+        }
+        rebuild(tasks);
+        return true;
+    }
+
+    @Override
+    public Task remove(int index) {
+        checkWritable();
+        Version current = this.version;
+        Node node = find(current.root, index);
+        this.version = new Version(delete(current.root, index), current.columns);
+        this.slotsById.remove(current.idOf(node));
+        compactIfDue();
+        return current.taskOf(node);
+    }
+
+    @Override
+    public void clear() {
+        checkWritable();
+        this.version = new Version(null, this.version.columns == null ? null : new TaskColumns(0));
+        this.slotsById.clear();
+    }
+
+    /**
+     * Returns the index of the task with the same ID as the given task.
+     *
+     * @param o Task to look for.
+     * @return The zero-based index of the task, or -1 if it is not in the list.
+     */
+    @Override
+    public int indexOf(Object o) {
+        return o instanceof Task task ? indexOfId(task.getId()) : -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    /**
+     * Returns an iterator visiting the tasks in order, in O(n) time overall.
+     * <p>
+     * The iterator walks the tree as it was when the iterator was created, so
+     * it never fails because of a later change.
+     *
+     * @return An iterator over the tasks.
+     */
+    @Override
+    public Iterator<Task> iterator() {
+        Version current = this.version;
+        Iterator<Node> nodes = new NodeIterator(current.root);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return nodes.hasNext();
+            }
+
+            @Override
+            public Task next() {
+                return current.taskOf(nodes.next());
+            }
+        };
+    }
+
+    /**
+     * Returns the task with the given ID.
+     *
+     * @param id ID of the task.
+     * @return The task, or {@code null} if no task in the list has the ID.
+     */
+    public Task getById(long id) {
+        Slot slot = this.slotsById.get(id);
+        if (!this.isSnapshot && slot != null && slot.task != null) {
+            return slot.task;
+        }
+        Version current = this.version;
+        int index = indexOfId(current, id);
+        return index < 0 ? null : current.taskOf(find(current.root, index));
+    }
+
+    /**
+     * Returns the index of the task with the given ID.
+     *
+     * @param id ID of the task.
+     * @return The zero-based index of the task, or -1 if no task in the list
+     *         has the ID.
+     */
+    public int indexOfId(long id) {
+        return indexOfId(this.version, id);
+    }
+
+    /**
+     * Returns the highest ID given out by or added to this list, including
+     * the IDs of tasks removed since. New IDs are always higher.
+     *
+     * @return The highest ID, or {@link Task#NO_ID} if there was none.
+     */
+    public long getLastId() {
+        return this.lastId;
+    }
+
+    /**
+     * Returns the number of tasks that were given a new ID when they were
+     * added, and resets the count.
+     *
+     * @return The number of tasks given a new ID since the last call.
+     */
+    public int takeAssignedIdCount() {
+        int count = this.assignedIdCount;
+        this.assignedIdCount = 0;
+        return count;
+    }
+
+    private void checkWritable() {
+        if (this.isSnapshot) {
+            throw new UnsupportedOperationException("Snapshots cannot be changed");
+        }
+    }
+
+    /**
+     * Finds the index of the task with the given ID through its slot, or by
+     * looking at every node if the slot is newer than the version.
+     */
+    private int indexOfId(Version current, long id) {
+        Slot slot = this.slotsById.get(id);
+        if (slot != null) {
+            int index = rank(current, slot.key, id);
+            if (index >= 0) {
+                return index;
+            }
+        } else if (!this.isSnapshot) {
+            return -1;
+        }
+
+        int index = 0;
+        for (Iterator<Node> nodes = new NodeIterator(current.root); nodes.hasNext(); index++) {
+            if (current.idOf(nodes.next()) == id) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds the task to the ID index under the given key, giving it a new ID
+     * if it has none or if the ID is taken by another task.
+     */
+    private void register(Task task, long key) {
+        long id = task.getId();
+        if (id == Task.NO_ID || this.slotsById.containsKey(id)) {
+            id = ++this.lastId;
+            task.setId(id);
+            this.assignedIdCount++;
+        }
+        this.lastId = Math.max(this.lastId, id);
+        this.slotsById.put(id, new Slot(this.version.columns == null ? task : null, key));
+    }
+
+    /**
+     * Creates a node without children for the task, storing the task in a
+     * new row if the tree is columnar.
+     */
+    private static Node leaf(TaskColumns columns, Task task, long key) {
+        return columns == null
+                ? new Node(task, -1, key, null, null)
+                : new Node(null, columns.append(task), key, null, null);
+    }
+
+    /**
+     * Picks a key between the keys of the tasks around the given position,
+     * renumbering every key if there is no room left between them.
+     */
+    private long keyFor(int index) {
+        Node root = this.version.root;
+        int size = size(root);
+        if (size == 0) {
+            return 0;
+        }
+
+        long low = index > 0 ? find(root, index - 1).key : 0;
+        long high = index < size ? find(root, index).key : 0;
+        long key;
+        if (index == size) {
+            key = low <= Long.MAX_VALUE - KEY_GAP ? low + KEY_GAP : low;
+        } else if (index == 0) {
+            key = high >= Long.MIN_VALUE + KEY_GAP ? high - KEY_GAP : high;
+        } else {
+            key = (low >> 1) + (high >> 1) + (low & high & 1);
+        }
+
+        if ((index > 0 && key <= low) || (index < size && key >= high)) {
+            rebuild(List.of());
+            return keyFor(index);
+        }
+        return key;
+    }
+
+    /**
+     * Copies the live rows into new columns once the rows of removed and
+     * replaced tasks outnumber them.
+     */
+    private void compactIfDue() {
+        TaskColumns columns = this.version.columns;
+        if (columns != null && columns.getRowCount() - size() > Math.max(MIN_DEAD_ROWS, size())) {
+            rebuild(List.of());
+        }
+    }
+
+    /**
+     * Replaces the tree with a balanced tree of its tasks followed by the
+     * given tasks, keyed by their position. In the columnar layout the rows
+     * are copied into new columns, leaving out rows no longer in the list.
+     */
+    private void rebuild(Collection<? extends Task> added) {
+        Version current = this.version;
+        int size = size(current.root);
+        TaskColumns columns = current.columns == null ? null : new TaskColumns(size + added.size());
+        Node[] leaves = new Node[size + added.size()];
+
+        int i = 0;
+        for (Iterator<Node> nodes = new NodeIterator(current.root); nodes.hasNext(); i++) {
+            Node node = nodes.next();
+            long key = (long) i * KEY_GAP;
+            int row = columns == null ? -1 : columns.copyRow(current.columns, node.row);
+            leaves[i] = new Node(node.task, row, key, null, null);
+            this.slotsById.put(current.idOf(node), new Slot(node.task, key));
+        }
+        for (Task task : added) {
+            long key = (long) i * KEY_GAP;
+            register(task, key);
+            leaves[i++] = leaf(columns, task, key);
+        }
+        this.version = new Version(build(leaves, 0, leaves.length), columns);
+    }
+
+    private static Node find(Node root, int index) {
+        if (index < 0 || index >= size(root)) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size(root));
+        }
+
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node;
+            }
+        }
+    }
+
+    /**
+     * Counts the nodes before the node with the given key by searching for
+     * the key, or returns -1 if the tree has no node with both the key and
+     * the ID.
+     */
+    private static int rank(Version version, long key, long id) {
+        int rank = 0;
+        Node node = version.root;
+        while (node != null) {
+            if (key < node.key) {
+                node = node.left;
+            } else if (key > node.key) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return version.idOf(node) == id ? rank + size(node.left) : -1;
+            }
+        }
+        return -1;
+    }
+
+    private static Node build(Node[] leaves, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        return leaves[middle].with(build(leaves, from, middle), build(leaves, middle + 1, to));
+    }
+
+    private static Node insert(Node node, int index, Node inserted) {
+        if (node == null) {
+            return inserted;
+        }
+        int leftSize = size(node.left);
+        if (index <= leftSize) {
+            return balance(node, insert(node.left, index, inserted), node.right);
+        }
+        return balance(node, node.left, insert(node.right, index - leftSize - 1, inserted));
+    }
+
+    private static Node replace(Node node, int index, Node replacement) {
+        int leftSize = size(node.left);
+        if (index < leftSize) {
+            return node.with(replace(node.left, index, replacement), node.right);
+        }
+        if (index > leftSize) {
+            return node.with(node.left, replace(node.right, index - leftSize - 1, replacement));
+        }
+        return replacement.with(node.left, node.right);
+    }
+
+    private static Node delete(Node node, int index) {
+        int leftSize = size(node.left);
+        if (index < leftSize) {
+            return balance(node, delete(node.left, index), node.right);
+        }
+        if (index > leftSize) {
+            return balance(node, node.left, delete(node.right, index - leftSize - 1));
+        }
+
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        Node successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor, node.left, delete(node.right, 0));
+    }
+
+    /**
+     * Copies the node over the given subtrees, rotating copies into place if
+     * their heights differ by two.
+     */
+    private static Node balance(Node node, Node left, Node right) {
+        if (height(left) > height(right) + 1) {
+            if (height(left.left) >= height(left.right)) {
+                return left.with(left.left, node.with(left.right, right));
+            }
+            Node pivot = left.right;
+            return pivot.with(left.with(left.left, pivot.left), node.with(pivot.right, right));
+        }
+        if (height(right) > height(left) + 1) {
+            if (height(right.right) >= height(right.left)) {
+                return right.with(node.with(left, right.left), right.right);
+            }
+            Node pivot = right.left;
+            return pivot.with(node.with(left, pivot.left), right.with(pivot.right, right.right));
+        }
+        return node.with(left, right);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+}
@@ -0,0 +1,256 @@
+package sora.manager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import sora.exception.SaveFailedException;
+import sora.task.Task;
+
+/**
+ * Persists the task list on a background writer thread.
+ * <p>
+ * Mutations only mark the task list as dirty, so the caller never waits for
+ * disk I/O. The writer thread then merges a burst of changes into a single
+ * save (group commit). A save is started once either limit is reached:
+ * <ul>
+ *     <li>The oldest unsaved change is {@code sora.persistence.latency}
+ *         milliseconds old (default {@value #DEFAULT_MAX_LATENCY_MS}).</li>
+ *     <li>{@code sora.persistence.batch} changes are waiting
+ *         (default {@value #DEFAULT_MAX_BATCH}).</li>
+ * </ul>
+ * Write-behind persistence is enabled with {@code -Dsora.persistence=async}.
+ * Pending changes are flushed by {@link #flush()}, and the changes of every
+ * persister that has not been {@link #close() closed} by a single shutdown
+ * hook shared by all persisters.
+ * <p>
+ * If a save fails with an exception, the writer thread keeps running and the
+ * changes stay pending. They are saved again with the next change or flush,
+ * and {@link #flush()} reports the failure if saving them fails again.
+ */
+public class WriteBehindPersister {
+
+    /** System property used to enable write-behind persistence. */
+    public static final String MODE_PROPERTY = "sora.persistence";
+
+    /** System property for the maximum delay of a change, in milliseconds. */
+    public static final String LATENCY_PROPERTY = "sora.persistence.latency";
+
+    /** System property for the number of changes that triggers a save. */
+    public static final String BATCH_PROPERTY = "sora.persistence.batch";
+
+    private static final String ASYNC = "async";
+    private static final long DEFAULT_MAX_LATENCY_MS = 50;
+    private static final int DEFAULT_MAX_BATCH = 64;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final Set<WriteBehindPersister> OPEN_PERSISTERS = ConcurrentHashMap.newKeySet();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(WriteBehindPersister::flushOpenPersisters,
+                "sora-write-behind-flush"));
+    }
+
+    private final Supplier<List<Task>> snapshotter;
+    private final Consumer<List<Task>> saver;
+    private final long maxLatencyNanos;
+    private final int maxBatch;
+    private final Thread writer;
+
+    private int pendingChanges;
+    private int savingChanges;
+    private long firstChangeNanos;
+    private boolean isSaving;
+    private boolean isRetryHeld;
+    private RuntimeException failure;
+    private boolean isFlushRequested;
+    private boolean isClosed;
+
+    /**
+     * Constructs a {@code WriteBehindPersister} and starts its writer thread.
+     *
+     * @param snapshotter Supplies a snapshot of the task list to be saved.
+     * @param saver       Saves the given snapshot of the task list.
+     * @param maxLatency  Maximum delay of a change, in milliseconds.
+     * @param maxBatch    Number of pending changes that triggers a save.
+     */
+    public WriteBehindPersister(Supplier<List<Task>> snapshotter, Consumer<List<Task>> saver,
+                                long maxLatency, int maxBatch) {
+        assert snapshotter != null && saver != null : "Snapshotter and saver must not be null";
+        this.snapshotter = snapshotter;
+        this.saver = saver;
+        this.maxLatencyNanos = Math.max(0, maxLatency) * NANOS_PER_MILLI;
+        this.maxBatch = Math.max(1, maxBatch);
+
+        this.writer = new Thread(this::runWriter, "sora-write-behind");
+        this.writer.setDaemon(true);
+        this.writer.start();
+        OPEN_PERSISTERS.add(this);
+    }
+
+    /**
+     * Constructs a {@code WriteBehindPersister} with limits taken from the
+     * {@code sora.persistence.*} system properties.
+     *
+     * @param snapshotter Supplies a snapshot of the task list to be saved.
+     * @param saver       Saves the given snapshot of the task list.
+     */
+    public WriteBehindPersister(Supplier<List<Task>> snapshotter, Consumer<List<Task>> saver) {
+        this(snapshotter, saver, Long.getLong(LATENCY_PROPERTY, DEFAULT_MAX_LATENCY_MS),
+                Integer.getInteger(BATCH_PROPERTY, DEFAULT_MAX_BATCH));
+    }
+
+    /**
+     * Checks if write-behind persistence is selected by the
+     * {@code sora.persistence} system property.
+     *
+     * @return {@code true} if the property is set to {@code async}.
+     */
+    public static boolean isEnabled() {
+        return ASYNC.equalsIgnoreCase(System.getProperty(MODE_PROPERTY, "").trim());
+    }
+
+    /**
+     * Records that the task list has changed and needs to be saved.
+     */
+    public synchronized void markDirty() {
+        if (this.pendingChanges == 0) {
+            this.firstChangeNanos = System.nanoTime();
+        }
+        this.pendingChanges++;
+        this.isRetryHeld = false;
+        notifyAll();
+    }
+
+    /**
+     * Checks if any change has not been saved yet.
+     *
+     * @return {@code true} if a change is pending or being saved.
+     */
+    public synchronized boolean hasPendingChanges() {
+        return this.pendingChanges > 0 || this.isSaving;
+    }
+
+    /**
+     * Saves all pending changes immediately and waits for the save to finish.
+     * <p>
+     * Changes whose earlier save failed are saved again.
+     *
+     * @throws SaveFailedException If the pending changes could not be saved;
+     *                             they stay pending.
+     */
+    public synchronized void flush() throws SaveFailedException {
+        this.isFlushRequested = true;
+        this.isRetryHeld = false;
+        this.failure = null;
+        notifyAll();
+        try {
+            while ((this.pendingChanges > 0 || this.isSaving) && this.failure == null) {
+                if (!this.writer.isAlive()) {
+                    return;
+                }
+                wait();
+            }
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        } finally {
+            this.isFlushRequested = false;
+        }
+
+        if (this.failure != null) {
+            throw new SaveFailedException("Oops! Failed to save tasks"
+                    + "\n Your latest changes are kept until the next save: " + this.failure.getMessage(),
+                    this.failure);
+        }
+    }
+
+    /**
+     * Flushes all pending changes and stops the writer thread.
+     * <p>
+     * The persister is no longer flushed when the JVM shuts down.
+     */
+    public void close() {
+        try {
+            flush();
+        } finally {
+            OPEN_PERSISTERS.remove(this);
+            synchronized (this) {
+                this.isClosed = true;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Flushes every persister that has not been closed, so that changes made
+     * right before the JVM exits are not lost.
+     */
+    private static void flushOpenPersisters() {
+        for (WriteBehindPersister persister : OPEN_PERSISTERS) {
+            try {
+                persister.flush();
+            } catch (SaveFailedException saveFailedException) {
+                System.err.println(saveFailedException.getMessage());
+            }
+        }
+    }
+
+    private void runWriter() {
+        while (awaitBatch()) {
+            RuntimeException saveFailure = null;
+            try {
+                this.saver.accept(this.snapshotter.get());
+            } catch (RuntimeException runtimeException) {
+                saveFailure = runtimeException; // the writer must survive to save later changes
+            }
+
+            synchronized (this) {
+                this.isSaving = false;
+                if (saveFailure != null) {
+                    if (this.pendingChanges == 0) {
+                        this.firstChangeNanos = System.nanoTime();
+                    }
+                    this.pendingChanges += this.savingChanges;
+                    this.isRetryHeld = true;
+                    this.failure = saveFailure;
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Waits until a batch of changes is due to be saved.
+     * <p>
+     * After a failed save, the batch is held back until the next change or
+     * flush, so that a lasting failure does not keep the writer busy.
+     *
+     * @return {@code true} if a save should be performed, or {@code false}
+     *         if the persister has been closed.
+     */
+    private synchronized boolean awaitBatch() {
+        try {
+            while (this.pendingChanges == 0 || this.isRetryHeld) {
+                if (this.isClosed) {
+                    return false;
+                }
+                wait();
+            }
+
+            long remaining = this.maxLatencyNanos - (System.nanoTime() - this.firstChangeNanos);
+            while (remaining > 0 && this.pendingChanges < this.maxBatch && !this.isFlushRequested) {
+                wait(remaining / NANOS_PER_MILLI, (int) (remaining % NANOS_PER_MILLI));
+                remaining = this.maxLatencyNanos - (System.nanoTime() - this.firstChangeNanos);
+            }
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        this.savingChanges = this.pendingChanges;
+        this.pendingChanges = 0;
+        this.isSaving = true;
+        return true;
+    }
+}
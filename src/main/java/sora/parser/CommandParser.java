@@ -1,11 +1,19 @@
 package sora.parser;
 
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+
 import sora.command.AddTaskCommand;
+import sora.command.ArchiveSearchCommand;
+import sora.command.BetweenCommand;
 import sora.command.Command;
 import sora.command.ExitCommand;
+import sora.command.ExportCommand;
 import sora.command.FindCommand;
+import sora.command.ImportCommand;
 import sora.command.ListCommand;
 import sora.command.OnCommand;
+import sora.command.RestoreCommand;
 import sora.command.index.DeleteCommand;
 import sora.command.index.MarkCommand;
 import sora.command.index.UnmarkCommand;
@@ -25,6 +33,8 @@ import sora.task.ToDo;
  */
 public class CommandParser {
 
+    private static final String ID_PREFIX = "#";
+
     /**
      * Parses user input and returns the corresponding {@link Command}.
      *
@@ -61,9 +71,24 @@ public class CommandParser {
         case ON
                 -> parseFilter(cmd);
 
+        case BETWEEN
+                -> parseRangeFilter(cmd);
+
         case FIND
                 -> parseSearch(cmd);
 
+        case ARCHIVED
+                -> parseArchiveSearch(cmd);
+
+        case RESTORE
+                -> new RestoreCommand(getIndex(cmd, keyword.getKeyword()));
+
+        case IMPORT
+                -> new ImportCommand(getFilePath(cmd, keyword.getKeyword()));
+
+        case EXPORT
+                -> new ExportCommand(getFilePath(cmd, keyword.getKeyword()));
+
         case TODO, EVENT, DEADLINE
                 -> parseAddTaskCommand(cmd, keyword.getKeyword());
 
@@ -72,8 +97,22 @@ public class CommandParser {
         };
     }
 
+    /**
+     * Checks if the input is the exit command, looking only at its keyword.
+     *
+     * @param cmd The full command entered by the user.
+     * @return {@code true} if the input would be parsed as an {@link ExitCommand}.
+     */
+    public static boolean isExitCommand(String cmd) {
+        String[] parts = cmd.toLowerCase().trim().split("\\s+");
+        return parts[0].equals(CommandType.BYE.getKeyword());
+    }
+
     /**
      * Parses a command that operates on an existing task index.
+     * <p>
+     * The task may be given by its number in the list (e.g. "mark 3") or by
+     * its ID (e.g. "mark #12").
      *
      * @param cmd The full command entered by the user.
      * @param keyword  The command keyword (e.g. "mark", "delete").
@@ -94,17 +133,18 @@ public class CommandParser {
             throw new UnknownCommandException();
         }
 
-        int index = getIndex(cmd, keyword);
+        long id = getTaskId(cmd);
+        int index = id == Task.NO_ID ? getIndex(cmd, keyword) : -1;
 
         CommandType type = CommandType.fromString(keyword);
 
         return switch (type) {
         case MARK
-            -> new MarkCommand(index);
+            -> new MarkCommand(index, id);
         case UNMARK
-            -> new UnmarkCommand(index);
+            -> new UnmarkCommand(index, id);
         case DELETE
-            -> new DeleteCommand(index);
+            -> new DeleteCommand(index, id);
         default
             -> throw new UnknownCommandException();
         };
@@ -137,6 +177,32 @@ public class CommandParser {
         return index;
     }
 
+    /**
+     * Extracts the task ID from a command that refers to a task as {@code #<id>}.
+     *
+     * @param cmd The full command entered by the user.
+     * @return The ID of the task, or {@link Task#NO_ID} if the task is
+     *         referred to by its number instead.
+     * @throws InvalidFormatException If the ID is invalid.
+     */
+    private static long getTaskId(String cmd) throws InvalidFormatException {
+        String[] parts = cmd.split(" ");
+        if (parts.length != 2 || !parts[1].startsWith(ID_PREFIX)) {
+            return Task.NO_ID;
+        }
+
+        try {
+            long id = Long.parseLong(parts[1].substring(ID_PREFIX.length()));
+            if (id > Task.NO_ID) {
+                return id;
+            }
+        } catch (NumberFormatException numberException) {
+            // reported below
+        }
+        throw new InvalidFormatException("Whoops! That task ID is not valid."
+                + "\nCheck the ID and try again");
+    }
+
     /**
      * Parses the filter command for tasks occurring on a specific date.
      *
@@ -157,6 +223,25 @@ public class CommandParser {
         return new OnCommand(target);
     }
 
+    /**
+     * Parses the filter command for tasks occurring within a range of dates.
+     *
+     * @param cmd The full command entered by the user.
+     * @return The corresponding {@link Command}.
+     * @throws InvalidFormatException If the dates are missing or invalid.
+     */
+    private static Command parseRangeFilter(String cmd)
+            throws InvalidFormatException {
+
+        String target = cmd.trim().substring(CommandType.BETWEEN.getKeyword().length()).trim();
+        if (target.isEmpty()) {
+            throw new InvalidFormatException("Oops! Dates cannot be empty. "
+                    + "\n Use between <date> <date>");
+        }
+
+        return new BetweenCommand(target);
+    }
+
     /**
      * Parses the FindCommand to search for task by name.
      *
@@ -176,6 +261,51 @@ public class CommandParser {
         return new FindCommand(target);
     }
 
+    /**
+     * Parses the ArchiveSearchCommand to search the archive by task name.
+     *
+     * @param cmd The full command entered by the user.
+     * @return The corresponding ArchiveSearchCommand.
+     * @throws InvalidFormatException If string to search is empty.
+     */
+    private static Command parseArchiveSearch(String cmd)
+            throws InvalidFormatException {
+
+        String target = cmd.trim().substring(CommandType.ARCHIVED.getKeyword().length()).trim();
+        if (target.isEmpty()) {
+            throw new InvalidFormatException("Oops! Keyword cannot be empty. "
+                    + "\n Use archived <keyword>");
+        }
+
+        return new ArchiveSearchCommand(target);
+    }
+
+    /**
+     * Extracts the file path from an import or export command.
+     * <p>
+     * The path keeps the case it was entered in.
+     *
+     * @param cmd     The full command entered by the user.
+     * @param keyword The command keyword (e.g. "import", "export").
+     * @return The path of the file.
+     * @throws InvalidFormatException If the path is missing or invalid.
+     */
+    private static Path getFilePath(String cmd, String keyword)
+            throws InvalidFormatException {
+
+        String target = cmd.trim().substring(keyword.length()).trim();
+        if (target.isEmpty()) {
+            throw new InvalidFormatException("Oops! File name cannot be empty. "
+                    + "\n Use " + keyword + " <file>.csv or " + keyword + " <file>.jsonl");
+        }
+
+        try {
+            return Path.of(target);
+        } catch (InvalidPathException invalidPathException) {
+            throw new InvalidFormatException("Whoops! That file name is not valid");
+        }
+    }
+
     /**
      * Parse task creation command.
      *
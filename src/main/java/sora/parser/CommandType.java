@@ -15,7 +15,12 @@ public enum CommandType {
     UNMARK("unmark"),
     DELETE("delete"),
     ON("on"),
+    BETWEEN("between"),
     FIND("find"),
+    ARCHIVED("archived"),
+    RESTORE("restore"),
+    IMPORT("import"),
+    EXPORT("export"),
     TODO("todo"),
     EVENT("event"),
     DEADLINE("deadline");
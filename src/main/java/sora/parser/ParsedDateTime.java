@@ -1,7 +1,9 @@
 package sora.parser;
 
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 
 import sora.exception.InvalidFormatException;
 
@@ -10,11 +12,22 @@ import sora.exception.InvalidFormatException;
  * <p>
  * Helps to distinguish between date-only and date-with-time inputs,
  * and provide formatted representations for display and storage.
+ * <p>
+ * The date and time are packed into a single {@code long}: the number of
+ * minutes since {@code 1970-01-01 00:00}, shifted left by one bit, with the
+ * lowest bit set for date-only inputs. Comparing two instances or finding the
+ * day of one is plain arithmetic, and {@code java.time} objects are only
+ * created when they are asked for, e.g. to display the date.
  */
-public class ParsedDateTime {
+public class ParsedDateTime implements Comparable<ParsedDateTime> {
+
+    private static final int SECONDS_PER_MINUTE = 60;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final long DATE_ONLY_BIT = 1L;
+    private static final long MIN_EPOCH_MINUTE = toEpochMinute(LocalDateTime.MIN);
+    private static final long MAX_EPOCH_MINUTE = toEpochMinute(LocalDateTime.MAX);
 
-    private final LocalDateTime dateTime;
-    private final DateInputType type;
+    private final long packed;
 
     /**
      * Constructs a new {@link ParsedDateTime} instance.
@@ -24,23 +37,76 @@ public class ParsedDateTime {
      *                 contains date only or date with time.
      */
     public ParsedDateTime(LocalDateTime dateTime, DateInputType type) {
-        assert dateTime != null : "dateTime must not be null";
-        assert type != null : "DateInputType must not be null";
-        this.dateTime = dateTime;
-        this.type = type;
+        this(pack(toEpochMinute(dateTime), type));
+    }
+
+    private ParsedDateTime(long packed) {
+        this.packed = packed;
     }
 
     /**
      * Retrieves the date component of the input.
+     * <p>
+     * Creates a new {@link LocalDate} on every call; use {@link #getEpochDay()}
+     * to compare dates without creating objects.
      *
      * @return The {@link LocalDate} representing the date component.
      */
     public LocalDate getDate() {
-        return this.dateTime.toLocalDate();
+        return LocalDate.ofEpochDay(getEpochDay());
+    }
+
+    /**
+     * Returns the number of days since {@code 1970-01-01}, the same as
+     * {@code getDate().toEpochDay()} but without creating any object.
+     *
+     * @return The date component as an epoch day.
+     */
+    public long getEpochDay() {
+        return Math.floorDiv(toEpochMinute(), MINUTES_PER_DAY);
     }
 
+    /**
+     * Retrieves the date and time of the input, creating a new
+     * {@link LocalDateTime} on every call.
+     *
+     * @return The {@link LocalDateTime} of the input.
+     */
     public LocalDateTime getDateTime() {
-        return this.dateTime;
+        return LocalDateTime.ofEpochSecond(toEpochMinute() * SECONDS_PER_MINUTE, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Checks if the input only contained a date.
+     *
+     * @return {@code true} if the type is {@link DateInputType#DATE_ONLY}.
+     */
+    public boolean isDateOnly() {
+        return (this.packed & DATE_ONLY_BIT) != 0;
+    }
+
+    /**
+     * Returns the number of minutes since {@code 1970-01-01 00:00}.
+     * <p>
+     * Used for compact storage, as inputs never contain seconds.
+     *
+     * @return The date and time as epoch minutes.
+     */
+    public long toEpochMinute() {
+        return this.packed >> 1;
+    }
+
+    /**
+     * Compares the dates and times of two inputs, ignoring whether they
+     * contained a time.
+     *
+     * @param other The input to compare with.
+     * @return A negative number, zero or a positive number if this input is
+     *         before, at the same minute as, or after {@code other}.
+     */
+    @Override
+    public int compareTo(ParsedDateTime other) {
+        return Long.compare(toEpochMinute(), other.toEpochMinute());
     }
 
     /**
@@ -50,9 +116,9 @@ public class ParsedDateTime {
      */
     @Override
     public String toString() {
-        return (type == DateInputType.DATE_ONLY)
-                ? this.dateTime.format(DateInputType.FORMAT_DATE_DISPLAY)
-                : this.dateTime.format(DateInputType.FORMAT_DATETIME_DISPLAY);
+        return isDateOnly()
+                ? getDateTime().format(DateInputType.FORMAT_DATE_DISPLAY)
+                : getDateTime().format(DateInputType.FORMAT_DATETIME_DISPLAY);
     }
 
     /**
@@ -62,9 +128,9 @@ public class ParsedDateTime {
      * @return A formatted string suitable for storage.
      */
     public String toStorageString() {
-        return (type == DateInputType.DATE_ONLY)
-                ? this.dateTime.format(DateInputType.FORMAT_DATE_INPUT)
-                : this.dateTime.format(DateInputType.FORMAT_DATETIME_INPUT);
+        return isDateOnly()
+                ? getDateTime().format(DateInputType.FORMAT_DATE_INPUT)
+                : getDateTime().format(DateInputType.FORMAT_DATETIME_INPUT);
     }
 
     /**
@@ -94,6 +160,33 @@ public class ParsedDateTime {
         }
     }
 
+    /**
+     * Creates a {@link ParsedDateTime} from epoch minutes.
+     *
+     * @param epochMinute Number of minutes since {@code 1970-01-01 00:00}.
+     * @param type        The {@link DateInputType} of the original input.
+     * @return The corresponding {@link ParsedDateTime}.
+     * @throws DateTimeException If the epoch minute is outside the range of
+     *                           {@link LocalDateTime}, e.g. when read from a
+     *                           corrupted file.
+     */
+    public static ParsedDateTime ofEpochMinute(long epochMinute, DateInputType type) throws DateTimeException {
+        if (epochMinute < MIN_EPOCH_MINUTE || epochMinute > MAX_EPOCH_MINUTE) {
+            throw new DateTimeException("Invalid epoch minute: " + epochMinute);
+        }
+        return new ParsedDateTime(pack(epochMinute, type));
+    }
+
+    private static long pack(long epochMinute, DateInputType type) {
+        assert type != null : "DateInputType must not be null";
+        return (epochMinute << 1) | (type == DateInputType.DATE_ONLY ? DATE_ONLY_BIT : 0);
+    }
+
+    private static long toEpochMinute(LocalDateTime dateTime) {
+        assert dateTime != null : "dateTime must not be null";
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), SECONDS_PER_MINUTE);
+    }
+
     /**
      * Validates that the end {@link ParsedDateTime} is not before the start.
      *
@@ -102,6 +195,6 @@ public class ParsedDateTime {
      * @return true if end is the same or after start; false if end is before start.
      */
     public static boolean isValidStartEnd(ParsedDateTime start, ParsedDateTime end) {
-        return !end.getDateTime().isBefore(start.getDateTime());
+        return end.compareTo(start) >= 0;
     }
 }
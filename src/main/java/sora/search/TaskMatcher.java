@@ -1,6 +1,7 @@
 package sora.search;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -42,7 +43,7 @@ public class TaskMatcher {
      * @param tasks   All tasks to be evaluated.
      * @return Tasks that match the search criteria.
      */
-    public ArrayList<Task> findMatchingTasks(ArrayList<Task> tasks) {
+    public ArrayList<Task> findMatchingTasks(List<Task> tasks) {
         if (tasks == null) {
             throw new IllegalArgumentException("Task list must not be empty");
         }
@@ -0,0 +1,31 @@
+package sora.storage;
+
+import sora.task.Task;
+
+/**
+ * Represents a task found in the {@link ArchiveStore}.
+ */
+public class ArchiveEntry {
+
+    private final int entryNo;
+    private final Task task;
+
+    /**
+     * Constructs an ArchiveEntry.
+     *
+     * @param entryNo One-based position of the task in the archive.
+     * @param task    The archived task.
+     */
+    public ArchiveEntry(int entryNo, Task task) {
+        this.entryNo = entryNo;
+        this.task = task;
+    }
+
+    public int getEntryNo() {
+        return entryNo;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+}
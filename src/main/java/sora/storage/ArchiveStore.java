@@ -0,0 +1,226 @@
+package sora.storage;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import sora.exception.InvalidFormatException;
+import sora.exception.SoraException;
+import sora.task.Deadline;
+import sora.task.Event;
+import sora.task.Task;
+
+/**
+ * Append-only cold store for completed tasks.
+ * <p>
+ * A completed {@link Deadline} or {@link Event} whose date lies more than
+ * {@code sora.archive.days} days in the past is moved out of the task list
+ * into {@code data/archive.txt}, which uses the same line format as the data
+ * file. Automatic archival is disabled unless the property is set.
+ * <p>
+ * The archive is never loaded as a whole: searching, reading and removing
+ * entries stream through it one line at a time. Archived tasks are numbered by their line in
+ * the archive.
+ */
+public class ArchiveStore {
+
+    /** System property for the age in days after which completed tasks are archived. */
+    public static final String AGE_PROPERTY = "sora.archive.days";
+
+    private static final int DISABLED = -1;
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path path;
+    private final int maxAgeDays;
+
+    /**
+     * Constructs an {@code ArchiveStore}.
+     *
+     * @param path       Path of the archive file.
+     * @param maxAgeDays Age in days after which completed tasks are archived, or
+     *                   a negative number to disable automatic archival.
+     */
+    public ArchiveStore(Path path, int maxAgeDays) {
+        assert path != null : "Path must not be null";
+        this.path = path;
+        this.maxAgeDays = maxAgeDays;
+    }
+
+    /**
+     * Constructs an {@code ArchiveStore} for {@code data/archive.txt} with the
+     * age taken from the {@code sora.archive.days} system property.
+     *
+     * @return The configured {@code ArchiveStore}.
+     */
+    public static ArchiveStore fromSystemProperty() {
+        return new ArchiveStore(Paths.get("data", "archive.txt"), Integer.getInteger(AGE_PROPERTY, DISABLED));
+    }
+
+    /**
+     * Checks if completed tasks are archived automatically.
+     *
+     * @return {@code true} if an age for archival is configured.
+     */
+    public boolean isEnabled() {
+        return this.maxAgeDays >= 0;
+    }
+
+    /**
+     * Checks if the given task should be moved into the archive.
+     *
+     * @param task  The task to check.
+     * @param today The current date.
+     * @return {@code true} if the task is completed and dated more than the
+     *         configured number of days before {@code today}.
+     */
+    public boolean isDue(Task task, LocalDate today) {
+        if (!isEnabled() || !task.isDone()) {
+            return false;
+        }
+
+        long cutoff = today.toEpochDay() - this.maxAgeDays;
+        if (task instanceof Deadline deadline) {
+            return deadline.getDeadline().getEpochDay() < cutoff;
+        }
+        if (task instanceof Event event) {
+            return event.getEndDate().getEpochDay() < cutoff;
+        }
+        return false;
+    }
+
+    /**
+     * Appends the given tasks to the end of the archive.
+     *
+     * @param tasks Tasks to be archived.
+     * @throws IOException If the archive cannot be written.
+     */
+    public void append(List<Task> tasks) throws IOException {
+        if (this.path.getParent() != null) {
+            Files.createDirectories(this.path.getParent());
+        }
+
+        try (BufferedWriter writer = Files.newBufferedWriter(this.path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            for (Task task : tasks) {
+                writer.write(Storage.saveTask(task));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Finds archived tasks whose name contains the given keyword.
+     *
+     * @param keyword Keyword to search for, matched case-insensitively.
+     * @return The matching entries in archive order.
+     * @throws IOException If the archive cannot be read.
+     */
+    public ArrayList<ArchiveEntry> search(String keyword) throws IOException {
+        ArrayList<ArchiveEntry> matches = new ArrayList<>();
+        if (!Files.exists(this.path)) {
+            return matches;
+        }
+
+        String target = keyword.trim().toLowerCase();
+        try (BufferedReader reader = Files.newBufferedReader(this.path)) {
+            String line;
+            int entryNo = 0;
+            while ((line = reader.readLine()) != null) {
+                entryNo++;
+                try {
+                    Task task = Storage.loadTask(line);
+                    if (task.getName().toLowerCase().contains(target)) {
+                        matches.add(new ArchiveEntry(entryNo, task));
+                    }
+                } catch (SoraException soraException) {
+                    // corrupted entries cannot match and are left in place
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Reads the task with the given entry number from the archive.
+     *
+     * @param entryNo One-based entry number of the task.
+     * @return The archived task.
+     * @throws IOException            If the archive cannot be read.
+     * @throws InvalidFormatException If there is no valid task with that number.
+     */
+    public Task get(int entryNo) throws IOException, InvalidFormatException {
+        if (entryNo >= 1 && Files.exists(this.path)) {
+            try (BufferedReader reader = Files.newBufferedReader(this.path)) {
+                String line;
+                int lineNo = 0;
+                while ((line = reader.readLine()) != null) {
+                    if (++lineNo == entryNo) {
+                        return Storage.loadTask(line);
+                    }
+                }
+            } catch (SoraException soraException) {
+                throw new InvalidFormatException("Hmm... that archived task is corrupted"
+                        + "\n I can't bring it back");
+            }
+        }
+        throw new InvalidFormatException("Whoops! That archived task does not exist."
+                + "\nDouble-check the number and try again");
+    }
+
+    /**
+     * Removes the task with the given entry number from the archive.
+     * <p>
+     * The archive is streamed into a temporary file without that entry, which
+     * then replaces the archive. A task being restored must be saved to the
+     * task list before it is removed, so that a failure never loses it.
+     *
+     * @param entryNo One-based entry number of the task.
+     * @throws IOException            If the archive cannot be rewritten.
+     * @throws InvalidFormatException If there is no task with that number.
+     */
+    public void remove(int entryNo) throws IOException, InvalidFormatException {
+        if (entryNo < 1 || !Files.exists(this.path)) {
+            throw new InvalidFormatException("Whoops! That archived task does not exist."
+                    + "\nDouble-check the number and try again");
+        }
+
+        Path tempPath = this.path.resolveSibling(this.path.getFileName() + TEMP_SUFFIX);
+        boolean isRemoved = false;
+        try (BufferedReader reader = Files.newBufferedReader(this.path);
+             BufferedWriter writer = Files.newBufferedWriter(tempPath)) {
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (lineNo == entryNo) {
+                    isRemoved = true;
+                    continue;
+                }
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+
+        if (!isRemoved) {
+            Files.deleteIfExists(tempPath);
+            throw new InvalidFormatException("Whoops! That archived task does not exist."
+                    + "\nDouble-check the number and try again");
+        }
+
+        try {
+            Files.move(tempPath, this.path, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException atomicMoveException) {
+            Files.move(tempPath, this.path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package sora.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import sora.exception.InvalidFormatException;
+import sora.parser.DateInputType;
+import sora.parser.ParsedDateTime;
+import sora.task.Deadline;
+import sora.task.Event;
+import sora.task.Task;
+import sora.task.ToDo;
+
+/**
+ * Reads and writes tasks in Sora's compact binary format.
+ * <p>
+ * The file starts with a header made of the magic bytes {@code SORA} and a
+ * version byte, followed by one record per task:
+ * <pre>
+ *     type    1 byte   'T', 'D' or 'E'
+ *     flags   1 byte   bit 0: done, bit 1: first date is date-only,
+ *                      bit 2: second date is date-only
+ *     id      8 bytes  ID of the task, 0 if it has none
+ *     dates   8 bytes  epoch minutes, once for a Deadline, twice for an Event
+ *     name    4 bytes  length of the name, followed by its UTF-8 bytes
+ * </pre>
+ * Names are at most 1 MiB long, so a record with a larger name length is
+ * reported as corrupted without reading the name.
+ * Files of version 1, written before tasks had IDs, have no {@code id} field
+ * and can still be read.
+ * Dates are stored as numbers, so they never go through a
+ * {@link java.time.format.DateTimeFormatter} on save or load.
+ */
+public class BinaryTaskCodec implements Closeable {
+
+    private static final byte[] MAGIC = {'S', 'O', 'R', 'A'};
+    private static final byte VERSION = 2;
+    private static final byte VERSION_WITHOUT_ID = 1;
+    private static final byte TODO = 'T';
+    private static final byte DEADLINE = 'D';
+    private static final byte EVENT = 'E';
+    private static final int DONE_FLAG = 1;
+    private static final int FIRST_DATE_ONLY_FLAG = 1 << 1;
+    private static final int SECOND_DATE_ONLY_FLAG = 1 << 2;
+
+    /** Largest name length accepted, so that a corrupted length cannot make a huge allocation. */
+    private static final int MAX_NAME_BYTES = 1 << 20;
+
+    private final DataInputStream input;
+    private final DataOutputStream output;
+    private final boolean hasIds;
+
+    private BinaryTaskCodec(DataInputStream input, DataOutputStream output, boolean hasIds) {
+        this.input = input;
+        this.output = output;
+        this.hasIds = hasIds;
+    }
+
+    /**
+     * Checks if the given file is in the binary format.
+     *
+     * @param path Path of the data file.
+     * @return {@code true} if the file starts with the magic bytes.
+     * @throws IOException If the file cannot be read.
+     */
+    public static boolean isBinary(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return Arrays.equals(in.readNBytes(MAGIC.length), MAGIC);
+        }
+    }
+
+    /**
+     * Opens a binary file for streaming reads and checks its header.
+     *
+     * @param path Path of the binary file.
+     * @return A codec positioned at the first record.
+     * @throws IOException If the file cannot be read or has an unsupported header.
+     */
+    public static BinaryTaskCodec openReader(Path path) throws IOException {
+        DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(path)));
+        int version;
+        try {
+            byte[] magic = in.readNBytes(MAGIC.length);
+            version = in.read();
+            if (!Arrays.equals(magic, MAGIC) || (version != VERSION && version != VERSION_WITHOUT_ID)) {
+                throw new IOException("Unsupported binary task file");
+            }
+        } catch (IOException ioException) {
+            in.close();
+            throw ioException;
+        }
+        return new BinaryTaskCodec(in, null, version == VERSION);
+    }
+
+    /**
+     * Creates a binary file for streaming writes and writes its header.
+     *
+     * @param path Path of the binary file; an existing file is replaced.
+     * @return A codec ready to write the first record.
+     * @throws IOException If the file cannot be written.
+     */
+    public static BinaryTaskCodec openWriter(Path path) throws IOException {
+        DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(path)));
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        return new BinaryTaskCodec(null, out, true);
+    }
+
+    /**
+     * Writes all given tasks to a binary file.
+     *
+     * @param path  Path of the binary file; an existing file is replaced.
+     * @param tasks Tasks to be written.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(Path path, List<Task> tasks) throws IOException {
+        try (BinaryTaskCodec writer = openWriter(path)) {
+            for (Task task : tasks) {
+                writer.writeTask(task);
+            }
+        }
+    }
+
+    /**
+     * Reads all tasks from a binary file.
+     * <p>
+     * Records cannot be resynchronised after a corrupted one, so reading stops
+     * at the first corrupted or truncated record.
+     *
+     * @param path   Path of the binary file.
+     * @param tasks  The ArrayList where successfully read tasks will be added to.
+     * @param report The report where a corrupted record will be recorded.
+     * @throws IOException If the file cannot be read.
+     */
+    public static void read(Path path, ArrayList<Task> tasks, CorruptionReport report) throws IOException {
+        try (BinaryTaskCodec reader = openReader(path)) {
+            int recordNo = 0;
+            while (true) {
+                recordNo++;
+                try {
+                    Task task = reader.readTask();
+                    if (task == null) {
+                        break;
+                    }
+                    tasks.add(task);
+                } catch (InvalidFormatException | EOFException corruptedException) {
+                    report.record(recordNo, corruptedException instanceof EOFException
+                            ? "Oops! The file ends in the middle of a task"
+                            : corruptedException.getMessage(), null);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return The next {@link Task}, or {@code null} at the end of the file.
+     * @throws IOException            If the file cannot be read or ends in the
+     *                                middle of a record.
+     * @throws InvalidFormatException If the record has an unknown task type.
+     */
+    public Task readTask() throws IOException, InvalidFormatException {
+        assert this.input != null : "Codec must be opened for reading";
+        int type = this.input.read();
+        if (type < 0) {
+            return null;
+        }
+
+        int flags = this.input.readUnsignedByte();
+        long id = this.hasIds ? this.input.readLong() : Task.NO_ID;
+        Task task = switch (type) {
+        case TODO -> new ToDo(readName());
+        case DEADLINE -> {
+            ParsedDateTime by = readDate(flags, FIRST_DATE_ONLY_FLAG);
+            yield new Deadline(readName(), by);
+        }
+        case EVENT -> {
+            ParsedDateTime from = readDate(flags, FIRST_DATE_ONLY_FLAG);
+            ParsedDateTime to = readDate(flags, SECOND_DATE_ONLY_FLAG);
+            yield new Event(readName(), from, to);
+        }
+        default -> throw new InvalidFormatException("Oops! Unknown task type");
+        };
+
+        if ((flags & DONE_FLAG) != 0) {
+            task.markAsDone();
+        }
+        task.setId(id);
+        return task;
+    }
+
+    /**
+     * Writes a single record.
+     *
+     * @param task Task to be written.
+     * @throws IOException           If the file cannot be written.
+     * @throws IllegalStateException If unsupported task type is entered or
+     *                               the name is longer than 1 MiB.
+     */
+    public void writeTask(Task task) throws IOException, IllegalStateException {
+        assert this.output != null : "Codec must be opened for writing";
+        assert task != null : "Task must not be null";
+        int flags = task.isDone() ? DONE_FLAG : 0;
+
+        if (task instanceof ToDo) {
+            this.output.writeByte(TODO);
+            this.output.writeByte(flags);
+            this.output.writeLong(task.getId());
+        } else if (task instanceof Deadline deadline) {
+            this.output.writeByte(DEADLINE);
+            this.output.writeByte(flags | dateFlag(deadline.getDeadline(), FIRST_DATE_ONLY_FLAG));
+            this.output.writeLong(task.getId());
+            this.output.writeLong(deadline.getDeadline().toEpochMinute());
+        } else if (task instanceof Event event) {
+            this.output.writeByte(EVENT);
+            this.output.writeByte(flags
+                    | dateFlag(event.getStartDate(), FIRST_DATE_ONLY_FLAG)
+                    | dateFlag(event.getEndDate(), SECOND_DATE_ONLY_FLAG));
+            this.output.writeLong(task.getId());
+            this.output.writeLong(event.getStartDate().toEpochMinute());
+            this.output.writeLong(event.getEndDate().toEpochMinute());
+        } else {
+            throw new IllegalStateException("Oops! Unknown task type");
+        }
+
+        byte[] name = task.getName().getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_NAME_BYTES) {
+            throw new IllegalStateException("Oops! Task name is too long");
+        }
+        this.output.writeInt(name.length);
+        this.output.write(name);
+    }
+
+    /**
+     * Closes the underlying stream.
+     *
+     * @throws IOException If the stream cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.input != null) {
+            this.input.close();
+        }
+        if (this.output != null) {
+            this.output.close();
+        }
+    }
+
+    private ParsedDateTime readDate(int flags, int dateOnlyFlag) throws IOException {
+        DateInputType type = (flags & dateOnlyFlag) != 0
+                ? DateInputType.DATE_ONLY
+                : DateInputType.DATETIME;
+        try {
+            return ParsedDateTime.ofEpochMinute(this.input.readLong(), type);
+        } catch (DateTimeException dateTimeException) {
+            throw new InvalidFormatException("Oops! This is an invalid date");
+        }
+    }
+
+    private String readName() throws IOException {
+        int length = this.input.readInt();
+        if (length < 0 || length > MAX_NAME_BYTES) {
+            throw new InvalidFormatException("Oops! Invalid task name");
+        }
+        byte[] name = this.input.readNBytes(length);
+        if (name.length < length) {
+            throw new EOFException("Task name is truncated");
+        }
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    private static int dateFlag(ParsedDateTime date, int dateOnlyFlag) {
+        return date.isDateOnly() ? dateOnlyFlag : 0;
+    }
+}
@@ -0,0 +1,255 @@
+package sora.storage;
+
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Reads and writes text data files through a block-framed Deflate stream.
+ * <p>
+ * The file starts with a header made of the magic bytes {@code SORZ} and a
+ * version byte, followed by independently compressed blocks of at most
+ * {@value #BLOCK_SIZE} bytes of text:
+ * <pre>
+ *     length       4 bytes  number of bytes of text in the block
+ *     packed size  4 bytes  number of compressed bytes that follow
+ *     data         packed size bytes of raw Deflate data
+ * </pre>
+ * Blocks are inflated one at a time while the text is being parsed, so a
+ * large file never has to be inflated in full before loading.
+ */
+public class BlockCompression {
+
+    private static final byte[] MAGIC = {'S', 'O', 'R', 'Z'};
+    private static final byte VERSION = 1;
+    private static final int BLOCK_SIZE = 256 * 1024;
+
+    private BlockCompression() {
+        // utility class
+    }
+
+    /**
+     * Checks if the given file is block-compressed.
+     *
+     * @param path Path of the data file.
+     * @return {@code true} if the file starts with the magic bytes.
+     * @throws IOException If the file cannot be read.
+     */
+    public static boolean isCompressed(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return Arrays.equals(in.readNBytes(MAGIC.length), MAGIC);
+        }
+    }
+
+    /**
+     * Opens a block-compressed file for reading its text.
+     *
+     * @param path Path of the compressed file.
+     * @return A stream over the inflated text.
+     * @throws IOException If the file cannot be read or has an unsupported header.
+     */
+    public static InputStream newInputStream(Path path) throws IOException {
+        DataInputStream in = new DataInputStream(Files.newInputStream(path));
+        try {
+            byte[] magic = in.readNBytes(MAGIC.length);
+            int version = in.read();
+            if (!Arrays.equals(magic, MAGIC) || version != VERSION) {
+                throw new IOException("Unsupported compressed task file");
+            }
+        } catch (IOException ioException) {
+            in.close();
+            throw ioException;
+        }
+        return new InflatingInputStream(in);
+    }
+
+    /**
+     * Creates a block-compressed file for writing text.
+     *
+     * @param path Path of the compressed file; an existing file is replaced.
+     * @return A writer whose text is compressed block by block.
+     * @throws IOException If the file cannot be written.
+     */
+    public static BufferedWriter newWriter(Path path) throws IOException {
+        DataOutputStream out = new DataOutputStream(Files.newOutputStream(path));
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        return new BufferedWriter(new OutputStreamWriter(new DeflatingOutputStream(out), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Output stream that collects text into blocks and writes each full block
+     * as a compressed frame.
+     */
+    private static class DeflatingOutputStream extends OutputStream {
+
+        private final DataOutputStream out;
+        private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        private final byte[] block = new byte[BLOCK_SIZE];
+        private byte[] packed = new byte[BLOCK_SIZE];
+        private int blockLength;
+
+        DeflatingOutputStream(DataOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int value) throws IOException {
+            if (this.blockLength == BLOCK_SIZE) {
+                writeBlock();
+            }
+            this.block[this.blockLength++] = (byte) value;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (this.blockLength == BLOCK_SIZE) {
+                    writeBlock();
+                }
+                int count = Math.min(length, BLOCK_SIZE - this.blockLength);
+                System.arraycopy(bytes, offset, this.block, this.blockLength, count);
+                this.blockLength += count;
+                offset += count;
+                length -= count;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (this.blockLength > 0) {
+                    writeBlock();
+                }
+            } finally {
+                this.deflater.end();
+                this.out.close();
+            }
+        }
+
+        private void writeBlock() throws IOException {
+            this.deflater.reset();
+            this.deflater.setInput(this.block, 0, this.blockLength);
+            this.deflater.finish();
+
+            int packedLength = 0;
+            while (!this.deflater.finished()) {
+                if (packedLength == this.packed.length) {
+                    this.packed = Arrays.copyOf(this.packed, this.packed.length * 2);
+                }
+                packedLength += this.deflater.deflate(this.packed, packedLength, this.packed.length - packedLength);
+            }
+
+            this.out.writeInt(this.blockLength);
+            this.out.writeInt(packedLength);
+            this.out.write(this.packed, 0, packedLength);
+            this.blockLength = 0;
+        }
+    }
+
+    /**
+     * Input stream that inflates one compressed frame at a time.
+     */
+    private static class InflatingInputStream extends InputStream {
+
+        private final DataInputStream in;
+        private final Inflater inflater = new Inflater(true);
+        private final byte[] block = new byte[BLOCK_SIZE];
+        private byte[] packed = new byte[BLOCK_SIZE];
+        private int blockLength;
+        private int position;
+
+        InflatingInputStream(DataInputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!ensureBlock()) {
+                return -1;
+            }
+            return this.block[this.position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!ensureBlock()) {
+                return -1;
+            }
+            int count = Math.min(length, this.blockLength - this.position);
+            System.arraycopy(this.block, this.position, bytes, offset, count);
+            this.position += count;
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.inflater.end();
+            this.in.close();
+        }
+
+        /**
+         * Inflates the next frame once the current block has been consumed.
+         *
+         * @return {@code false} at the end of the file.
+         * @throws IOException If the file cannot be read or a frame is corrupted.
+         */
+        private boolean ensureBlock() throws IOException {
+            while (this.position == this.blockLength) {
+                int length;
+                try {
+                    length = this.in.readInt();
+                } catch (EOFException endOfFile) {
+                    return false;
+                }
+                int packedLength = this.in.readInt();
+                if (length < 0 || length > BLOCK_SIZE || packedLength < 0) {
+                    throw new IOException("Corrupted compressed block");
+                }
+                if (packedLength > this.packed.length) {
+                    this.packed = new byte[packedLength];
+                }
+                this.in.readFully(this.packed, 0, packedLength);
+                inflate(length, packedLength);
+            }
+            return true;
+        }
+
+        private void inflate(int length, int packedLength) throws IOException {
+            this.inflater.reset();
+            this.inflater.setInput(this.packed, 0, packedLength);
+            try {
+                int inflated = 0;
+                while (inflated < length && !this.inflater.finished()) {
+                    int count = this.inflater.inflate(this.block, inflated, length - inflated);
+                    if (count == 0 && this.inflater.needsInput()) {
+                        break;
+                    }
+                    inflated += count;
+                }
+                if (inflated != length) {
+                    throw new IOException("Corrupted compressed block");
+                }
+            } catch (DataFormatException dataFormatException) {
+                throw new IOException("Corrupted compressed block", dataFormatException);
+            }
+            this.blockLength = length;
+            this.position = 0;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package sora.storage;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects the corrupted lines skipped while loading a file, so that they can
+ * be reported to the user in a single message.
+ * <p>
+ * The report counts the skipped lines by reason and keeps the first
+ * {@value #MAX_LINE_NUMBERS} line numbers. When quarantining is enabled, the
+ * content of every skipped line is kept as well so that it can be written to a
+ * quarantine file for later repair.
+ */
+public class CorruptionReport {
+
+    /** System property used to enable writing skipped lines to a quarantine file. */
+    public static final String QUARANTINE_PROPERTY = "sora.storage.quarantine";
+
+    private static final int MAX_LINE_NUMBERS = 10;
+
+    private final boolean isQuarantining;
+    private final Map<String, Integer> countsByReason = new LinkedHashMap<>();
+    private final ArrayList<Integer> lineNumbers = new ArrayList<>();
+    private final ArrayList<String> quarantinedLines = new ArrayList<>();
+    private int total;
+
+    /**
+     * Constructs an empty {@code CorruptionReport}.
+     *
+     * @param isQuarantining Whether the content of skipped lines should be kept.
+     */
+    public CorruptionReport(boolean isQuarantining) {
+        this.isQuarantining = isQuarantining;
+    }
+
+    /**
+     * Constructs an empty {@code CorruptionReport} that quarantines skipped lines
+     * if the {@code sora.storage.quarantine} system property is {@code true}.
+     *
+     * @return The configured {@code CorruptionReport}.
+     */
+    public static CorruptionReport fromSystemProperty() {
+        return new CorruptionReport(Boolean.getBoolean(QUARANTINE_PROPERTY));
+    }
+
+    public boolean isQuarantining() {
+        return this.isQuarantining;
+    }
+
+    /**
+     * Records a skipped line.
+     *
+     * @param lineNo Line number of the skipped line.
+     * @param reason Message of the error that caused the line to be skipped.
+     * @param line   Content of the line, or {@code null} if it is not quarantined.
+     */
+    public void record(int lineNo, String reason, String line) {
+        String key = reason == null ? "Unknown error" : reason.lines().findFirst().orElse(reason).trim();
+        this.countsByReason.merge(key, 1, Integer::sum);
+        if (this.lineNumbers.size() < MAX_LINE_NUMBERS) {
+            this.lineNumbers.add(lineNo);
+        }
+        if (this.isQuarantining && line != null) {
+            this.quarantinedLines.add(line);
+        }
+        this.total++;
+    }
+
+    /**
+     * Adds all entries of another report whose line numbers are relative to a
+     * later part of the same file.
+     *
+     * @param other      The report to add.
+     * @param lineOffset Number of lines preceding the part covered by {@code other}.
+     */
+    public void merge(CorruptionReport other, int lineOffset) {
+        other.countsByReason.forEach((reason, count) -> this.countsByReason.merge(reason, count, Integer::sum));
+        for (int lineNo : other.lineNumbers) {
+            if (this.lineNumbers.size() < MAX_LINE_NUMBERS) {
+                this.lineNumbers.add(lineOffset + lineNo);
+            }
+        }
+        this.quarantinedLines.addAll(other.quarantinedLines);
+        this.total += other.total;
+    }
+
+    public boolean isEmpty() {
+        return this.total == 0;
+    }
+
+    public int getTotal() {
+        return this.total;
+    }
+
+    public ArrayList<Integer> getLineNumbers() {
+        return this.lineNumbers;
+    }
+
+    /**
+     * Appends the quarantined lines to the given file.
+     *
+     * @param quarantinePath Path of the quarantine file.
+     * @return {@code true} if any line was written.
+     * @throws IOException If the file cannot be written.
+     */
+    public boolean writeQuarantine(Path quarantinePath) throws IOException {
+        if (this.quarantinedLines.isEmpty()) {
+            return false;
+        }
+
+        try (BufferedWriter writer = Files.newBufferedWriter(quarantinePath, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            for (String line : this.quarantinedLines) {
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Builds the message shown to the user.
+     *
+     * @param itemName Plural name of the skipped items (e.g. "tasks").
+     * @return A single message summarising the report.
+     */
+    public String toMessage(String itemName) {
+        StringBuilder message = new StringBuilder("Hmm... I skipped ")
+                .append(this.total).append(" corrupted ").append(itemName);
+        this.countsByReason.forEach((reason, count) ->
+                message.append("\n ").append(count).append(" x ").append(reason));
+
+        message.append("\n ").append(this.total > this.lineNumbers.size() ? "First lines: " : "Lines: ");
+        for (int i = 0; i < this.lineNumbers.size(); i++) {
+            message.append(i == 0 ? "" : ", ").append(this.lineNumbers.get(i));
+        }
+        return message.append("\n It won't affect the rest of your list").toString();
+    }
+}
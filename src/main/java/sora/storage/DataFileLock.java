@@ -0,0 +1,234 @@
+package sora.storage;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coordinates access to a data file between Sora processes, e.g. the CLI and
+ * the GUI running against the same {@code data/sora.txt}.
+ * <p>
+ * Readers take a shared lock and writers an exclusive lock on a
+ * {@code sora.txt.lock} file next to the data file. A separate file is locked
+ * because saves replace the data file itself. Locks are meant to be held only
+ * around the actual reads and writes, so two processes interleave their work
+ * instead of waiting for each other to exit.
+ * <p>
+ * File locks are held on behalf of the whole JVM, so threads of one process
+ * are serialised by an in-process lock first. The same thread may lock again
+ * while holding the lock, but a shared lock is never upgraded: the file lock
+ * would have to be given up in between, letting another process write while
+ * the caller still believes it is reading a stable file. Work that may write
+ * has to take the exclusive lock from the start.
+ * <p>
+ * Locks are taken with {@link #runShared(LockedAction)},
+ * {@link #runExclusive(LockedAction)} and their {@code call} counterparts,
+ * which release the lock once the given work is done.
+ * <p>
+ * Waiting for a lock gives up after {@code sora.storage.lock.timeout}
+ * milliseconds (default {@value #DEFAULT_TIMEOUT_MS}) with a
+ * {@link LockTimeoutException}.
+ */
+public class DataFileLock {
+
+    /** System property for the maximum wait for a lock, in milliseconds. */
+    public static final String TIMEOUT_PROPERTY = "sora.storage.lock.timeout";
+
+    private static final long DEFAULT_TIMEOUT_MS = 5000;
+    private static final long RETRY_INTERVAL_MS = 5;
+    private static final String LOCK_SUFFIX = ".lock";
+    private static final Map<Path, DataFileLock> LOCKS = new ConcurrentHashMap<>();
+
+    private final Path lockPath;
+    private final ReentrantLock threadLock = new ReentrantLock();
+    private FileChannel channel;
+    private FileLock fileLock;
+
+    private DataFileLock(Path lockPath) {
+        this.lockPath = lockPath;
+    }
+
+    /**
+     * Work done while holding a lock.
+     */
+    @FunctionalInterface
+    public interface LockedAction {
+        void run() throws IOException;
+    }
+
+    /**
+     * Work done while holding a lock that produces a result.
+     *
+     * @param <T> Type of the result.
+     */
+    @FunctionalInterface
+    public interface LockedCall<T> {
+        T call() throws IOException;
+    }
+
+    /**
+     * Signals that a lock could not be taken in time because another process
+     * is holding it.
+     */
+    public static class LockTimeoutException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        LockTimeoutException(Path lockPath) {
+            super("Timed out waiting for " + lockPath);
+        }
+    }
+
+    /**
+     * Returns the lock guarding the given data file.
+     *
+     * @param dataPath Path of the data file.
+     * @return The lock shared by every user of the data file in this process.
+     */
+    public static DataFileLock forDataFile(Path dataPath) {
+        Path lockPath = dataPath.resolveSibling(dataPath.getFileName() + LOCK_SUFFIX).toAbsolutePath().normalize();
+        return LOCKS.computeIfAbsent(lockPath, DataFileLock::new);
+    }
+
+    /**
+     * Runs the given action while holding a shared lock, allowing other
+     * processes to read at the same time.
+     *
+     * @param action The reads to be done.
+     * @throws IOException If the lock file cannot be opened, the wait timed
+     *                     out or the action failed.
+     */
+    public void runShared(LockedAction action) throws IOException {
+        callShared(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the given action while holding an exclusive lock, keeping other
+     * processes from reading or writing.
+     *
+     * @param action The writes to be done.
+     * @throws IOException           If the lock file cannot be opened, the
+     *                                wait timed out or the action failed.
+     * @throws IllegalStateException If the thread is holding a shared lock.
+     */
+    public void runExclusive(LockedAction action) throws IOException {
+        callExclusive(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the given call while holding a shared lock.
+     *
+     * @param call The reads to be done.
+     * @param <T>  Type of the result.
+     * @return The result of the call.
+     * @throws IOException If the lock file cannot be opened, the wait timed
+     *                     out or the call failed.
+     */
+    public <T> T callShared(LockedCall<T> call) throws IOException {
+        acquire(true);
+        try {
+            return call.call();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Runs the given call while holding an exclusive lock.
+     *
+     * @param call The writes to be done.
+     * @param <T>  Type of the result.
+     * @return The result of the call.
+     * @throws IOException           If the lock file cannot be opened, the
+     *                                wait timed out or the call failed.
+     * @throws IllegalStateException If the thread is holding a shared lock.
+     */
+    public <T> T callExclusive(LockedCall<T> call) throws IOException {
+        acquire(false);
+        try {
+            return call.call();
+        } finally {
+            release();
+        }
+    }
+
+    private void acquire(boolean isShared) throws IOException {
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong(TIMEOUT_PROPERTY, DEFAULT_TIMEOUT_MS));
+        long deadline = System.nanoTime() + timeoutNanos;
+        try {
+            if (!this.threadLock.tryLock(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new LockTimeoutException(this.lockPath);
+            }
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + this.lockPath);
+        }
+
+        if (this.fileLock != null) {
+            if (this.fileLock.isShared() && !isShared) {
+                this.threadLock.unlock();
+                throw new IllegalStateException("Cannot upgrade a shared lock on " + this.lockPath);
+            }
+            return;
+        }
+
+        try {
+            this.fileLock = lockFile(isShared, deadline);
+        } catch (IOException ioException) {
+            this.threadLock.unlock();
+            throw ioException;
+        }
+    }
+
+    private FileLock lockFile(boolean isShared, long deadline) throws IOException {
+        if (this.channel == null || !this.channel.isOpen()) {
+            Files.createDirectories(this.lockPath.getParent());
+            this.channel = FileChannel.open(this.lockPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        while (true) {
+            FileLock lock = this.channel.tryLock(0, Long.MAX_VALUE, isShared);
+            if (lock != null) {
+                return lock;
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                throw new LockTimeoutException(this.lockPath);
+            }
+            try {
+                Thread.sleep(RETRY_INTERVAL_MS);
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for " + this.lockPath);
+            }
+        }
+    }
+
+    private void release() {
+        try {
+            if (this.threadLock.getHoldCount() == 1 && this.fileLock != null) {
+                this.fileLock.release();
+            }
+        } catch (IOException ioException) {
+            // the lock is released when the channel is closed at the latest
+        } finally {
+            if (this.threadLock.getHoldCount() == 1) {
+                this.fileLock = null;
+            }
+            this.threadLock.unlock();
+        }
+    }
+}
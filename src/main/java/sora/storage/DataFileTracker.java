@@ -0,0 +1,211 @@
+package sora.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.zip.CRC32;
+
+/**
+ * Remembers the last version of a data file that {@link Storage} has read or
+ * written, so that changes made by other programs can be told apart from its
+ * own writes.
+ * <p>
+ * A version is identified by its size, last modified time and CRC-32
+ * checksum. Size and modified time are compared first, so checking an
+ * unchanged file costs a single file system call. A changed file is only
+ * read to tell whether it was appended to or replaced.
+ */
+public class DataFileTracker {
+
+    /**
+     * Kinds of differences between the file on disk and the remembered version.
+     */
+    public enum Difference {
+        UNCHANGED,
+        APPENDED,
+        REPLACED
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private boolean isKnown;
+    private long size;
+    private FileTime modified;
+    private CRC32 checksum;
+
+    /**
+     * Remembers the current content of the file, reading it in full.
+     *
+     * @param path Path of the data file.
+     * @throws IOException If the file cannot be read.
+     */
+    public void reset(Path path) throws IOException {
+        BasicFileAttributes attributes = readAttributes(path);
+        if (attributes == null) {
+            forget();
+            return;
+        }
+
+        CRC32 crc = new CRC32();
+        long length = checksum(path, attributes.size(), crc);
+        this.isKnown = true;
+        this.size = length;
+        this.modified = attributes.lastModifiedTime();
+        this.checksum = crc;
+    }
+
+    /**
+     * Remembers the content just written to the file, whose checksum was
+     * computed while the bytes were written, so the file is not read again.
+     * <p>
+     * Must be called before anyone else can change the file.
+     *
+     * @param path     Path of the data file.
+     * @param checksum Checksum of every byte of the file.
+     * @throws IOException If the attributes of the file cannot be read.
+     */
+    public void wrote(Path path, CRC32 checksum) throws IOException {
+        BasicFileAttributes attributes = readAttributes(path);
+        if (attributes == null) {
+            forget();
+            return;
+        }
+
+        this.isKnown = true;
+        this.size = attributes.size();
+        this.modified = attributes.lastModifiedTime();
+        this.checksum = checksum;
+    }
+
+    /**
+     * Forgets the remembered version, e.g. after a failed write left the file
+     * in an unknown state.
+     */
+    public void forget() {
+        this.isKnown = false;
+        this.checksum = null;
+    }
+
+    /**
+     * Records bytes appended to the end of the remembered version.
+     *
+     * @param path  Path of the data file.
+     * @param bytes The appended bytes.
+     * @throws IOException If the attributes of the file cannot be read.
+     */
+    public void appended(Path path, byte[] bytes) throws IOException {
+        if (!this.isKnown) {
+            return;
+        }
+        if (this.checksum != null) {
+            this.checksum.update(bytes);
+        }
+        this.size += bytes.length;
+        this.modified = Files.getLastModifiedTime(path);
+    }
+
+    /**
+     * Records a write that changed bytes in place without changing the size.
+     * <p>
+     * The checksum is not recomputed, so a later change of the file is always
+     * reported as {@link Difference#REPLACED}.
+     *
+     * @param path Path of the data file.
+     * @throws IOException If the attributes of the file cannot be read.
+     */
+    public void rewritten(Path path) throws IOException {
+        if (!this.isKnown) {
+            return;
+        }
+        this.checksum = null;
+        this.modified = Files.getLastModifiedTime(path);
+    }
+
+    public long getSize() {
+        return this.size;
+    }
+
+    /**
+     * Compares the file on disk with the remembered version.
+     * <p>
+     * A file that has been deleted, or that was never remembered, is reported
+     * as {@link Difference#UNCHANGED} unless it exists now, in which case it is
+     * {@link Difference#REPLACED}.
+     *
+     * @param path Path of the data file.
+     * @return How the file differs from the remembered version.
+     * @throws IOException If the file cannot be read.
+     */
+    public Difference compare(Path path) throws IOException {
+        BasicFileAttributes attributes = readAttributes(path);
+        if (attributes == null) {
+            return Difference.UNCHANGED;
+        }
+        if (!this.isKnown) {
+            return Difference.REPLACED;
+        }
+        if (attributes.size() == this.size && attributes.lastModifiedTime().equals(this.modified)) {
+            return Difference.UNCHANGED;
+        }
+        if (this.checksum == null || attributes.size() < this.size) {
+            return Difference.REPLACED;
+        }
+
+        CRC32 crc = new CRC32();
+        if (checksum(path, this.size, crc) < this.size || crc.getValue() != this.checksum.getValue()) {
+            return Difference.REPLACED;
+        }
+        if (attributes.size() == this.size) {
+            this.modified = attributes.lastModifiedTime(); // touched without a change
+            return Difference.UNCHANGED;
+        }
+        return endsWithLineBreak(path, this.size) ? Difference.APPENDED : Difference.REPLACED;
+    }
+
+    private static BasicFileAttributes readAttributes(Path path) throws IOException {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException noSuchFileException) {
+            return null;
+        }
+    }
+
+    /**
+     * Adds up to {@code limit} bytes from the start of the file to the checksum.
+     *
+     * @return The number of bytes read.
+     */
+    private static long checksum(Path path, long limit, CRC32 crc) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long total = 0;
+        try (InputStream in = Files.newInputStream(path)) {
+            while (total < limit) {
+                int count = in.read(buffer, 0, (int) Math.min(buffer.length, limit - total));
+                if (count < 0) {
+                    break;
+                }
+                crc.update(buffer, 0, count);
+                total += count;
+            }
+        }
+        return total;
+    }
+
+    private static boolean endsWithLineBreak(Path path, long length) throws IOException {
+        if (length == 0) {
+            return true;
+        }
+        ByteBuffer last = ByteBuffer.allocate(1);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            channel.read(last, length - 1);
+        }
+        return last.get(0) == '\n';
+    }
+}
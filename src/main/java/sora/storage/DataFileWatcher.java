@@ -0,0 +1,83 @@
+package sora.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * Watches a data file for changes made by other programs, e.g. a tool that
+ * syncs the file between machines.
+ * <p>
+ * The directory of the file is registered with a {@link WatchService}, and
+ * the callback runs on a daemon thread whenever the file is created,
+ * modified or replaced. The callback is also run for writes made by Sora
+ * itself, so it must tell them apart, see {@link DataFileTracker}.
+ */
+public class DataFileWatcher implements Closeable {
+
+    private final Path fileName;
+    private final WatchService watchService;
+    private final Runnable onChange;
+    private final Thread thread;
+
+    /**
+     * Constructs a {@code DataFileWatcher} and starts watching.
+     *
+     * @param file     The data file to watch; its directory must exist.
+     * @param onChange Callback run after the file has changed.
+     * @throws IOException If the directory cannot be watched.
+     */
+    public DataFileWatcher(Path file, Runnable onChange) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        this.fileName = file.getFileName();
+        this.onChange = onChange;
+        this.watchService = directory.getFileSystem().newWatchService();
+        try {
+            directory.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException ioException) {
+            this.watchService.close();
+            throw ioException;
+        }
+
+        this.thread = new Thread(this::run, "sora-file-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Stops watching the file.
+     *
+     * @throws IOException If the watch service cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        this.watchService.close();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = this.watchService.take();
+                boolean isChanged = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    isChanged |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                            || this.fileName.equals(event.context());
+                }
+                if (isChanged) {
+                    this.onChange.run();
+                }
+                if (!key.reset()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException stopped) {
+            // the watcher has been closed
+        }
+    }
+}
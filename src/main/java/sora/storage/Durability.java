@@ -0,0 +1,88 @@
+package sora.storage;
+
+/**
+ * Enum representing how strongly {@link Storage} forces saved data to disk.
+ * <p>
+ * Every save is written to a temporary file and atomically renamed into
+ * place, so a crash never leaves a half-written data file behind. The
+ * durability level decides whether the renamed file is also forced to the
+ * disk with {@code fsync}, trading save throughput for safety against
+ * power loss:
+ * <ul>
+ *     <li>{@link #NONE} - Never fsync; the operating system writes the file
+ *         back on its own schedule </li>
+ *     <li>{@link #FSYNC} - Fsync on every save </li>
+ *     <li>{@link #PERIODIC} - Fsync at most once every
+ *         {@code sora.storage.fsync.interval} milliseconds (default
+ *         {@value #DEFAULT_INTERVAL_MS}) </li>
+ * </ul>
+ * The level is selected with the {@code sora.storage.durability} system
+ * property (e.g. {@code -Dsora.storage.durability=fsync}) and defaults to
+ * {@link #NONE}.
+ */
+public enum Durability {
+    NONE("none"),
+    FSYNC("fsync"),
+    PERIODIC("periodic");
+
+    /** System property used to select the durability level. */
+    public static final String DURABILITY_PROPERTY = "sora.storage.durability";
+
+    /** System property for the interval between periodic fsyncs, in milliseconds. */
+    public static final String INTERVAL_PROPERTY = "sora.storage.fsync.interval";
+
+    private static final long DEFAULT_INTERVAL_MS = 1000;
+
+    private final String keyword;
+
+    Durability(String keyword) {
+        this.keyword = keyword;
+    }
+
+    public String getKeyword() {
+        return this.keyword;
+    }
+
+    /**
+     * Returns the interval between periodic fsyncs selected by the
+     * {@code sora.storage.fsync.interval} system property.
+     *
+     * @return The interval in milliseconds.
+     */
+    public static long getSyncInterval() {
+        return Math.max(0, Long.getLong(INTERVAL_PROPERTY, DEFAULT_INTERVAL_MS));
+    }
+
+    /**
+     * Maps the given string to the corresponding {@link Durability}.
+     * <p>
+     * Matching is case-insensitive. Unknown or missing values fall back to
+     * {@link #NONE}.
+     *
+     * @param input The name of the level (e.g. "fsync").
+     * @return The corresponding {@link Durability}.
+     */
+    public static Durability fromString(String input) {
+        if (input == null) {
+            return NONE;
+        }
+
+        for (Durability durability : values()) {
+            if (durability.keyword.equalsIgnoreCase(input.trim())) {
+                return durability;
+            }
+        }
+
+        return NONE;
+    }
+
+    /**
+     * Returns the {@link Durability} selected by the {@code sora.storage.durability}
+     * system property.
+     *
+     * @return The configured {@link Durability}.
+     */
+    public static Durability fromSystemProperty() {
+        return fromString(System.getProperty(DURABILITY_PROPERTY));
+    }
+}
@@ -0,0 +1,40 @@
+package sora.storage;
+
+import java.util.ArrayList;
+
+import sora.task.Task;
+
+/**
+ * Represents a change made to the data file by another program since it was
+ * last read or written by Sora.
+ */
+public class ExternalChange {
+
+    private final boolean isAppend;
+    private final ArrayList<Task> tasks;
+
+    /**
+     * Constructs an ExternalChange.
+     *
+     * @param isAppend Whether tasks were only appended to the file.
+     * @param tasks    The appended tasks, or every task of the file if it was replaced.
+     */
+    public ExternalChange(boolean isAppend, ArrayList<Task> tasks) {
+        this.isAppend = isAppend;
+        this.tasks = tasks;
+    }
+
+    /**
+     * Checks if tasks were only appended to the end of the file, in which case
+     * {@link #getTasks()} holds just the new tasks.
+     *
+     * @return {@code true} for an append, {@code false} if the file was replaced.
+     */
+    public boolean isAppend() {
+        return this.isAppend;
+    }
+
+    public ArrayList<Task> getTasks() {
+        return this.tasks;
+    }
+}
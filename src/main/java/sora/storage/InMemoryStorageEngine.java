@@ -0,0 +1,40 @@
+package sora.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import sora.task.Task;
+
+/**
+ * A {@link StorageEngine} that persists nothing.
+ * <p>
+ * Every session starts with an empty task list. Useful for measuring the
+ * cost of commands without any storage cost.
+ */
+public class InMemoryStorageEngine implements StorageEngine {
+
+    @Override
+    public ArrayList<Task> load() {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public SaveReport save(List<Task> tasks) {
+        return new SaveReport(0, 0, false);
+    }
+
+    @Override
+    public void append(List<Task> tasks, Task task) {
+        // nothing is persisted
+    }
+
+    @Override
+    public void update(List<Task> tasks, int index) {
+        // nothing is persisted
+    }
+
+    @Override
+    public void remove(List<Task> tasks, int index) {
+        // nothing is persisted
+    }
+}
@@ -0,0 +1,104 @@
+package sora.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import sora.task.Task;
+
+/**
+ * Keeps the highest task ID ever given out in a {@code sora.txt.lastid} file
+ * next to the data file.
+ * <p>
+ * Removed tasks, and tasks of segments that have not been loaded, are not in
+ * the task list, so the highest ID in the list does not tell which IDs were
+ * saved before. The file is written before a task with a higher ID is
+ * persisted, so an ID that was saved once is never given to another task.
+ * <p>
+ * Writers must hold the exclusive {@link DataFileLock} of the data file, as
+ * other Sora processes may be recording their IDs at the same time.
+ */
+class LastIdFile {
+
+    private static final String SUFFIX = ".lastid";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path path;
+    private long savedId = Task.NO_ID;
+
+    /**
+     * Constructs a {@code LastIdFile} for the given data file.
+     *
+     * @param dataPath Path of the data file.
+     */
+    LastIdFile(Path dataPath) {
+        this.path = dataPath.resolveSibling(dataPath.getFileName() + SUFFIX);
+    }
+
+    /**
+     * Checks if the file has been written before.
+     *
+     * @return {@code true} if the file exists.
+     */
+    boolean exists() {
+        return Files.exists(this.path);
+    }
+
+    /**
+     * Reads the highest ID given out.
+     *
+     * @return The ID, or {@link Task#NO_ID} if the file is missing or cannot
+     *         be read.
+     */
+    long read() {
+        try {
+            this.savedId = Math.max(this.savedId, Long.parseLong(Files.readString(this.path).trim()));
+        } catch (IOException | NumberFormatException unreadableException) {
+            // without the file, only the IDs of the saved tasks themselves are known
+        }
+        return this.savedId;
+    }
+
+    /**
+     * Records that IDs up to the given one have been given out, unless a
+     * higher ID is recorded already.
+     * <p>
+     * The ID is written to a temporary file of its own that is renamed into
+     * place, so concurrent writers never mix their contents.
+     *
+     * @param lastId   The highest ID given out.
+     * @param isSynced Whether the file is forced to disk before it is renamed.
+     * @throws IOException If the file cannot be written.
+     */
+    void write(long lastId, boolean isSynced) throws IOException {
+        if (lastId <= this.savedId) {
+            return;
+        }
+
+        Path directory = this.path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path tempPath = Files.createTempFile(directory, this.path.getFileName().toString(), TEMP_SUFFIX);
+        try {
+            try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap((lastId + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                if (isSynced) {
+                    channel.force(false);
+                }
+            }
+            Storage.moveAtomically(tempPath, this.path);
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+        if (isSynced) {
+            Storage.syncDirectory(this.path);
+        }
+        this.savedId = lastId;
+    }
+}
@@ -0,0 +1,149 @@
+package sora.storage;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs compactions of the {@link MutationLog} on a background thread.
+ * <p>
+ * A compaction writes a fresh snapshot of the task list and folds the sealed
+ * log segment into it, so that the log never grows without bound and loading
+ * only ever replays a bounded number of records. Compactions run one at a
+ * time, while new changes keep being appended to the active log segment.
+ * <p>
+ * A compaction is due when either threshold is reached:
+ * <ul>
+ *     <li>The log holds at least {@code sora.storage.compact.records} records
+ *         (default {@value #DEFAULT_MAX_RECORDS}).</li>
+ *     <li>The log holds more than {@code sora.storage.compact.ratio} records per
+ *         task in the data file (default {@value #DEFAULT_RATIO}), once it holds
+ *         at least {@value #MIN_RECORDS} records.</li>
+ * </ul>
+ */
+public class LogCompactor {
+
+    /** System property for the number of log records that triggers a compaction. */
+    public static final String RECORDS_PROPERTY = "sora.storage.compact.records";
+
+    /** System property for the log-to-data-file ratio that triggers a compaction. */
+    public static final String RATIO_PROPERTY = "sora.storage.compact.ratio";
+
+    private static final int DEFAULT_MAX_RECORDS = 10_000;
+    private static final double DEFAULT_RATIO = 0.5;
+    private static final int MIN_RECORDS = 64;
+
+    private final int maxRecords;
+    private final double ratio;
+    private final ExecutorService executor;
+    private Future<?> pending;
+
+    /**
+     * Constructs a {@code LogCompactor} with the given thresholds.
+     *
+     * @param maxRecords Number of log records that triggers a compaction.
+     * @param ratio      Number of log records per data file task that
+     *                   triggers a compaction.
+     */
+    public LogCompactor(int maxRecords, double ratio) {
+        this.maxRecords = maxRecords;
+        this.ratio = ratio;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sora-log-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Constructs a {@code LogCompactor} with thresholds taken from the
+     * {@code sora.storage.compact.*} system properties.
+     */
+    public LogCompactor() {
+        this(Integer.getInteger(RECORDS_PROPERTY, DEFAULT_MAX_RECORDS), getRatioProperty());
+    }
+
+    /**
+     * Checks if a compaction is due.
+     *
+     * @param logRecords Number of records in the log.
+     * @param baseSize   Number of tasks in the data file.
+     * @return {@code true} if a threshold has been reached and no compaction is
+     *         currently running.
+     */
+    public synchronized boolean shouldCompact(int logRecords, int baseSize) {
+        if (isRunning()) {
+            return false;
+        }
+
+        return logRecords >= this.maxRecords
+                || (logRecords >= MIN_RECORDS && logRecords > this.ratio * baseSize);
+    }
+
+    /**
+     * Runs the given compaction on the background thread.
+     *
+     * @param compaction The compaction to run.
+     * @param onFailure  Called on the background thread if the compaction fails.
+     */
+    public synchronized void submit(Compaction compaction, Runnable onFailure) {
+        assert !isRunning() : "Only one compaction may run at a time";
+        this.pending = this.executor.submit(() -> {
+            try {
+                compaction.run();
+            } catch (IOException ioException) {
+                onFailure.run();
+            }
+        });
+    }
+
+    /**
+     * Waits for the running compaction, if any, to finish.
+     */
+    public void awaitIdle() {
+        Future<?> current;
+        synchronized (this) {
+            current = this.pending;
+        }
+
+        if (current == null) {
+            return;
+        }
+
+        try {
+            current.get();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException executionException) {
+            // failures are reported by the compaction itself
+        }
+    }
+
+    private boolean isRunning() {
+        return this.pending != null && !this.pending.isDone();
+    }
+
+    private static double getRatioProperty() {
+        try {
+            return Double.parseDouble(System.getProperty(RATIO_PROPERTY, String.valueOf(DEFAULT_RATIO)));
+        } catch (NumberFormatException numberException) {
+            return DEFAULT_RATIO;
+        }
+    }
+
+    /**
+     * Represents a compaction that may fail with an {@link IOException}.
+     */
+    @FunctionalInterface
+    public interface Compaction {
+
+        /**
+         * Runs the compaction.
+         *
+         * @throws IOException If the snapshot cannot be written.
+         */
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,533 @@
+package sora.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import sora.exception.InvalidFormatException;
+import sora.parser.DateInputType;
+import sora.parser.ParsedDateTime;
+import sora.task.Deadline;
+import sora.task.Event;
+import sora.task.Task;
+import sora.task.ToDo;
+
+/**
+ * Loads tasks from the data file by parsing records directly from bytes.
+ * <p>
+ * The data file is mapped with {@link FileChannel#map} and each
+ * {@code T | 0 | name | date} record is parsed in place: fields are located
+ * by offset, dates are decoded from their digits, and only the task name is
+ * turned into a {@link String}. Files smaller than {@value #MAP_THRESHOLD}
+ * bytes are read into a heap buffer instead, as mapping does not pay off for
+ * them.
+ * <p>
+ * Records are validated with the same rules as {@link Storage}, so a line
+ * that would be skipped as corrupted there is skipped here as well. Skipped
+ * lines are collected in a {@link CorruptionReport}.
+ * <p>
+ * Files of at least {@value #PARALLEL_THRESHOLD} bytes are split into chunks
+ * at line boundaries, and the chunks are parsed in parallel on the common
+ * {@link ForkJoinPool}. The chunk results are joined in file order and line
+ * numbers of corrupted lines are reported as if the file had been parsed
+ * sequentially.
+ */
+public class MappedTaskLoader {
+
+    private static final int MAP_THRESHOLD = 1 << 20;
+    private static final int PARALLEL_THRESHOLD = 8 << 20;
+    private static final int CHUNKS_PER_CORE = 4;
+    private static final int STREAM_BUFFER_SIZE = 1 << 20;
+    private static final int MIN_FIELDS = 3;
+    private static final int MAX_FIELDS = 6;
+    private static final byte DELIMITER = '|';
+    private static final byte ID_PREFIX = '#';
+    private static final byte TODO = 'T';
+    private static final byte DEADLINE = 'D';
+    private static final byte EVENT = 'E';
+    private static final byte DONE = '1';
+    private static final byte NOT_DONE = '0';
+
+    /**
+     * Checks if the given file can be loaded by this loader.
+     * <p>
+     * A single buffer can address at most {@link Integer#MAX_VALUE} bytes.
+     *
+     * @param size Size of the file in bytes.
+     * @return {@code true} if the file is small enough to be loaded.
+     */
+    public static boolean canLoad(long size) {
+        return size <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * Loads all tasks from the given file.
+     *
+     * @param path   Path of the data file.
+     * @param tasks  The ArrayList where successfully parsed tasks will be added to.
+     * @param report The report where corrupted lines will be recorded.
+     * @throws IOException If the file cannot be read.
+     */
+    public static void load(Path path, ArrayList<Task> tasks, CorruptionReport report) throws IOException {
+        ByteBuffer buffer = read(path);
+        int cores = ForkJoinPool.getCommonPoolParallelism();
+
+        if (buffer.limit() < PARALLEL_THRESHOLD || cores < 2) {
+            parseLines(buffer, 0, buffer.limit(), 0, tasks, report);
+        } else {
+            parseInParallel(buffer, cores * CHUNKS_PER_CORE, tasks, report);
+        }
+    }
+
+    /**
+     * Loads all tasks from the given stream, parsing complete lines as soon as
+     * they have been read.
+     *
+     * @param in     Stream holding the content of a data file.
+     * @param tasks  The ArrayList where successfully parsed tasks will be added to.
+     * @param report The report where corrupted lines will be recorded.
+     * @throws IOException If the stream cannot be read.
+     */
+    public static void load(InputStream in, ArrayList<Task> tasks, CorruptionReport report) throws IOException {
+        byte[] bytes = new byte[STREAM_BUFFER_SIZE];
+        int filled = 0;
+        int lineNo = 0;
+
+        while (true) {
+            if (filled == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            int count = in.read(bytes, filled, bytes.length - filled);
+            if (count < 0) {
+                parseLines(ByteBuffer.wrap(bytes), 0, filled, lineNo, tasks, report);
+                return;
+            }
+            filled += count;
+
+            int cut = findLastLineEnd(bytes, filled);
+            lineNo += parseLines(ByteBuffer.wrap(bytes), 0, cut, lineNo, tasks, report);
+            System.arraycopy(bytes, cut, bytes, 0, filled - cut);
+            filled -= cut;
+        }
+    }
+
+    /**
+     * Finds the end of the last complete line in the given bytes.
+     * <p>
+     * A trailing {@code \r} does not complete a line yet, as it may be the
+     * first half of a {@code \r\n} line break.
+     *
+     * @param bytes  Bytes read so far.
+     * @param filled Number of valid bytes.
+     * @return Offset just past the last complete line break, or {@code 0} if
+     *         there is none.
+     */
+    private static int findLastLineEnd(byte[] bytes, int filled) {
+        for (int i = filled - 1; i >= 0; i--) {
+            if (bytes[i] == '\n' || (bytes[i] == '\r' && i < filled - 1)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Parses the buffer as separate chunks on the common {@link ForkJoinPool}.
+     *
+     * @param buffer     Buffer holding the data file.
+     * @param chunkCount Number of chunks to split the buffer into.
+     * @param tasks      The ArrayList where successfully parsed tasks will be added to.
+     * @param report     The report where corrupted lines will be recorded.
+     */
+    static void parseInParallel(ByteBuffer buffer, int chunkCount,
+                                        ArrayList<Task> tasks, CorruptionReport report) {
+        int[] bounds = splitChunks(buffer, chunkCount);
+        Chunk[] chunks = new Chunk[bounds.length - 1];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = new Chunk(bounds[i], bounds[i + 1], report.isQuarantining());
+        }
+
+        ForkJoinPool.commonPool().invoke(new ChunkParser(buffer, chunks, 0, chunks.length));
+
+        int linesBefore = 0;
+        for (Chunk chunk : chunks) {
+            tasks.addAll(chunk.tasks);
+            report.merge(chunk.report, linesBefore);
+            linesBefore += chunk.lineCount;
+        }
+    }
+
+    /**
+     * Splits the buffer into roughly equal chunks that start at line boundaries.
+     *
+     * @param buffer     Buffer holding the data file.
+     * @param chunkCount Number of chunks to aim for.
+     * @return Offsets of the chunk boundaries, starting at {@code 0} and ending
+     *         at the end of the buffer.
+     */
+    private static int[] splitChunks(ByteBuffer buffer, int chunkCount) {
+        int end = buffer.limit();
+        int chunkSize = Math.max(1, end / chunkCount);
+        ArrayList<Integer> bounds = new ArrayList<>();
+        bounds.add(0);
+
+        int position = chunkSize;
+        while (position < end) {
+            while (position < end && !isLineBreak(buffer.get(position))) {
+                position++;
+            }
+            position = skipLineBreak(buffer, position, end);
+            if (position < end) {
+                bounds.add(position);
+            }
+            position += chunkSize;
+        }
+        bounds.add(end);
+
+        return bounds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Reads the given file into a buffer, mapping it if it is large enough.
+     *
+     * @param path Path of the data file.
+     * @return A buffer holding the content of the file.
+     * @throws IOException If the file cannot be read.
+     */
+    static ByteBuffer read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size >= MAP_THRESHOLD) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading until the buffer is full
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    /**
+     * Parses the lines between the given offsets.
+     * <p>
+     * Lines end at {@code \n}, {@code \r} or {@code \r\n}, as with
+     * {@link java.io.BufferedReader#readLine()}.
+     *
+     * @param buffer      Buffer holding the data file.
+     * @param start       Offset of the first byte of the first line.
+     * @param end         Offset just past the last byte to parse.
+     * @param firstLineNo Number of lines preceding {@code start}.
+     * @param tasks       The ArrayList where successfully parsed tasks will be added to.
+     * @param report      The report where corrupted lines will be recorded.
+     * @return The number of lines parsed.
+     */
+    static int parseLines(ByteBuffer buffer, int start, int end, int firstLineNo,
+                          ArrayList<Task> tasks, CorruptionReport report) {
+        int lineNo = firstLineNo;
+        int lineStart = start;
+
+        while (lineStart < end) {
+            int lineEnd = lineStart;
+            while (lineEnd < end && !isLineBreak(buffer.get(lineEnd))) {
+                lineEnd++;
+            }
+
+            lineNo++;
+            try {
+                tasks.add(parseLine(buffer, lineStart, lineEnd));
+            } catch (InvalidFormatException invalidFormatException) {
+                report.record(lineNo, invalidFormatException.getMessage(),
+                        report.isQuarantining() ? decode(buffer, lineStart, lineEnd) : null);
+            }
+
+            lineStart = skipLineBreak(buffer, lineEnd, end);
+        }
+
+        return lineNo - firstLineNo;
+    }
+
+    /**
+     * Parses a single record into a {@link Task}.
+     *
+     * @param buffer Buffer holding the data file.
+     * @param start  Offset of the first byte of the line.
+     * @param end    Offset just past the last byte of the line.
+     * @return The parsed {@link Task}.
+     * @throws InvalidFormatException If the record is malformed.
+     */
+    private static Task parseLine(ByteBuffer buffer, int start, int end)
+            throws InvalidFormatException {
+        int[] bounds = new int[MAX_FIELDS * 2];
+        int fieldCount = splitFields(buffer, start, end, bounds);
+        if (fieldCount < MIN_FIELDS) {
+            throw new InvalidFormatException("Hmm... your input seems too short"
+                    + "\n Please provide more information");
+        }
+
+        byte type = singleByte(buffer, bounds[0], bounds[1], "Oops! Unknown task type");
+        byte status = singleByte(buffer, bounds[2], bounds[3], "Oops! Unknown completion status");
+        String name = decode(buffer, bounds[4], bounds[5]);
+
+        Task task = switch (type) {
+        case TODO -> new ToDo(name);
+        case DEADLINE -> {
+            if (fieldCount < 4 || bounds[6] == bounds[7]) {
+                throw new InvalidFormatException("Oops! Deadline requires /by "
+                        + "and name");
+            }
+            yield new Deadline(name, parseDateTime(buffer, bounds[6], bounds[7]));
+        }
+        case EVENT -> {
+            if (fieldCount < 5 || bounds[6] == bounds[7] || bounds[8] == bounds[9]) {
+                throw new InvalidFormatException("Oops! Event requires /from,"
+                        + " /to and name");
+            }
+            yield new Event(name, parseDateTime(buffer, bounds[6], bounds[7]),
+                    parseDateTime(buffer, bounds[8], bounds[9]));
+        }
+        default -> throw new InvalidFormatException("Oops! Unknown task type");
+        };
+
+        if (status == DONE) {
+            task.markAsDone();
+        } else if (status != NOT_DONE) {
+            throw new InvalidFormatException("Oops! Unknown completion status");
+        }
+
+        int idField = type == TODO ? 3 : type == DEADLINE ? 4 : 5;
+        int idStart = bounds[idField * 2];
+        if (fieldCount > idField && buffer.get(idStart) == ID_PREFIX) {
+            task.setId(parseId(buffer, idStart + 1, bounds[idField * 2 + 1]));
+        }
+        return task;
+    }
+
+    /**
+     * Parses the digits of a stored task ID, accepting the same IDs as
+     * {@link Storage#parseId(String)}, including a leading {@code +}.
+     *
+     * @param buffer Buffer holding the data file.
+     * @param start  Offset of the sign or first digit.
+     * @param end    Offset just past the last digit.
+     * @return The task ID.
+     * @throws InvalidFormatException If the field is not a positive number.
+     */
+    private static long parseId(ByteBuffer buffer, int start, int end) throws InvalidFormatException {
+        int firstDigit = start < end && buffer.get(start) == '+' ? start + 1 : start;
+        long id = 0;
+        for (int i = firstDigit; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9 || id > (Long.MAX_VALUE - digit) / 10) {
+                throw new InvalidFormatException("Oops! Invalid task ID");
+            }
+            id = id * 10 + digit;
+        }
+        if (id == Task.NO_ID) {
+            throw new InvalidFormatException("Oops! Invalid task ID");
+        }
+        return id;
+    }
+
+    /**
+     * Locates the trimmed bounds of the {@code |}-separated fields of a line.
+     * <p>
+     * As with {@link String#split(String)}, trailing empty fields are not
+     * counted. Only the first {@value #MAX_FIELDS} fields are located, as later
+     * fields are never used.
+     *
+     * @param buffer Buffer holding the data file.
+     * @param start  Offset of the first byte of the line.
+     * @param end    Offset just past the last byte of the line.
+     * @param bounds Array receiving the start and end offset of each field.
+     * @return The number of fields in the line.
+     */
+    private static int splitFields(ByteBuffer buffer, int start, int end, int[] bounds) {
+        int fieldCount = 0;
+        int nonEmptyCount = 0;
+        int fieldStart = start;
+
+        for (int i = start; i <= end; i++) {
+            if (i < end && buffer.get(i) != DELIMITER) {
+                continue;
+            }
+
+            if (fieldCount < MAX_FIELDS) {
+                int trimmedStart = fieldStart;
+                int trimmedEnd = i;
+                while (trimmedStart < trimmedEnd && isBlank(buffer.get(trimmedStart))) {
+                    trimmedStart++;
+                }
+                while (trimmedEnd > trimmedStart && isBlank(buffer.get(trimmedEnd - 1))) {
+                    trimmedEnd--;
+                }
+                bounds[fieldCount * 2] = trimmedStart;
+                bounds[fieldCount * 2 + 1] = trimmedEnd;
+            }
+
+            fieldCount++;
+            if (i > fieldStart) {
+                nonEmptyCount = fieldCount;
+            }
+            fieldStart = i + 1;
+        }
+
+        return nonEmptyCount;
+    }
+
+    /**
+     * Decodes a {@code yyyy-MM-dd} or {@code yyyy-MM-dd HH:mm} field.
+     *
+     * @param buffer Buffer holding the data file.
+     * @param start  Offset of the first byte of the field.
+     * @param end    Offset just past the last byte of the field.
+     * @return The decoded {@link ParsedDateTime}.
+     * @throws InvalidFormatException If the field is not a valid date or datetime.
+     */
+    private static ParsedDateTime parseDateTime(ByteBuffer buffer, int start, int end)
+            throws InvalidFormatException {
+        int length = end - start;
+        boolean isDateOnly = length == DateInputType.DATE_INPUT_PATTERN.length();
+        if (!isDateOnly && length != DateInputType.DATETIME_INPUT_PATTERN.length()) {
+            throw new InvalidFormatException("Oops! Invalid date format.");
+        }
+
+        expect(buffer, start + 4, '-');
+        expect(buffer, start + 7, '-');
+        int year = digits(buffer, start, 4);
+        int month = digits(buffer, start + 5, 2);
+        int day = digits(buffer, start + 8, 2);
+        int hour = 0;
+        int minute = 0;
+
+        if (!isDateOnly) {
+            expect(buffer, start + 10, ' ');
+            expect(buffer, start + 13, ':');
+            hour = digits(buffer, start + 11, 2);
+            minute = digits(buffer, start + 14, 2);
+        }
+
+        try {
+            LocalDateTime dateTime = LocalDateTime.of(year, month, day, hour, minute);
+            return new ParsedDateTime(dateTime,
+                    isDateOnly ? DateInputType.DATE_ONLY : DateInputType.DATETIME);
+        } catch (DateTimeException dateTimeException) {
+            throw new InvalidFormatException("Oops! This is an invalid date");
+        }
+    }
+
+    private static int digits(ByteBuffer buffer, int start, int count) throws InvalidFormatException {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new InvalidFormatException("Oops! Invalid date format.");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static void expect(ByteBuffer buffer, int index, char expected) throws InvalidFormatException {
+        if (buffer.get(index) != expected) {
+            throw new InvalidFormatException("Oops! Invalid date format.");
+        }
+    }
+
+    private static byte singleByte(ByteBuffer buffer, int start, int end, String errorMessage)
+            throws InvalidFormatException {
+        if (end - start != 1) {
+            throw new InvalidFormatException(errorMessage);
+        }
+        return buffer.get(start);
+    }
+
+    private static String decode(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isBlank(byte value) {
+        return (value & 0xFF) <= ' ';
+    }
+
+    private static boolean isLineBreak(byte value) {
+        return value == '\n' || value == '\r';
+    }
+
+    private static int skipLineBreak(ByteBuffer buffer, int index, int end) {
+        if (index < end && buffer.get(index) == '\r') {
+            index++;
+        }
+        if (index < end && buffer.get(index) == '\n') {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Represents a range of whole lines in the buffer and the result of parsing it.
+     * <p>
+     * Line numbers in {@code report} are relative to the start of the chunk.
+     */
+    private static class Chunk {
+        private final int start;
+        private final int end;
+        private final ArrayList<Task> tasks = new ArrayList<>();
+        private final CorruptionReport report;
+        private int lineCount;
+
+        Chunk(int start, int end, boolean isQuarantining) {
+            this.start = start;
+            this.end = end;
+            this.report = new CorruptionReport(isQuarantining);
+        }
+    }
+
+    /**
+     * Parses a range of chunks, splitting the range in half until a single
+     * chunk remains.
+     */
+    private static class ChunkParser extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient ByteBuffer buffer;
+        private final transient Chunk[] chunks;
+        private final int from;
+        private final int to;
+
+        ChunkParser(ByteBuffer buffer, Chunk[] chunks, int from, int to) {
+            this.buffer = buffer;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from == 1) {
+                Chunk chunk = this.chunks[this.from];
+                chunk.lineCount = parseLines(this.buffer, chunk.start, chunk.end, 0,
+                        chunk.tasks, chunk.report);
+                return;
+            }
+
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(new ChunkParser(this.buffer, this.chunks, this.from, middle),
+                    new ChunkParser(this.buffer, this.chunks, middle, this.to));
+        }
+    }
+}
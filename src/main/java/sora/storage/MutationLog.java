@@ -0,0 +1,261 @@
+package sora.storage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.function.Function;
+
+import sora.exception.InvalidFormatException;
+import sora.exception.SoraException;
+import sora.task.Task;
+
+/**
+ * Represents an append-only log of changes made to the task list.
+ * <p>
+ * Each change is written as a single line record, so the cost of persisting
+ * a change does not depend on the number of tasks:
+ * <pre>
+ *     ADD T | 0 |  read book
+ *     MARK 3
+ *     UNMARK 3
+ *     DELETE 0
+ * </pre>
+ * Indexes are zero-based positions in the task list at the time the change
+ * was made, so records must be replayed in order on top of the data file
+ * they were written against.
+ * <p>
+ * The log consists of an active segment that receives new records, and an
+ * optional sealed segment. Sealing moves the active segment aside so that a
+ * new data file can be written from it while new records keep arriving.
+ */
+public class MutationLog {
+
+    private static final String ADD = "ADD";
+    private static final String DELETE = "DELETE";
+    private static final String MARK = "MARK";
+    private static final String UNMARK = "UNMARK";
+    private static final String LOG_SUFFIX = ".log";
+    private static final String SEALED_SUFFIX = ".log.sealed";
+
+    private final Path activePath;
+    private final Path sealedPath;
+    private int recordCount;
+
+    /**
+     * Constructs a {@code MutationLog} for the given data file.
+     * <p>
+     * The log segments are kept next to the data file, e.g.
+     * {@code data/sora.txt.log} and {@code data/sora.txt.log.sealed}.
+     *
+     * @param dataPath Path of the data file the log applies to.
+     */
+    public MutationLog(Path dataPath) {
+        assert dataPath != null : "Data path must not be null";
+        this.activePath = dataPath.resolveSibling(dataPath.getFileName() + LOG_SUFFIX);
+        this.sealedPath = dataPath.resolveSibling(dataPath.getFileName() + SEALED_SUFFIX);
+    }
+
+    /**
+     * Records that a task has been appended to the task list.
+     *
+     * @param storageLine Storage string of the added task.
+     * @param isSynced    Whether the record is forced to disk.
+     * @throws IOException If the record cannot be written.
+     */
+    public void recordAdd(String storageLine, boolean isSynced) throws IOException {
+        append(ADD + " " + storageLine, isSynced);
+    }
+
+    /**
+     * Records that the task at the given index has been removed.
+     *
+     * @param index    Zero-based index of the removed task.
+     * @param isSynced Whether the record is forced to disk.
+     * @throws IOException If the record cannot be written.
+     */
+    public void recordDelete(int index, boolean isSynced) throws IOException {
+        append(DELETE + " " + index, isSynced);
+    }
+
+    /**
+     * Records the new completion status of the task at the given index.
+     *
+     * @param index    Zero-based index of the updated task.
+     * @param isDone   New completion status of the task.
+     * @param isSynced Whether the record is forced to disk.
+     * @throws IOException If the record cannot be written.
+     */
+    public void recordStatus(int index, boolean isDone, boolean isSynced) throws IOException {
+        append((isDone ? MARK : UNMARK) + " " + index, isSynced);
+    }
+
+    /**
+     * Checks if the log holds any records that are not yet part of the data file.
+     *
+     * @return {@code true} if either log segment exists.
+     */
+    public boolean hasRecords() {
+        return Files.exists(this.activePath) || Files.exists(this.sealedPath);
+    }
+
+    /**
+     * Returns the number of records that are not yet part of the data file.
+     * <p>
+     * The count covers records replayed by {@link #replay} and records
+     * appended since, and is reset when the active segment is sealed.
+     *
+     * @return The number of pending records.
+     */
+    public int getRecordCount() {
+        return this.recordCount;
+    }
+
+    /**
+     * Moves the active segment aside so that new records start a fresh segment.
+     * <p>
+     * If a sealed segment is already present, the active records are appended
+     * to it so that no record is lost.
+     *
+     * @throws IOException If the segment cannot be moved.
+     */
+    public void seal() throws IOException {
+        this.recordCount = 0;
+        if (!Files.exists(this.activePath)) {
+            return;
+        }
+
+        if (Files.exists(this.sealedPath)) {
+            Files.write(this.sealedPath, Files.readAllBytes(this.activePath),
+                    StandardOpenOption.APPEND);
+            Files.delete(this.activePath);
+            return;
+        }
+
+        Files.move(this.activePath, this.sealedPath);
+    }
+
+    /**
+     * Deletes the sealed segment once its records are part of the data file.
+     *
+     * @throws IOException If the segment cannot be deleted.
+     */
+    public void deleteSealed() throws IOException {
+        Files.deleteIfExists(this.sealedPath);
+    }
+
+    /**
+     * Replays the log on top of the given task list.
+     * <p>
+     * Corrupted records, such as a half-written record at the end of the log
+     * after a crash, are skipped and recorded in the given report.
+     *
+     * @param tasks         Task list loaded from the data file.
+     * @param parser        Function converting a storage string to a {@link Task}.
+     * @param includeSealed Whether the sealed segment should be replayed first.
+     * @param report        The report where skipped records will be recorded.
+     * @throws IOException If a log segment cannot be read.
+     */
+    public void replay(ArrayList<Task> tasks, Function<String, Task> parser,
+                       boolean includeSealed, CorruptionReport report) throws IOException {
+        int lineNo = 0;
+
+        if (includeSealed) {
+            lineNo = replaySegment(this.sealedPath, tasks, parser, lineNo, report);
+        }
+        lineNo = replaySegment(this.activePath, tasks, parser, lineNo, report);
+
+        this.recordCount = lineNo;
+    }
+
+    private int replaySegment(Path segment, ArrayList<Task> tasks, Function<String, Task> parser,
+                              int lineNo, CorruptionReport report) throws IOException {
+        if (!Files.exists(segment)) {
+            return lineNo;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(segment)) {
+            String record;
+            while ((record = reader.readLine()) != null) {
+                lineNo++;
+                try {
+                    apply(record, tasks, parser);
+                } catch (SoraException soraException) {
+                    report.record(lineNo, soraException.getMessage(), record);
+                }
+            }
+        }
+        return lineNo;
+    }
+
+    /**
+     * Applies a single record to the task list.
+     *
+     * @param record Line read from the log.
+     * @param tasks  Task list to apply the record to.
+     * @param parser Function converting a storage string to a {@link Task}.
+     * @throws InvalidFormatException If the record is malformed or refers to
+     *                                a task that does not exist.
+     */
+    private void apply(String record, ArrayList<Task> tasks, Function<String, Task> parser)
+            throws InvalidFormatException {
+        String[] parts = record.split(" ", 2);
+        if (parts.length < 2) {
+            throw new InvalidFormatException("Oops! Incomplete change record");
+        }
+
+        switch (parts[0]) {
+        case ADD
+            -> tasks.add(parser.apply(parts[1]));
+        case DELETE
+            -> tasks.remove(parseIndex(parts[1], tasks));
+        case MARK
+            -> tasks.get(parseIndex(parts[1], tasks)).markAsDone();
+        case UNMARK
+            -> tasks.get(parseIndex(parts[1], tasks)).markAsNotDone();
+        default
+            -> throw new InvalidFormatException("Oops! Unknown change record");
+        }
+    }
+
+    private int parseIndex(String value, ArrayList<Task> tasks) throws InvalidFormatException {
+        int index;
+        try {
+            index = Integer.parseInt(value.trim());
+        } catch (NumberFormatException numberException) {
+            throw new InvalidFormatException("Oops! Invalid task number in change record");
+        }
+
+        if (index < 0 || index >= tasks.size()) {
+            throw new InvalidFormatException("Oops! Change record refers to a missing task");
+        }
+        return index;
+    }
+
+    /**
+     * Appends a record to the active segment, forcing it and, for a new
+     * segment, its directory entry to disk if asked to.
+     */
+    private void append(String record, boolean isSynced) throws IOException {
+        boolean isNewSegment = !Files.exists(this.activePath);
+        ByteBuffer bytes = ByteBuffer.wrap((record + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+        try (FileChannel channel = FileChannel.open(this.activePath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            if (isSynced) {
+                channel.force(false);
+            }
+        }
+        if (isSynced && isNewSegment) {
+            Storage.syncDirectory(this.activePath);
+        }
+        this.recordCount++;
+    }
+}
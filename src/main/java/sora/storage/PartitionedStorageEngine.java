@@ -0,0 +1,552 @@
+package sora.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import sora.task.Deadline;
+import sora.task.Event;
+import sora.task.Task;
+import sora.task.ToDo;
+import sora.ui.OutputHandler;
+
+/**
+ * A {@link StorageEngine} that splits the task list into one segment file per
+ * month.
+ * <p>
+ * A {@link Deadline} belongs to the month of its deadline and an {@link Event}
+ * to the month it ends in, e.g. {@code data/partitions/2026-02.txt}. Open
+ * {@link ToDo}s belong to {@code undated.txt} and completed ones to
+ * {@code done.txt}. Each segment is an ordinary text data file managed by its
+ * own {@link Storage}.
+ * <p>
+ * Only hot segments, i.e. the current and future months and the undated
+ * segment, are loaded at startup. Cold segments of past months and of
+ * completed ToDos are loaded on demand through {@link #loadCold(LocalDate)},
+ * and are appended to the end of the task list so that the numbers of loaded
+ * tasks do not change. A ToDo completed while {@code done.txt} is cold stays
+ * in the undated segment until the engine is next loaded. Loaded tasks are
+ * ordered by ID, which is the order they were added in.
+ * <p>
+ * The engine keeps track of the tasks of every loaded segment, so a change
+ * rewrites only the segment of the changed task, in time proportional to the
+ * size of that segment. The first time the engine runs, an existing
+ * {@code data/sora.txt} is split into segments; the original file is left
+ * untouched.
+ */
+public class PartitionedStorageEngine implements StorageEngine {
+
+    private static final String DIRECTORY_NAME = "partitions";
+    private static final String UNDATED = "undated";
+    private static final String DONE = "done";
+    private static final String SEGMENT_SUFFIX = ".txt";
+    private static final Comparator<String> SEGMENT_ORDER = Comparator
+            .comparing((String key) -> key.equals(UNDATED))
+            .thenComparing(Comparator.naturalOrder());
+    private static final Comparator<Member> ID_ORDER = Comparator.comparingLong(member -> member.task.getId());
+
+    private final Path dataPath;
+    private final Path directory;
+    private final OutputHandler outputHandler;
+    private final YearMonth hotFrom;
+    private final TreeSet<String> segments = new TreeSet<>(SEGMENT_ORDER);
+    private final Map<String, LinkedHashSet<Member>> members = new HashMap<>();
+    private final Map<String, Storage> storages = new HashMap<>();
+    private final ArrayList<Member> positions = new ArrayList<>();
+    private final LastIdFile lastIdFile;
+
+    /**
+     * A task of the task list together with the segment it is kept in. The
+     * same member is found by the position of the task and in the members of
+     * its segment.
+     */
+    private static class Member {
+        private String key;
+        private Task task;
+
+        Member(String key, Task task) {
+            this.key = key;
+            this.task = task;
+        }
+    }
+
+    /**
+     * Constructs a {@code PartitionedStorageEngine} that treats the current and
+     * future months as hot.
+     *
+     * @param dataPath      Path of the data file; segments are kept in a
+     *                      {@code partitions} directory next to it.
+     * @param outputHandler The output handler used to display messages.
+     */
+    public PartitionedStorageEngine(Path dataPath, OutputHandler outputHandler) {
+        this(dataPath, outputHandler, YearMonth.now());
+    }
+
+    /**
+     * Constructs a {@code PartitionedStorageEngine} with the given first hot month.
+     *
+     * @param dataPath      Path of the data file; segments are kept in a
+     *                      {@code partitions} directory next to it.
+     * @param outputHandler The output handler used to display messages.
+     * @param hotFrom       The earliest month loaded at startup.
+     */
+    public PartitionedStorageEngine(Path dataPath, OutputHandler outputHandler, YearMonth hotFrom) {
+        assert dataPath != null : "Path must not be null";
+        assert outputHandler != null : "OutputHandler must not be null";
+        assert hotFrom != null : "Hot month must not be null";
+        this.dataPath = dataPath;
+        this.directory = dataPath.resolveSibling(DIRECTORY_NAME);
+        this.outputHandler = outputHandler;
+        this.hotFrom = hotFrom;
+        this.lastIdFile = new LastIdFile(dataPath);
+    }
+
+    /**
+     * Loads the hot segments.
+     * <p>
+     * Completed ToDos found in the undated segment are moved to the cold
+     * segment of completed ToDos first.
+     *
+     * @return ArrayList containing all successfully loaded tasks of hot segments.
+     */
+    @Override
+    public synchronized ArrayList<Task> load() {
+        this.positions.clear();
+        this.members.clear();
+        this.segments.clear();
+
+        try {
+            if (!Files.isDirectory(this.directory)) {
+                splitDataFile();
+            }
+            try (Stream<Path> files = Files.list(this.directory)) {
+                files.map(file -> file.getFileName().toString())
+                        .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                        .map(name -> name.substring(0, name.length() - SEGMENT_SUFFIX.length()))
+                        .filter(PartitionedStorageEngine::isSegmentKey)
+                        .forEach(this.segments::add);
+            }
+        } catch (IOException ioException) {
+            this.outputHandler.show("Oops! I couldn't read my memory file"
+                    + "\n You can still use Sora, but past tasks won't be"
+                    + " loaded");
+            return new ArrayList<>();
+        }
+
+        ArrayList<Member> loadedMembers = new ArrayList<>();
+        for (String key : this.segments) {
+            if (isHot(key)) {
+                loadSegment(key, loadedMembers);
+            }
+        }
+        moveCompletedToDos(loadedMembers);
+        return addInIdOrder(loadedMembers);
+    }
+
+    /**
+     * Loads the cold segments that may hold tasks dated on or after the given day.
+     * <p>
+     * The caller must append the returned tasks to the end of its task list.
+     *
+     * @param since Earliest date of interest, or {@code null} for all segments.
+     * @return The tasks of the newly loaded segments.
+     */
+    @Override
+    public synchronized ArrayList<Task> loadCold(LocalDate since) {
+        ArrayList<Member> loadedMembers = new ArrayList<>();
+        for (String key : this.segments) {
+            if (isColdSince(key, since)) {
+                loadSegment(key, loadedMembers);
+            }
+        }
+        return addInIdOrder(loadedMembers);
+    }
+
+    /**
+     * Checks if any cold segment may hold tasks dated on or after the given day.
+     *
+     * @param since Earliest date of interest, or {@code null} for all segments.
+     * @return {@code true} if {@link #loadCold(LocalDate)} would load a segment.
+     */
+    @Override
+    public synchronized boolean hasColdTasks(LocalDate since) {
+        for (String key : this.segments) {
+            if (isColdSince(key, since)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves the completed tasks that are due for archival out of the cold
+     * month segments. Each segment is read one at a time and only rewritten
+     * if it held such tasks; it stays cold either way.
+     *
+     * @param archive The archive receiving old completed tasks.
+     * @param today   The current date.
+     * @return The number of archived tasks.
+     * @throws IOException If the archive or a segment cannot be written.
+     */
+    @Override
+    public synchronized int archiveCold(ArchiveStore archive, LocalDate today) throws IOException {
+        if (!archive.isEnabled()) {
+            return 0;
+        }
+
+        int archivedCount = 0;
+        for (String key : new ArrayList<>(this.segments)) {
+            if (!isColdKey(key) || key.equals(UNDATED) || key.equals(DONE)) {
+                continue;
+            }
+            ArrayList<Task> remaining = new ArrayList<>();
+            ArrayList<Task> archived = new ArrayList<>();
+            for (Task task : getStorage(key).load()) {
+                (archive.isDue(task, today) ? archived : remaining).add(task);
+            }
+            if (archived.isEmpty()) {
+                continue;
+            }
+
+            archive.append(archived);
+            if (!remaining.isEmpty()) {
+                if (getStorage(key).save(remaining) == null) {
+                    throw new IOException("Failed to write segment " + key);
+                }
+            } else {
+                Files.deleteIfExists(getSegmentPath(key));
+                this.segments.remove(key);
+            }
+            archivedCount += archived.size();
+        }
+        return archivedCount;
+    }
+
+    /**
+     * Reads the highest task ID ever persisted. The first time, when no ID
+     * has been recorded yet, the cold segments are read for the IDs of their
+     * tasks without loading them.
+     *
+     * @return The ID, or {@link Task#NO_ID} if no task was persisted.
+     */
+    @Override
+    public synchronized long loadLastId() {
+        if (this.lastIdFile.exists()) {
+            return this.lastIdFile.read();
+        }
+
+        long lastId = Task.NO_ID;
+        for (String key : this.segments) {
+            if (isColdKey(key)) {
+                for (Task task : getStorage(key).load()) {
+                    lastId = Math.max(lastId, task.getId());
+                }
+            }
+        }
+        return lastId;
+    }
+
+    @Override
+    public synchronized void saveLastId(long lastId) {
+        try {
+            DataFileLock.forDataFile(this.dataPath).runExclusive(() ->
+                    this.lastIdFile.write(lastId, Durability.fromSystemProperty() != Durability.NONE));
+        } catch (IOException ioException) {
+            this.outputHandler.show("Oops! Failed to save tasks");
+        }
+    }
+
+    /**
+     * Checks if the given task belongs to a segment that exists on disk but has
+     * not been loaded.
+     *
+     * @param task The task to check.
+     * @return {@code true} if the segment of the task is cold.
+     */
+    @Override
+    public synchronized boolean isCold(Task task) {
+        return isColdKey(placementOf(task));
+    }
+
+    /**
+     * Rewrites every loaded segment from the given task list.
+     *
+     * @param tasks List of tasks to be saved.
+     * @return A {@link SaveReport} summing up the cost of all segment saves, or
+     *         {@code null} if any of them failed.
+     */
+    @Override
+    public synchronized SaveReport save(List<Task> tasks) {
+        this.positions.clear();
+        for (LinkedHashSet<Member> segment : this.members.values()) {
+            segment.clear();
+        }
+        for (Task task : tasks) {
+            addMember(new Member(placementOf(task), task));
+        }
+
+        long start = System.nanoTime();
+        long bytesWritten = 0;
+        boolean isFsynced = false;
+        for (String key : new ArrayList<>(this.members.keySet())) {
+            SaveReport report = writeSegment(key);
+            if (report == null) {
+                return null;
+            }
+            bytesWritten += report.getBytesWritten();
+            isFsynced |= report.isFsynced();
+        }
+        return new SaveReport(bytesWritten, System.nanoTime() - start, isFsynced);
+    }
+
+    @Override
+    public synchronized void append(List<Task> tasks, Task task) {
+        assert !isCold(task) : "Segment must be loaded before a task is added to it";
+        Member member = new Member(placementOf(task), task);
+        addMember(member);
+        assert this.positions.size() == tasks.size() : "Segment members must match the task list";
+        writeSegment(member.key);
+    }
+
+    /**
+     * Rewrites the segment of the updated task. A ToDo whose completion status
+     * changed moves to the segment it now belongs to; the new segment is
+     * written before the old one, so a failure in between never loses the task.
+     *
+     * @param tasks The task list after the task has been updated.
+     * @param index Zero-based index of the updated task.
+     */
+    @Override
+    public synchronized void update(List<Task> tasks, int index) {
+        Member member = this.positions.get(index);
+        member.task = tasks.get(index);
+        String key = placementOf(member.task);
+        if (key.equals(member.key)) {
+            writeSegment(key);
+            return;
+        }
+
+        String previousKey = member.key;
+        this.members.get(previousKey).remove(member);
+        member.key = key;
+        this.members.computeIfAbsent(key, segmentKey -> new LinkedHashSet<>()).add(member);
+        if (writeSegment(key) != null) {
+            writeSegment(previousKey);
+        }
+    }
+
+    @Override
+    public synchronized void remove(List<Task> tasks, int index) {
+        Member member = this.positions.remove(index);
+        assert this.positions.size() == tasks.size() : "Segment members must match the task list";
+        this.members.get(member.key).remove(member);
+        writeSegment(member.key);
+    }
+
+    /**
+     * Splits an existing data file into segments.
+     * <p>
+     * Tasks saved before tasks had IDs are given IDs in the order of the data
+     * file, so that they keep that order once they are loaded from segments.
+     *
+     * @throws IOException If the directory cannot be created.
+     */
+    private void splitDataFile() throws IOException {
+        Files.createDirectories(this.directory);
+        if (!Files.exists(this.dataPath)) {
+            return;
+        }
+
+        ArrayList<Task> tasks = new Storage(this.dataPath, this.outputHandler, StorageMode.TEXT).load();
+        long lastId = 0;
+        for (Task task : tasks) {
+            lastId = Math.max(lastId, task.getId());
+        }
+        Map<String, ArrayList<Task>> split = new HashMap<>();
+        for (Task task : tasks) {
+            if (task.getId() == Task.NO_ID) {
+                task.setId(++lastId);
+            }
+            split.computeIfAbsent(keyOf(task), key -> new ArrayList<>()).add(task);
+        }
+        for (Map.Entry<String, ArrayList<Task>> segment : split.entrySet()) {
+            if (getStorage(segment.getKey()).save(segment.getValue()) == null) {
+                throw new IOException("Failed to write segment " + segment.getKey());
+            }
+        }
+    }
+
+    private void loadSegment(String key, List<Member> loadedMembers) {
+        this.members.computeIfAbsent(key, segmentKey -> new LinkedHashSet<>());
+        for (Task task : getStorage(key).load()) {
+            Member member = new Member(key, task);
+            this.members.get(key).add(member);
+            loadedMembers.add(member);
+        }
+    }
+
+    /**
+     * Appends the given members to the positions of the task list in the order
+     * of their IDs.
+     *
+     * @return The tasks of the members, in the same order.
+     */
+    private ArrayList<Task> addInIdOrder(List<Member> loadedMembers) {
+        loadedMembers.sort(ID_ORDER);
+        ArrayList<Task> tasks = new ArrayList<>(loadedMembers.size());
+        for (Member member : loadedMembers) {
+            this.positions.add(member);
+            tasks.add(member.task);
+        }
+        return tasks;
+    }
+
+    /**
+     * Moves the completed ToDos among the given members from the undated
+     * segment to the segment of completed ToDos, which is not loaded. That
+     * segment is written before the undated one, so a failure in between
+     * never loses a task.
+     */
+    private void moveCompletedToDos(List<Member> loadedMembers) {
+        LinkedHashSet<Member> undated = this.members.get(UNDATED);
+        if (undated == null) {
+            return;
+        }
+        ArrayList<Task> completed = new ArrayList<>();
+        for (Member member : undated) {
+            if (keyOf(member.task).equals(DONE)) {
+                completed.add(member.task);
+            }
+        }
+        if (completed.isEmpty()) {
+            return;
+        }
+
+        ArrayList<Task> done = this.segments.contains(DONE) ? getStorage(DONE).load() : new ArrayList<>();
+        done.addAll(completed);
+        if (getStorage(DONE).save(done) == null) {
+            return;
+        }
+        this.segments.add(DONE);
+        undated.removeIf(member -> keyOf(member.task).equals(DONE));
+        loadedMembers.removeIf(member -> member.key.equals(UNDATED) && keyOf(member.task).equals(DONE));
+        writeSegment(UNDATED);
+    }
+
+    private void addMember(Member member) {
+        this.positions.add(member);
+        this.members.computeIfAbsent(member.key, key -> new LinkedHashSet<>()).add(member);
+    }
+
+    /**
+     * Rewrites a single loaded segment from its members, deleting the segment
+     * file once it becomes empty.
+     *
+     * @param key Key of the segment.
+     * @return A {@link SaveReport} describing the cost of the save, or
+     *         {@code null} if the save failed.
+     */
+    private SaveReport writeSegment(String key) {
+        ArrayList<Task> segment = new ArrayList<>();
+        for (Member member : this.members.get(key)) {
+            segment.add(member.task);
+        }
+
+        if (!segment.isEmpty()) {
+            this.segments.add(key);
+            return getStorage(key).save(segment);
+        }
+
+        try {
+            Files.deleteIfExists(getSegmentPath(key));
+            this.segments.remove(key);
+            return new SaveReport(0, 0, false);
+        } catch (IOException ioException) {
+            this.outputHandler.show("Oops! Failed to save tasks");
+            return null;
+        }
+    }
+
+    private Storage getStorage(String key) {
+        return this.storages.computeIfAbsent(key, segmentKey ->
+                new Storage(getSegmentPath(segmentKey), this.outputHandler, StorageMode.TEXT));
+    }
+
+    private Path getSegmentPath(String key) {
+        return this.directory.resolve(key + SEGMENT_SUFFIX);
+    }
+
+    private boolean isHot(String key) {
+        return key.equals(UNDATED) || !key.equals(DONE) && !YearMonth.parse(key).isBefore(this.hotFrom);
+    }
+
+    private boolean isColdKey(String key) {
+        return this.segments.contains(key) && !this.members.containsKey(key);
+    }
+
+    /**
+     * Checks if the segment with the given key is cold and may hold tasks
+     * dated on or after the given day. Completed ToDos have no date, so their
+     * segment only counts when all segments are asked for.
+     */
+    private boolean isColdSince(String key, LocalDate since) {
+        if (!isColdKey(key) || key.equals(UNDATED)) {
+            return false;
+        }
+        if (key.equals(DONE)) {
+            return since == null;
+        }
+        return since == null || !YearMonth.parse(key).isBefore(YearMonth.from(since));
+    }
+
+    /**
+     * Returns the key of the segment the given task is kept in while the
+     * engine runs. A completed ToDo stays in the undated segment while the
+     * segment of completed ToDos is cold, so that segment does not have to be
+     * loaded when a ToDo is marked as done.
+     */
+    private String placementOf(Task task) {
+        String key = keyOf(task);
+        return key.equals(DONE) && isColdKey(DONE) ? UNDATED : key;
+    }
+
+    /**
+     * Returns the key of the segment the given task belongs to.
+     *
+     * @param task The task.
+     * @return {@code yyyy-MM} of its date, {@code done} for a completed ToDo,
+     *         or {@code undated}.
+     */
+    static String keyOf(Task task) {
+        if (task instanceof Deadline deadline) {
+            return YearMonth.from(deadline.getDeadline().getDate()).toString().intern();
+        }
+        if (task instanceof Event event) {
+            return YearMonth.from(event.getEndDate().getDate()).toString().intern();
+        }
+        return task.isDone() ? DONE : UNDATED;
+    }
+
+    private static boolean isSegmentKey(String name) {
+        if (name.equals(UNDATED) || name.equals(DONE)) {
+            return true;
+        }
+        try {
+            YearMonth.parse(name);
+            return true;
+        } catch (DateTimeParseException parseException) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package sora.storage;
+
+/**
+ * Represents the cost of a single save performed by {@link Storage}.
+ */
+public class SaveReport {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final long bytesWritten;
+    private final long elapsedNanos;
+    private final boolean isFsynced;
+
+    /**
+     * Constructs a SaveReport.
+     *
+     * @param bytesWritten Size of the written data file in bytes.
+     * @param elapsedNanos Time taken by the save in nanoseconds.
+     * @param isFsynced    Whether the data file was forced to disk.
+     */
+    public SaveReport(long bytesWritten, long elapsedNanos, boolean isFsynced) {
+        this.bytesWritten = bytesWritten;
+        this.elapsedNanos = elapsedNanos;
+        this.isFsynced = isFsynced;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public boolean isFsynced() {
+        return isFsynced;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d bytes in %.3f ms%s", this.bytesWritten,
+                this.elapsedNanos / NANOS_PER_MILLI, this.isFsynced ? " (fsynced)" : "");
+    }
+}
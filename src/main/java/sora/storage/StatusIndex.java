@@ -0,0 +1,155 @@
+package sora.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Side table holding the file offset of the completion status byte of every
+ * task in a text data file.
+ * <p>
+ * In the text format the status is the single character {@code 0} or
+ * {@code 1} in the second field of a line, e.g. the {@code 1} in
+ * {@code T | 1 |  read book}. Knowing its offset lets a status toggle be
+ * persisted with a positional write of that one byte, so its cost does not
+ * depend on the number of tasks.
+ */
+public class StatusIndex {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final byte DONE = '1';
+    private static final byte NOT_DONE = '0';
+    private static final byte SEPARATOR = '|';
+
+    private long[] offsets = new long[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Builds the index of an existing text data file.
+     *
+     * @param dataPath  Path of the text data file.
+     * @param taskCount Number of tasks loaded from the file.
+     * @return The index, or {@code null} if the lines of the file do not line up
+     *         with the loaded tasks (e.g. corrupted lines were skipped) and the
+     *         file has to be rewritten first.
+     * @throws IOException If the file cannot be read.
+     */
+    public static StatusIndex scan(Path dataPath, int taskCount) throws IOException {
+        StatusIndex index = new StatusIndex();
+        if (!Files.exists(dataPath)) {
+            return taskCount == 0 ? index : null;
+        }
+
+        try (FileChannel channel = FileChannel.open(dataPath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                return null;
+            }
+            if (size == 0) {
+                return taskCount == 0 ? index : null;
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (!isLineBreak(buffer.get((int) size - 1)) || !index.scanLines(buffer, taskCount)) {
+                return null;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns the position of the status character in the given storage line.
+     *
+     * @param line Bytes of a storage line.
+     * @param from Offset of the first byte of the line.
+     * @param to   Offset just past the last byte of the line.
+     * @return Offset of the status character, or -1 if there is none.
+     */
+    static int findStatus(ByteBuffer line, int from, int to) {
+        int pos = from;
+        while (pos < to && line.get(pos) != SEPARATOR) {
+            pos++;
+        }
+        pos++;
+        while (pos < to && (line.get(pos) & 0xFF) <= ' ') {
+            pos++;
+        }
+        if (pos >= to || (line.get(pos) != DONE && line.get(pos) != NOT_DONE)) {
+            return -1;
+        }
+        return pos;
+    }
+
+    /**
+     * Writes the completion status of the task at the given index in place.
+     *
+     * @param dataPath Path of the text data file.
+     * @param index    Zero-based index of the task.
+     * @param isDone   New completion status of the task.
+     * @param isSynced Whether the write should be forced to disk.
+     * @throws IOException If the file cannot be written.
+     */
+    public void writeStatus(Path dataPath, int index, boolean isDone, boolean isSynced) throws IOException {
+        assert index >= 0 && index < this.size : "Index must be within the side table";
+        ByteBuffer status = ByteBuffer.wrap(new byte[] {isDone ? DONE : NOT_DONE});
+        try (FileChannel channel = FileChannel.open(dataPath, StandardOpenOption.WRITE)) {
+            channel.write(status, this.offsets[index]);
+            if (isSynced) {
+                channel.force(false);
+            }
+        }
+    }
+
+    /**
+     * Records the status offset of a task appended after the existing ones.
+     *
+     * @param offset File offset of the status byte.
+     */
+    public void add(long offset) {
+        if (this.size == this.offsets.length) {
+            this.offsets = Arrays.copyOf(this.offsets, this.size * 2);
+        }
+        this.offsets[this.size++] = offset;
+    }
+
+    /**
+     * Returns the number of indexed tasks.
+     *
+     * @return The number of indexed tasks.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    private boolean scanLines(ByteBuffer buffer, int taskCount) {
+        int end = buffer.limit();
+        int lineStart = 0;
+        while (lineStart < end) {
+            int lineEnd = lineStart;
+            while (lineEnd < end && !isLineBreak(buffer.get(lineEnd))) {
+                lineEnd++;
+            }
+
+            int status = findStatus(buffer, lineStart, lineEnd);
+            if (status < 0 || this.size == taskCount) {
+                return false;
+            }
+            add(status);
+
+            lineStart = lineEnd + 1;
+            if (buffer.get(lineEnd) == '\r' && lineStart < end && buffer.get(lineStart) == '\n') {
+                lineStart++;
+            }
+        }
+        return this.size == taskCount;
+    }
+
+    private static boolean isLineBreak(byte value) {
+        return value == '\n' || value == '\r';
+    }
+}
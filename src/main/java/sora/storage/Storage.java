@@ -1,12 +1,27 @@
 package sora.storage;
 
 import java.io.BufferedReader;
+import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
 
 import sora.exception.InvalidFormatException;
 import sora.exception.SoraException;
@@ -21,33 +36,126 @@ import sora.ui.OutputHandler;
 /**
  * Handles storing and loading of tasks to and from persistent storage.
  * <p>
+ * This is the {@link StorageEngine} behind every file-based {@link StorageMode}.
+ * <p>
  * The data file and its parent directories will be
  * created automatically if they do not exist.
+ * <p>
+ * Every save is written to a temporary file first and then atomically renamed
+ * over the data file, so a crash mid-save leaves either the old or the new
+ * file in place. Whether saves are also forced to disk is decided by the
+ * {@link Durability} level.
+ * <p>
+ * In {@link StorageMode#LOG} mode, changes are appended to a {@link MutationLog}
+ * instead of rewriting the data file, and the log is replayed on top of the
+ * data file when loading. A full {@link #save(List)} folds the log back
+ * into the data file through a checkpoint:
+ * <ol>
+ *     <li>The active log segment is sealed.</li>
+ *     <li>The new data file is written completely to {@code sora.txt.next}.</li>
+ *     <li>The sealed segment is deleted.</li>
+ *     <li>{@code sora.txt.next} replaces {@code sora.txt}.</li>
+ * </ol>
+ * A pending {@code sora.txt.next} found while loading already contains the
+ * sealed records, so a crash at any step never loses or repeats a change.
+ * <p>
+ * The same checkpoint is run in the background by a {@link LogCompactor}
+ * once the log grows past its thresholds, so the log stays short while
+ * changes keep being appended.
+ * <p>
+ * In {@link StorageMode#TEXT} and {@link StorageMode#INDEXED} mode the data
+ * file may also be changed by other programs, e.g. a tool that syncs it
+ * between machines. A {@link DataFileTracker} remembers the version Sora last
+ * read or wrote, and {@link #checkExternalChange()} reads only the appended
+ * lines when the file has just grown. A save over a version that has not been
+ * read yet first keeps that version in a {@code sora.txt.conflict-*} copy.
+ * <p>
+ * Reads and writes of the data file and the mutation log are guarded by a
+ * {@link DataFileLock}, so several Sora processes can share them. New data
+ * files are written to a temporary file of the process before the lock is
+ * taken, so the lock is only held while the file is renamed into place.
  */
-public class Storage {
+public class Storage implements StorageEngine {
+
+    /** System property used to turn off watching the data file for external changes. */
+    public static final String WATCH_PROPERTY = "sora.storage.watch";
 
     private static final String TODO = "T";
     private static final String DEADLINE = "D";
     private static final String EVENT = "E";
     private static final String DONE = "1";
     private static final String NOT_DONE = "0";
+    private static final String ID_PREFIX = "#";
+    private static final String NEXT_SUFFIX = ".next";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String CORRUPT_SUFFIX = ".corrupt";
+    private static final String CONFLICT_SUFFIX = ".conflict-";
+    private static final DateTimeFormatter CONFLICT_TIME = DateTimeFormatter.ofPattern("uuuuMMdd-HHmmss-SSS");
+
+    /** Marks a change that has to be read by reloading the whole file once the shared lock is released. */
+    private static final ExternalChange RELOAD_NEEDED = new ExternalChange(false, new ArrayList<>());
 
-    private final Path path = Paths.get("data", "sora.txt");
+    private final Path path;
 
     private final OutputHandler outputHandler;
+    private final StorageMode mode;
+    private final MutationLog mutationLog;
+    private final LogCompactor compactor;
+    private final Durability durability;
+    private final long syncIntervalNanos;
+    private int baseSize;
+    private volatile long lastSyncNanos;
+    private StatusIndex statusIndex;
+    private DataFileTracker tracker = new DataFileTracker();
+    private DataFileWatcher watcher;
+    private LastIdFile lastIdFile;
 
     /**
      * Constructs a new {@code Storage} instance with default storage file path set to
      * {@code data/sora.txt}.
      * <p>
      * The file and directories will be created automatically if they do not exist
-     * when {@link #save(ArrayList)} is called.
+     * when {@link #save(List)} is called.
      */
     public Storage(OutputHandler outputHandler) {
+        this(Paths.get("data", "sora.txt"), outputHandler, StorageMode.fromSystemProperty());
+    }
+
+    /**
+     * Constructs a new {@code Storage} instance for the given data file and mode.
+     *
+     * @param path          Path of the data file.
+     * @param outputHandler The output handler used to display messages.
+     * @param mode          The {@link StorageMode} used to persist changes.
+     */
+    public Storage(Path path, OutputHandler outputHandler, StorageMode mode) {
+        this(path, outputHandler, mode, Durability.fromSystemProperty());
+    }
+
+    /**
+     * Constructs a new {@code Storage} instance for the given data file, mode
+     * and durability level.
+     *
+     * @param path          Path of the data file.
+     * @param outputHandler The output handler used to display messages.
+     * @param mode          The {@link StorageMode} used to persist changes.
+     * @param durability    The {@link Durability} level of saves.
+     */
+    public Storage(Path path, OutputHandler outputHandler, StorageMode mode, Durability durability) {
         if (outputHandler == null) {
             throw new IllegalStateException("OutputHandler must not be null");
         }
+        assert path != null : "Path must not be null";
+        assert mode != null : "StorageMode must not be null";
+        assert durability != null : "Durability must not be null";
+        this.path = path;
         this.outputHandler = outputHandler;
+        this.mode = mode;
+        this.durability = durability;
+        this.syncIntervalNanos = Durability.getSyncInterval() * 1_000_000L;
+        this.lastSyncNanos = System.nanoTime() - this.syncIntervalNanos;
+        this.mutationLog = new MutationLog(path);
+        this.compactor = new LogCompactor();
     }
 
     public Storage() {
@@ -63,27 +171,64 @@ public class Storage {
      *     <li>If a line in the file is corrupted, it is skipped and an error.
      *         message is shown </li>
      *     <li>If an I/O error occurs while reading the file, an error is shown</li>
+     *     <li>Any records in the mutation log are replayed on top of the file.
+     *         Outside of {@link StorageMode#LOG} mode they are then folded back
+     *         into the file.</li>
      * </ul>
      *
      * @return ArrayList containing all tasks successfully loaded tasks.
      */
-    public ArrayList<Task> load() {
+    @Override
+    public synchronized ArrayList<Task> load() {
 
         ArrayList<Task> tasks = new ArrayList<>();
 
-        if (!Files.exists(this.path)) {
+        Path nextPath = getSiblingPath(NEXT_SUFFIX);
+        boolean hasPendingCheckpoint = Files.exists(nextPath);
+        Path basePath = hasPendingCheckpoint ? nextPath : this.path;
+
+        if (!Files.exists(basePath) && !this.mutationLog.hasRecords()) {
+            this.tracker.forget();
             outputHandler.show("Hmm... memory file not found"
                     + "\n Starting with an empty task list...");
             return tasks;
         }
 
-        try (BufferedReader reader = Files.newBufferedReader(this.path)) {
-            readTask(reader, tasks);
+        CorruptionReport taskReport = CorruptionReport.fromSystemProperty();
+        CorruptionReport changeReport = new CorruptionReport(taskReport.isQuarantining());
+        try {
+            getLock().runShared(() -> {
+                if (Files.exists(basePath)) {
+                    readDataFile(basePath, tasks, taskReport);
+                }
+                this.baseSize = tasks.size();
+                this.mutationLog.replay(tasks, Storage::loadTask, !hasPendingCheckpoint, changeReport);
+                trackDataFile();
+            });
+            if (hasPendingCheckpoint) {
+                getLock().runExclusive(() -> finishCheckpoint(nextPath));
+            }
         } catch (IOException ioException) {
+            this.tracker.forget();
             outputHandler.show("Oops! I couldn't read my memory file"
+                    + (ioException instanceof DataFileLock.LockTimeoutException
+                    ? "\n Another Sora is still using it" : "")
                     + "\n You can still use Sora, but past tasks won't be"
                     + " loaded");
             return tasks;
+        } finally {
+            showCorruption(taskReport, "tasks");
+            showCorruption(changeReport, "changes");
+        }
+
+        if (this.mode != StorageMode.LOG && this.mutationLog.hasRecords()) {
+            save(tasks);
+        } else if (this.mode == StorageMode.LOG) {
+            compactIfDue(tasks);
+        }
+
+        if (this.mode == StorageMode.INDEXED && this.statusIndex == null) {
+            indexStatuses(tasks);
         }
 
         return tasks;
@@ -95,26 +240,688 @@ public class Storage {
      * The parent directory is created automatically if file does not exist.
      * I/O errors encountered will be handled and users will be informed of
      * the error.
+     * <p>
+     * If the mutation log holds any records, the save is performed as a
+     * checkpoint so that the log is folded into the data file.
      *
      * @param tasks List of tasks to be saved.
+     * @return A {@link SaveReport} describing the cost of the save, or
+     *         {@code null} if the save failed.
      * @throws IllegalArgumentException if {@code tasks} is {@code null}.
      */
-    public void save(ArrayList<Task> tasks) throws IllegalArgumentException {
+    @Override
+    public synchronized SaveReport save(List<Task> tasks) throws IllegalArgumentException {
         if (tasks == null) {
             throw new IllegalArgumentException("Task list must not be null");
         }
         ensureDirectoryExist();
 
-        try (BufferedWriter writer = Files.newBufferedWriter(this.path)) {
+        try {
+            if (this.mode == StorageMode.LOG || this.mutationLog.hasRecords()) {
+                this.compactor.awaitIdle();
+                return checkpoint(tasks);
+            }
+            return writeAtomically(this.path, tasks);
+        } catch (IOException ioException) {
+            this.statusIndex = null;
+            showSaveError(ioException);
+            return null;
+        }
+    }
+
+    /**
+     * Persists a task that has just been appended to the task list.
+     * <p>
+     * In {@link StorageMode#LOG} mode only the new task is written, and in
+     * {@link StorageMode#INDEXED} mode its line is appended to the data file;
+     * otherwise the whole list is saved.
+     *
+     * @param tasks The task list after the task has been appended.
+     * @param task  The appended task.
+     */
+    @Override
+    public synchronized void append(List<Task> tasks, Task task) {
+        assert task != null : "Task must not be null";
+        if (this.mode == StorageMode.INDEXED && appendLine(tasks, task)) {
+            return;
+        }
+        if (this.mode != StorageMode.LOG) {
+            save(tasks);
+            return;
+        }
+
+        String line = saveTask(task);
+        appendRecord(tasks, (log, isSynced) -> log.recordAdd(line, isSynced));
+    }
+
+    /**
+     * Persists a change in the completion status of the task at the given index.
+     * <p>
+     * In {@link StorageMode#LOG} mode only the new status is written, and in
+     * {@link StorageMode#INDEXED} mode only the status byte of the task is
+     * rewritten; otherwise the whole list is saved.
+     *
+     * @param tasks The task list after the task has been updated.
+     * @param index Zero-based index of the updated task.
+     */
+    @Override
+    public synchronized void update(List<Task> tasks, int index) {
+        if (this.mode == StorageMode.INDEXED && writeStatus(tasks, index)) {
+            return;
+        }
+        if (this.mode != StorageMode.LOG) {
+            save(tasks);
+            return;
+        }
+
+        boolean isDone = tasks.get(index).isDone();
+        appendRecord(tasks, (log, isSynced) -> log.recordStatus(index, isDone, isSynced));
+    }
+
+    /**
+     * Persists the removal of the task at the given index.
+     * <p>
+     * In {@link StorageMode#LOG} mode only the removed index is written;
+     * otherwise the whole list is saved.
+     *
+     * @param tasks The task list after the task has been removed.
+     * @param index Zero-based index the task was removed from.
+     */
+    @Override
+    public synchronized void remove(List<Task> tasks, int index) {
+        if (this.mode != StorageMode.LOG) {
+            save(tasks);
+            return;
+        }
+
+        appendRecord(tasks, (log, isSynced) -> log.recordDelete(index, isSynced));
+    }
+
+    /**
+     * Waits for a running background compaction of the mutation log to finish.
+     */
+    @Override
+    public void flush() {
+        this.compactor.awaitIdle();
+    }
+
+    @Override
+    public synchronized long loadLastId() {
+        return getLastIdFile().read();
+    }
+
+    @Override
+    public synchronized void saveLastId(long lastId) {
+        long start = System.nanoTime();
+        boolean isSyncDue = isSyncDue(start);
+        try {
+            getLock().runExclusive(() -> getLastIdFile().write(lastId, isSyncDue));
+            if (isSyncDue) {
+                this.lastSyncNanos = start;
+            }
+        } catch (IOException ioException) {
+            showSaveError(ioException);
+        }
+    }
+
+    /**
+     * Reads the changes made to the data file by other programs since it was
+     * last read or written.
+     * <p>
+     * If lines were only appended to the file, just those lines are parsed.
+     * Any other change reloads the whole file.
+     *
+     * @return The change, or {@code null} if the file has not been changed or
+     *         external changes are not tracked in this mode.
+     */
+    @Override
+    public synchronized ExternalChange checkExternalChange() {
+        if (!isTracked()) {
+            return null;
+        }
+
+        ExternalChange change;
+        try {
+            long knownSize = this.tracker.getSize();
+            change = getLock().callShared(() -> switch (this.tracker.compare(this.path)) {
+            case APPENDED -> readAppendedTasks(knownSize);
+            case REPLACED -> RELOAD_NEEDED;
+            default -> null;
+            });
+        } catch (IOException ioException) {
+            return null; // the file is being replaced; the next change event retries
+        }
+
+        // reloading may finish a checkpoint, which needs the exclusive lock from the start
+        return change == RELOAD_NEEDED ? reloadDataFile() : change;
+    }
+
+    /**
+     * Starts watching the data file for changes made by other programs.
+     * <p>
+     * Watching can be turned off with {@code -Dsora.storage.watch=false}.
+     *
+     * @param onChange Callback run on a background thread after the file has changed.
+     */
+    @Override
+    public synchronized void watch(Runnable onChange) {
+        if (!isTracked() || this.watcher != null
+                || "false".equalsIgnoreCase(System.getProperty(WATCH_PROPERTY, "").trim())) {
+            return;
+        }
+
+        ensureDirectoryExist();
+        try {
+            this.watcher = new DataFileWatcher(this.path, onChange);
+        } catch (IOException ioException) {
+            // changes made elsewhere are then picked up on the next start
+        }
+    }
+
+    /**
+     * Appends a record to the mutation log, forcing it to disk if the
+     * durability level asks for it, and starts a compaction if one is due.
+     *
+     * @param tasks  The task list after the change.
+     * @param record Writes the record of the change.
+     */
+    private void appendRecord(List<Task> tasks, LogRecord record) {
+        ensureDirectoryExist();
+        long start = System.nanoTime();
+        boolean isSyncDue = isSyncDue(start);
+        try {
+            getLock().runExclusive(() -> record.writeTo(this.mutationLog, isSyncDue));
+            if (isSyncDue) {
+                this.lastSyncNanos = start;
+            }
+        } catch (IOException ioException) {
+            showSaveError(ioException);
+        }
+        compactIfDue(tasks);
+    }
+
+    /**
+     * Writes the record of a change to the {@link MutationLog}.
+     */
+    @FunctionalInterface
+    private interface LogRecord {
+        void writeTo(MutationLog log, boolean isSynced) throws IOException;
+    }
+
+    private LastIdFile getLastIdFile() {
+        if (this.lastIdFile == null) {
+            this.lastIdFile = new LastIdFile(this.path);
+        }
+        return this.lastIdFile;
+    }
+
+    private DataFileLock getLock() {
+        return DataFileLock.forDataFile(this.path);
+    }
+
+    private void showSaveError(IOException ioException) {
+        outputHandler.show("Oops! Failed to save tasks"
+                + (ioException instanceof DataFileLock.LockTimeoutException
+                ? "\n Another Sora is still using " + this.path : ""));
+    }
+
+    private boolean isTracked() {
+        return this.mode == StorageMode.TEXT || this.mode == StorageMode.INDEXED;
+    }
+
+    private void trackDataFile() {
+        if (!isTracked()) {
+            return;
+        }
+        try {
+            this.tracker.reset(this.path);
+        } catch (IOException ioException) {
+            this.tracker.forget();
+        }
+    }
+
+    /**
+     * Keeps a copy of the data file if it has been changed by another program
+     * since it was last read, so that the next write does not silently
+     * overwrite that change.
+     * <p>
+     * Must be called while holding the exclusive lock.
+     */
+    private void preserveExternalChange() {
+        if (!isTracked()) {
+            return;
+        }
+
+        Path conflictPath = getSiblingPath(CONFLICT_SUFFIX + LocalDateTime.now().format(CONFLICT_TIME));
+        try {
+            if (this.tracker.compare(this.path) == DataFileTracker.Difference.UNCHANGED) {
+                return;
+            }
+            Files.copy(this.path, conflictPath, StandardCopyOption.REPLACE_EXISTING);
+            this.tracker.reset(this.path);
+        } catch (IOException ioException) {
+            return; // the file cannot be read, so there is nothing that could be kept
+        }
+
+        this.statusIndex = null;
+        outputHandler.show("Hmm... " + this.path + " was changed outside Sora before I could read it"
+                + "\n I kept that version in " + conflictPath);
+    }
+
+    /**
+     * Parses the lines appended to the data file after the remembered version.
+     * <p>
+     * A trailing line that is still being written is left for the next check.
+     *
+     * @param knownSize Size of the remembered version.
+     * @return The appended tasks, {@code null} if no complete line was appended,
+     *         or {@link #RELOAD_NEEDED} if too much was appended to be read alone.
+     * @throws IOException If the file cannot be read.
+     */
+    private ExternalChange readAppendedTasks(long knownSize) throws IOException {
+        ByteBuffer delta;
+        try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ)) {
+            long length = channel.size() - knownSize;
+            if (length > Integer.MAX_VALUE) {
+                return RELOAD_NEEDED;
+            }
+            delta = ByteBuffer.allocate((int) length);
+            while (delta.hasRemaining() && channel.read(delta, knownSize + delta.position()) >= 0) {
+                // keep reading until the buffer is full
+            }
+        }
+
+        int end = delta.position();
+        while (end > 0 && delta.get(end - 1) != '\n') {
+            end--;
+        }
+        if (end == 0) {
+            return null;
+        }
+
+        ArrayList<Task> tasks = new ArrayList<>();
+        CorruptionReport report = CorruptionReport.fromSystemProperty();
+        MappedTaskLoader.parseLines(delta, 0, end, 0, tasks, report);
+        byte[] appended = new byte[end];
+        delta.get(0, appended);
+        this.tracker.appended(this.path, appended);
+        this.statusIndex = null;
+
+        showCorruption(report, "appended tasks");
+        outputHandler.show("Hmm... " + tasks.size() + " tasks were added to " + this.path + " outside Sora"
+                + "\n I've put them at the end of your list");
+        return new ExternalChange(true, tasks);
+    }
+
+    private ExternalChange reloadDataFile() {
+        this.statusIndex = null;
+        ArrayList<Task> tasks = load();
+        outputHandler.show("Hmm... " + this.path + " was changed outside Sora"
+                + "\n I've reloaded your list");
+        return new ExternalChange(false, tasks);
+    }
+
+    private boolean isIndexed(int taskCount) {
+        return this.statusIndex != null && this.statusIndex.size() == taskCount;
+    }
+
+    /**
+     * Appends the line of a new task to the data file and records the offset
+     * of its status byte.
+     *
+     * @param tasks The task list after the task has been appended.
+     * @param task  The appended task.
+     * @return {@code false} if the line could not be appended, in which case
+     *         the whole list has to be saved instead.
+     */
+    private boolean appendLine(List<Task> tasks, Task task) {
+        byte[] line = (saveTask(task) + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+        try {
+            return getLock().callExclusive(() -> {
+                preserveExternalChange();
+                if (!isIndexed(tasks.size() - 1)) {
+                    return false;
+                }
+                try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.WRITE)) {
+                    long lineStart = channel.size();
+                    channel.write(ByteBuffer.wrap(line), lineStart);
+                    if (isSyncDue(System.nanoTime())) {
+                        channel.force(false);
+                    }
+                    this.statusIndex.add(lineStart + StatusIndex.findStatus(ByteBuffer.wrap(line), 0, line.length));
+                }
+                this.tracker.appended(this.path, line);
+                return true;
+            });
+        } catch (IOException ioException) {
+            this.statusIndex = null;
+            return false;
+        }
+    }
+
+    /**
+     * Rewrites the status byte of the task at the given index in place.
+     *
+     * @param tasks The task list after the task has been updated.
+     * @param index Zero-based index of the updated task.
+     * @return {@code false} if the status could not be written in place, in
+     *         which case the whole list has to be saved instead.
+     */
+    private boolean writeStatus(List<Task> tasks, int index) {
+        try {
+            return getLock().callExclusive(() -> {
+                preserveExternalChange();
+                if (!isIndexed(tasks.size())) {
+                    return false;
+                }
+                this.statusIndex.writeStatus(this.path, index, tasks.get(index).isDone(),
+                        isSyncDue(System.nanoTime()));
+                this.tracker.rewritten(this.path);
+                return true;
+            });
+        } catch (IOException ioException) {
+            this.statusIndex = null;
+            return false;
+        }
+    }
+
+    /**
+     * Builds the {@link StatusIndex} of the data file, rewriting the file first
+     * if its lines do not line up with the loaded tasks.
+     *
+     * @param tasks The loaded task list.
+     */
+    private void indexStatuses(List<Task> tasks) {
+        try {
+            getLock().runShared(() -> {
+                if (!Files.exists(this.path)
+                        || !(BinaryTaskCodec.isBinary(this.path) || BlockCompression.isCompressed(this.path))) {
+                    this.statusIndex = StatusIndex.scan(this.path, tasks.size());
+                }
+            });
+        } catch (IOException ioException) {
+            this.statusIndex = null;
+        }
+
+        if (this.statusIndex == null) {
+            save(tasks);
+        }
+    }
+
+    /**
+     * Folds the mutation log into the data file.
+     * <p>
+     * The new data file is first written completely to {@code sora.txt.next},
+     * so that a crash can never leave a half-written data file behind.
+     *
+     * @param tasks The current task list.
+     * @return A {@link SaveReport} describing the cost of the checkpoint.
+     * @throws IOException If any step of the checkpoint fails.
+     */
+    private SaveReport checkpoint(List<Task> tasks) throws IOException {
+        sealLog();
+        this.baseSize = tasks.size();
+        return writeCheckpoint(tasks);
+    }
+
+    /**
+     * Starts a background compaction if the mutation log has grown past the
+     * thresholds of the {@link LogCompactor}.
+     * <p>
+     * The log is sealed and the task list is copied on the calling thread, so
+     * that changes made while the snapshot is being written go to the new
+     * active segment. Task objects are shared with the snapshot, which is safe
+     * because status records set an absolute status when replayed.
+     *
+     * @param tasks The current task list.
+     */
+    private void compactIfDue(List<Task> tasks) {
+        if (!this.compactor.shouldCompact(this.mutationLog.getRecordCount(), this.baseSize)) {
+            return;
+        }
+
+        try {
+            sealLog();
+        } catch (IOException ioException) {
+            return; // the log stays active and compaction is retried on the next change
+        }
+
+        ArrayList<Task> snapshot = new ArrayList<>(tasks);
+        this.baseSize = snapshot.size();
+        this.compactor.submit(() -> writeCheckpoint(snapshot), () ->
+                outputHandler.show("Hmm... I couldn't tidy up my memory file"
+                        + "\n Your changes are safe and I'll try again later"));
+    }
+
+    /**
+     * Seals the active log segment so that a snapshot can be written.
+     * <p>
+     * A complete snapshot left behind by an earlier failed compaction is put
+     * in place first, as it already contains the sealed records.
+     *
+     * @throws IOException If the pending snapshot or the log cannot be moved.
+     */
+    private void sealLog() throws IOException {
+        Path nextPath = getSiblingPath(NEXT_SUFFIX);
+        getLock().runExclusive(() -> {
+            if (Files.exists(nextPath)) {
+                finishCheckpoint(nextPath);
+            }
+            this.mutationLog.seal();
+        });
+    }
+
+    /**
+     * Writes the given snapshot as the new data file and folds the sealed
+     * log segment into it.
+     *
+     * @param snapshot Tasks to be written.
+     * @return A {@link SaveReport} describing the cost of the checkpoint.
+     * @throws IOException If any step of the checkpoint fails.
+     */
+    private SaveReport writeCheckpoint(List<Task> snapshot) throws IOException {
+        Path nextPath = getSiblingPath(NEXT_SUFFIX);
+
+        SaveReport report = writeAtomically(nextPath, snapshot);
+        getLock().runExclusive(() -> finishCheckpoint(nextPath));
+        return report;
+    }
+
+    /**
+     * Completes a checkpoint whose new data file has been fully written.
+     *
+     * @param nextPath Path of the fully written new data file.
+     * @throws IOException If the sealed segment cannot be deleted or the
+     *                     data file cannot be replaced.
+     */
+    private void finishCheckpoint(Path nextPath) throws IOException {
+        this.mutationLog.deleteSealed();
+        moveAtomically(nextPath, this.path);
+    }
+
+    /**
+     * Informs the user of the lines skipped while loading, in a single message.
+     * <p>
+     * If quarantining is enabled, the skipped lines are also appended to
+     * {@code sora.txt.corrupt} so that they can be repaired by hand.
+     *
+     * @param report   The report of the skipped lines.
+     * @param itemName Plural name of the skipped items.
+     */
+    private void showCorruption(CorruptionReport report, String itemName) {
+        if (report.isEmpty()) {
+            return;
+        }
+
+        String message = report.toMessage(itemName);
+        Path quarantinePath = getSiblingPath(CORRUPT_SUFFIX);
+        try {
+            if (report.writeQuarantine(quarantinePath)) {
+                message += "\n I kept a copy of them in " + quarantinePath;
+            }
+        } catch (IOException ioException) {
+            message += "\n I couldn't keep a copy of them in " + quarantinePath;
+        }
+        outputHandler.show(message);
+    }
+
+    /**
+     * Writes the given tasks to the given file, replacing its content.
+     * <p>
+     * The binary format is used in {@link StorageMode#BINARY} mode and the
+     * text format otherwise, compressed in {@link StorageMode#COMPRESSED} mode.
+     *
+     * @param target   File to write to.
+     * @param tasks    Tasks to be written.
+     * @param checksum Checksum the written bytes of a text file are added to.
+     * @throws IOException If the file cannot be written.
+     */
+    private void writeTasks(Path target, List<Task> tasks, CRC32 checksum) throws IOException {
+        if (this.mode == StorageMode.BINARY) {
+            BinaryTaskCodec.write(target, tasks);
+            return;
+        }
+        if (this.mode == StorageMode.INDEXED) {
+            writeIndexedTasks(target, tasks, checksum);
+            return;
+        }
+
+        try (BufferedWriter writer = this.mode == StorageMode.COMPRESSED
+                ? BlockCompression.newWriter(target)
+                : new BufferedWriter(new OutputStreamWriter(
+                        new CheckedOutputStream(Files.newOutputStream(target), checksum), StandardCharsets.UTF_8))) {
             for (Task task : tasks) {
                 writer.write(saveTask(task));
                 writer.newLine();
             }
+        }
+    }
+
+    /**
+     * Writes the given tasks in the text format while recording the offset of
+     * every status byte in a new {@link StatusIndex}.
+     *
+     * @param target   File to write to.
+     * @param tasks    Tasks to be written.
+     * @param checksum Checksum the written bytes are added to.
+     * @throws IOException If the file cannot be written.
+     */
+    private void writeIndexedTasks(Path target, List<Task> tasks, CRC32 checksum) throws IOException {
+        StatusIndex index = new StatusIndex();
+        byte[] separator = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+        long offset = 0;
+
+        this.statusIndex = null;
+        try (OutputStream out = new BufferedOutputStream(
+                new CheckedOutputStream(Files.newOutputStream(target), checksum))) {
+            for (Task task : tasks) {
+                byte[] line = saveTask(task).getBytes(StandardCharsets.UTF_8);
+                index.add(offset + StatusIndex.findStatus(ByteBuffer.wrap(line), 0, line.length));
+                out.write(line);
+                out.write(separator);
+                offset += line.length + separator.length;
+            }
+        }
+        this.statusIndex = index;
+    }
+
+    /**
+     * Writes the given tasks to a temporary file and atomically renames it
+     * over the target, forcing it to disk if the durability level asks for it.
+     * <p>
+     * The temporary file belongs to this process, so the exclusive lock is
+     * only taken for the rename.
+     *
+     * @param target File to be replaced.
+     * @param tasks  Tasks to be written.
+     * @return A {@link SaveReport} describing the cost of the write.
+     * @throws IOException If the file cannot be written or renamed.
+     */
+    private SaveReport writeAtomically(Path target, List<Task> tasks) throws IOException {
+        long start = System.nanoTime();
+        Path tempPath = target.resolveSibling(target.getFileName() + "." + ProcessHandle.current().pid()
+                + TEMP_SUFFIX);
+        boolean isSyncDue = isSyncDue(start);
+        boolean isTrackedFile = isTracked() && target.equals(this.path);
+        DataFileTracker written = new DataFileTracker();
+        CRC32 checksum = new CRC32();
+
+        try {
+            writeTasks(tempPath, tasks, checksum);
+            if (isSyncDue) {
+                try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+            }
+            getLock().runExclusive(() -> {
+                if (isTrackedFile) {
+                    preserveExternalChange();
+                }
+                moveAtomically(tempPath, target);
+                if (isTrackedFile) {
+                    written.wrote(target, checksum);
+                }
+            });
         } catch (IOException ioException) {
-            outputHandler.show("Oops! Failed to save tasks");
+            Files.deleteIfExists(tempPath);
+            throw ioException;
+        }
+
+        long bytesWritten = isTrackedFile ? written.getSize() : Files.size(target);
+        if (isTrackedFile) {
+            this.tracker = written;
+        }
+        if (isSyncDue) {
+            syncDirectory(target);
+            this.lastSyncNanos = start;
+        }
+
+        return new SaveReport(bytesWritten, System.nanoTime() - start, isSyncDue);
+    }
+
+    private boolean isSyncDue(long now) {
+        return switch (this.durability) {
+        case NONE -> false;
+        case FSYNC -> true;
+        case PERIODIC -> now - this.lastSyncNanos >= this.syncIntervalNanos;
+        };
+    }
+
+    /**
+     * Renames the source file over the target, atomically where the file
+     * system supports it.
+     *
+     * @param source File to be moved.
+     * @param target File to be replaced.
+     * @throws IOException If the file cannot be moved.
+     */
+    static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException atomicMoveException) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
         }
     }
 
+    /**
+     * Forces the directory entry of the given file to disk, so that a rename
+     * survives a power loss.
+     *
+     * @param file File whose parent directory is synced.
+     */
+    static void syncDirectory(Path file) {
+        Path directory = file.toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ioException) {
+            // some platforms cannot open directories; the file itself is already synced
+        }
+    }
+
+    private Path getSiblingPath(String suffix) {
+        return this.path.resolveSibling(this.path.getFileName() + suffix);
+    }
+
     /**
      * Ensures that the parent directory of the storage file exists.
      * If the directory does not exist, it will be created automatically.
@@ -133,18 +940,55 @@ public class Storage {
         }
     }
 
+    /**
+     * Reads all tasks from the given data file.
+     * <p>
+     * Files in the binary format are read by the {@link BinaryTaskCodec}, and
+     * compressed files are inflated block by block while the
+     * {@link MappedTaskLoader} parses them.
+     * Text files are parsed straight from their bytes by the {@link MappedTaskLoader}.
+     * Files too large to be held in a single buffer are read line by line instead.
+     *
+     * @param dataPath Path of the data file.
+     * @param tasks    The ArrayList where successfully parsed tasks will be added to.
+     * @param report   The report where corrupted lines will be recorded.
+     * @throws IOException If an I/O exception occur while reading the file.
+     */
+    private void readDataFile(Path dataPath, ArrayList<Task> tasks, CorruptionReport report) throws IOException {
+        if (BinaryTaskCodec.isBinary(dataPath)) {
+            BinaryTaskCodec.read(dataPath, tasks, report);
+            return;
+        }
+
+        if (BlockCompression.isCompressed(dataPath)) {
+            try (InputStream in = BlockCompression.newInputStream(dataPath)) {
+                MappedTaskLoader.load(in, tasks, report);
+            }
+            return;
+        }
+
+        if (!MappedTaskLoader.canLoad(Files.size(dataPath))) {
+            try (BufferedReader reader = Files.newBufferedReader(dataPath)) {
+                readTask(reader, tasks, report);
+            }
+            return;
+        }
+
+        MappedTaskLoader.load(dataPath, tasks, report);
+    }
+
     /**
      * Reads task from the given BufferedReader and adds them to the ArrayList.
      * <p>
      * Each line in the reader will be parsed individually. If the task cannot be
-     * parsed or is corrupted, it will be skipped and an error message will also be
-     * displayed to the user.
+     * parsed or is corrupted, it will be skipped and recorded in the report.
      *
      * @param reader    The BufferedReader from which to read task lines.
      * @param tasks     The ArrayList where successfully parsed tasks will be added to.
+     * @param report    The report where corrupted lines will be recorded.
      * @throws IOException  If an I/O exception occur while reading from the reader.
      */
-    private void readTask(BufferedReader reader, ArrayList<Task> tasks)
+    private void readTask(BufferedReader reader, ArrayList<Task> tasks, CorruptionReport report)
             throws IOException {
 
         assert reader != null : "Reader must not be null";
@@ -157,9 +1001,7 @@ public class Storage {
             try {
                 tasks.add(loadTask(line));
             } catch (SoraException soraException) {
-                outputHandler.show("Hmm... I skipped a corrupted task at "
-                        + lineNo
-                        + "\n It won't affect the rest of your list");
+                report.record(lineNo, soraException.getMessage(), line);
             }
         }
 
@@ -179,7 +1021,7 @@ public class Storage {
      *                                or invalid completion
      *                                status.
      */
-    private Task loadTask(String line) throws InvalidFormatException {
+    static Task loadTask(String line) throws InvalidFormatException {
         assert line != null : "Storage line must not be null";
         String[] parts = line.split("\\|");
         if (parts.length < 3) {
@@ -192,23 +1034,33 @@ public class Storage {
         String name = parts[2].trim();
 
         Task task;
+        int idIndex;
 
         switch (type) {
-        case TODO
-            -> task = parseToDo(name);
-        case DEADLINE
-            -> task = parseDeadline(parts, name);
-        case EVENT
-            -> task = parseEvent(parts, name);
+        case TODO -> {
+            task = parseToDo(name);
+            idIndex = 3;
+        }
+        case DEADLINE -> {
+            task = parseDeadline(parts, name);
+            idIndex = 4;
+        }
+        case EVENT -> {
+            task = parseEvent(parts, name);
+            idIndex = 5;
+        }
         default -> throw new InvalidFormatException("Oops! Unknown task type");
         }
 
         setTaskStatus(task, completedStr);
+        if (parts.length > idIndex && parts[idIndex].trim().startsWith(ID_PREFIX)) {
+            task.setId(parseId(parts[idIndex].trim().substring(ID_PREFIX.length())));
+        }
         return task;
 
     }
 
-    private Task parseToDo(String name) {
+    private static Task parseToDo(String name) {
         return new ToDo(name);
     }
 
@@ -225,7 +1077,7 @@ public class Storage {
      * @param name Name of the deadline task (from parts[2]).
      * @return A {@link Deadline} object with the specified name and parsed deadline.
      */
-    private Task parseDeadline(String[] parts, String name) {
+    private static Task parseDeadline(String[] parts, String name) {
         if (parts.length < 4 || parts[3].trim().isEmpty()) {
             throw new InvalidFormatException("Oops! Deadline requires /by "
                     + "and name");
@@ -247,7 +1099,7 @@ public class Storage {
      * @param name Name of the event task (from parts[2]).
      * @return A {@link Event} object with the specified name, start and end time.
      */
-    private Task parseEvent(String[] parts, String name) {
+    private static Task parseEvent(String[] parts, String name) {
         if (parts.length < 5
                 || parts[3].trim().isEmpty()
                 || parts[4].trim().isEmpty()) {
@@ -272,7 +1124,7 @@ public class Storage {
      * @param completedStat  String representation of the completion status.
      * @throws InvalidFormatException if completedStr is not "0" or "1".
      */
-    private void setTaskStatus(Task task, String completedStat)
+    private static void setTaskStatus(Task task, String completedStat)
             throws InvalidFormatException {
         assert task != null : "Task must not be null";
         assert completedStat != null : "Completion status must not be null";
@@ -287,31 +1139,52 @@ public class Storage {
 
     }
 
+    /**
+     * Parses the digits of a stored task ID.
+     *
+     * @param value Digits of the ID, without the {@code #} prefix.
+     * @return The task ID.
+     * @throws InvalidFormatException If the value is not a positive number.
+     */
+    static long parseId(String value) throws InvalidFormatException {
+        try {
+            long id = Long.parseLong(value);
+            if (id > Task.NO_ID) {
+                return id;
+            }
+        } catch (NumberFormatException numberFormatException) {
+            // reported below
+        }
+        throw new InvalidFormatException("Oops! Invalid task ID");
+    }
+
     /**
      * Converts a task into its storage string representation.
+     * <p>
+     * The ID of the task, if it has one, is stored in a last {@code #}-prefixed
+     * field (e.g. "T | 0 | read book | #12").
      *
      * @param task Task to be converted.
      * @return String format of the task.
      * @throws IllegalStateException  If unsupported task type is entered.
      */
-    private String saveTask(Task task)
+    static String saveTask(Task task)
             throws IllegalStateException {
 
         assert task != null : "Task must not be null";
 
+        String line;
         if (task instanceof ToDo toDo) {
-            return toDo.toStorageString();
-        }
-
-        if (task instanceof Deadline deadline) {
-            return deadline.toStorageString();
-        }
-
-        if (task instanceof Event event) {
-            return event.toStorageString();
+            line = toDo.toStorageString();
+        } else if (task instanceof Deadline deadline) {
+            line = deadline.toStorageString();
+        } else if (task instanceof Event event) {
+            line = event.toStorageString();
+        } else {
+            throw new IllegalStateException("Oops! Unknown task type");
         }
 
-        throw new IllegalStateException("Oops! Unknown task type");
+        return task.getId() == Task.NO_ID ? line : line + " | " + ID_PREFIX + task.getId();
     }
 
 }
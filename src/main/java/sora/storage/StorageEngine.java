@@ -0,0 +1,197 @@
+package sora.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import sora.task.Task;
+import sora.ui.OutputHandler;
+
+/**
+ * Represents a persistence strategy for the task list.
+ * <p>
+ * The task list itself is owned by the caller. Every change is reported to
+ * the engine right after it has been applied, together with the updated
+ * list, so that an engine may persist either the single change or the
+ * whole list.
+ * <p>
+ * The engine is selected with the {@code sora.storage.mode} system property,
+ * see {@link StorageMode}.
+ */
+public interface StorageEngine {
+
+    /**
+     * Loads the persisted task list.
+     *
+     * @return ArrayList containing all successfully loaded tasks.
+     */
+    ArrayList<Task> load();
+
+    /**
+     * Persists the whole task list.
+     *
+     * @param tasks List of tasks to be saved.
+     * @return A {@link SaveReport} describing the cost of the save, or
+     *         {@code null} if the save failed.
+     */
+    SaveReport save(List<Task> tasks);
+
+    /**
+     * Persists a task that has just been appended to the task list.
+     *
+     * @param tasks The task list after the task has been appended.
+     * @param task  The appended task.
+     */
+    void append(List<Task> tasks, Task task);
+
+    /**
+     * Persists a change in the completion status of the task at the given index.
+     *
+     * @param tasks The task list after the task has been updated.
+     * @param index Zero-based index of the updated task.
+     */
+    void update(List<Task> tasks, int index);
+
+    /**
+     * Persists the removal of the task at the given index.
+     *
+     * @param tasks The task list after the task has been removed.
+     * @param index Zero-based index the task was removed from.
+     */
+    void remove(List<Task> tasks, int index);
+
+    /**
+     * Checks if the given task belongs to persisted data that has not been
+     * loaded yet, in which case that data must be loaded with
+     * {@link #loadCold(LocalDate)} before the task is appended.
+     *
+     * @param task The task about to be appended.
+     * @return {@code true} if the task belongs to data that is not loaded.
+     */
+    default boolean isCold(Task task) {
+        return false;
+    }
+
+    /**
+     * Loads persisted tasks that were left out by {@link #load()}.
+     * <p>
+     * The returned tasks must be appended to the end of the task list.
+     *
+     * @param since Earliest date of interest, or {@code null} for all tasks.
+     * @return The newly loaded tasks.
+     */
+    default ArrayList<Task> loadCold(LocalDate since) {
+        return new ArrayList<>();
+    }
+
+    /**
+     * Reads the highest task ID ever persisted, including the IDs of tasks
+     * that were removed since or have not been loaded. Must be called after
+     * {@link #load()}.
+     *
+     * @return The ID, or {@link Task#NO_ID} if only the loaded tasks tell
+     *         which IDs were persisted.
+     */
+    default long loadLastId() {
+        return Task.NO_ID;
+    }
+
+    /**
+     * Records that task IDs up to the given one have been given out, so that
+     * they are never given out again. Must be called before a task with a new
+     * highest ID is persisted.
+     *
+     * @param lastId The highest ID given out.
+     */
+    default void saveLastId(long lastId) {
+        // engines that persist nothing have no IDs to keep track of
+    }
+
+    /**
+     * Checks if {@link #loadCold(LocalDate)} would load any tasks for the
+     * given date, without loading them.
+     *
+     * @param since Earliest date of interest, or {@code null} for all tasks.
+     * @return {@code true} if persisted tasks of interest are not loaded yet.
+     */
+    default boolean hasColdTasks(LocalDate since) {
+        return false;
+    }
+
+    /**
+     * Moves the completed tasks that are due for archival from persisted data
+     * that has not been loaded into the given archive, without loading the
+     * remaining tasks.
+     * <p>
+     * Tasks are appended to the archive before they are removed, so a failure
+     * never loses a task.
+     *
+     * @param archive The archive receiving old completed tasks.
+     * @param today   The current date.
+     * @return The number of archived tasks.
+     * @throws IOException If the archive cannot be written.
+     */
+    default int archiveCold(ArchiveStore archive, LocalDate today) throws IOException {
+        return 0;
+    }
+
+    /**
+     * Reads the changes made to the persisted tasks by other programs since
+     * they were last loaded or saved.
+     *
+     * @return The change, or {@code null} if there is none to merge.
+     */
+    default ExternalChange checkExternalChange() {
+        return null;
+    }
+
+    /**
+     * Starts watching the persisted tasks for changes made by other programs.
+     * <p>
+     * The callback should merge the change with {@link #checkExternalChange()}.
+     *
+     * @param onChange Callback run on a background thread after a change.
+     */
+    default void watch(Runnable onChange) {
+        // engines whose data is not shared with other programs have nothing to watch
+    }
+
+    /**
+     * Waits until all background work of the engine has finished.
+     */
+    default void flush() {
+        // engines without background work have nothing to wait for
+    }
+
+    /**
+     * Creates the engine for the given mode.
+     *
+     * @param path          Path of the data file.
+     * @param outputHandler The output handler used to display messages.
+     * @param mode          The selected {@link StorageMode}.
+     * @return The {@link StorageEngine} implementing the mode.
+     */
+    static StorageEngine create(Path path, OutputHandler outputHandler, StorageMode mode) {
+        if (mode == StorageMode.MEMORY) {
+            return new InMemoryStorageEngine();
+        }
+        if (mode == StorageMode.PARTITIONED) {
+            return new PartitionedStorageEngine(path, outputHandler);
+        }
+        return new Storage(path, outputHandler, mode);
+    }
+
+    /**
+     * Creates the engine selected by the {@code sora.storage.mode} system
+     * property, using the default data file {@code data/sora.txt}.
+     *
+     * @param outputHandler The output handler used to display messages.
+     * @return The configured {@link StorageEngine}.
+     */
+    static StorageEngine fromSystemProperty(OutputHandler outputHandler) {
+        return create(Paths.get("data", "sora.txt"), outputHandler, StorageMode.fromSystemProperty());
+    }
+}
@@ -0,0 +1,116 @@
+package sora.storage;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+
+import sora.exception.SoraException;
+import sora.task.Task;
+
+/**
+ * Converts data files between the text format and the binary format of
+ * {@link BinaryTaskCodec}.
+ * <p>
+ * Tasks are converted one at a time, so files of any size can be converted
+ * without holding the whole task list in memory. Corrupted text lines are
+ * skipped, and a corrupted binary record ends the conversion, matching what
+ * {@link Storage} does when loading.
+ * <p>
+ * Usage: {@code StorageFormatConverter (to-binary|to-text) <source> <target>}
+ */
+public class StorageFormatConverter {
+
+    private static final String TO_BINARY = "to-binary";
+    private static final String TO_TEXT = "to-text";
+
+    /**
+     * Converts a text data file into the binary format.
+     *
+     * @param source Path of the text data file.
+     * @param target Path of the binary file to be written.
+     * @return Line numbers of the lines that were skipped.
+     * @throws IOException If either file cannot be accessed.
+     */
+    public static ArrayList<Integer> toBinary(Path source, Path target) throws IOException {
+        ArrayList<Integer> skipped = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(source);
+             BinaryTaskCodec writer = BinaryTaskCodec.openWriter(target)) {
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                try {
+                    writer.writeTask(Storage.loadTask(line));
+                } catch (SoraException soraException) {
+                    skipped.add(lineNo);
+                }
+            }
+        }
+        return skipped;
+    }
+
+    /**
+     * Converts a binary data file into the text format.
+     *
+     * @param source Path of the binary data file.
+     * @param target Path of the text file to be written.
+     * @return Record number of the corrupted record, or an empty list if the
+     *         whole file was converted.
+     * @throws IOException If either file cannot be accessed.
+     */
+    public static ArrayList<Integer> toText(Path source, Path target) throws IOException {
+        ArrayList<Integer> skipped = new ArrayList<>();
+        try (BinaryTaskCodec reader = BinaryTaskCodec.openReader(source);
+             BufferedWriter writer = Files.newBufferedWriter(target)) {
+            int recordNo = 0;
+            while (true) {
+                recordNo++;
+                Task task;
+                try {
+                    task = reader.readTask();
+                } catch (SoraException | EOFException corruptedException) {
+                    skipped.add(recordNo);
+                    break;
+                }
+                if (task == null) {
+                    break;
+                }
+                writer.write(Storage.saveTask(task));
+                writer.newLine();
+            }
+        }
+        return skipped;
+    }
+
+    /**
+     * Runs the converter from the command line.
+     *
+     * @param args Direction of the conversion, source path and target path.
+     */
+    public static void main(String[] args) {
+        if (args.length != 3 || !(TO_BINARY.equals(args[0]) || TO_TEXT.equals(args[0]))) {
+            System.err.println("Usage: StorageFormatConverter (" + TO_BINARY + "|" + TO_TEXT
+                    + ") <source> <target>");
+            System.exit(1);
+        }
+
+        Path source = Paths.get(args[1]);
+        Path target = Paths.get(args[2]);
+        try {
+            ArrayList<Integer> skipped = TO_BINARY.equals(args[0])
+                    ? toBinary(source, target)
+                    : toText(source, target);
+            for (int lineNo : skipped) {
+                System.err.println("Skipped corrupted entry " + lineNo);
+            }
+        } catch (IOException ioException) {
+            System.err.println("Oops! Unable to convert " + source + ": " + ioException.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package sora.storage;
+
+/**
+ * Enum representing how changes to the task list are persisted.
+ * <p>
+ * There are 7 modes:
+ * <ul>
+ *     <li>{@link #TEXT} - Every change rewrites the whole data file </li>
+ *     <li>{@link #LOG} - Every change appends a single record to a
+ *         {@link MutationLog}, which is replayed on top of the data file
+ *         when loading </li>
+ *     <li>{@link #BINARY} - Every change rewrites the whole data file in the
+ *         compact format of {@link BinaryTaskCodec} </li>
+ *     <li>{@link #INDEXED} - Like {@link #TEXT}, but marking or unmarking a task
+ *         rewrites only its status byte, located through a {@link StatusIndex},
+ *         and adding a task appends a single line </li>
+ *     <li>{@link #COMPRESSED} - Like {@link #TEXT}, but the data file is
+ *         compressed block by block by {@link BlockCompression} </li>
+ *     <li>{@link #PARTITIONED} - Tasks are kept in one text file per month,
+ *         see {@link PartitionedStorageEngine} </li>
+ *     <li>{@link #MEMORY} - Nothing is persisted, see {@link InMemoryStorageEngine} </li>
+ * </ul>
+ * The format of an existing data file is detected when loading, so the mode
+ * can be changed at any time.
+ * The mode is selected with the {@code sora.storage.mode} system property
+ * (e.g. {@code -Dsora.storage.mode=log}) and defaults to {@link #TEXT}.
+ */
+public enum StorageMode {
+    TEXT("text"),
+    LOG("log"),
+    BINARY("binary"),
+    INDEXED("indexed"),
+    COMPRESSED("compressed"),
+    PARTITIONED("partitioned"),
+    MEMORY("memory");
+
+    /** System property used to select the storage mode. */
+    public static final String MODE_PROPERTY = "sora.storage.mode";
+
+    private final String keyword;
+
+    StorageMode(String keyword) {
+        this.keyword = keyword;
+    }
+
+    public String getKeyword() {
+        return this.keyword;
+    }
+
+    /**
+     * Maps the given string to the corresponding {@link StorageMode}.
+     * <p>
+     * Matching is case-insensitive. Unknown or missing values fall back to
+     * {@link #TEXT} so that a typo never prevents Sora from starting.
+     *
+     * @param input The name of the mode (e.g. "log").
+     * @return The corresponding {@link StorageMode}.
+     */
+    public static StorageMode fromString(String input) {
+        if (input == null) {
+            return TEXT;
+        }
+
+        for (StorageMode mode : values()) {
+            if (mode.keyword.equalsIgnoreCase(input.trim())) {
+                return mode;
+            }
+        }
+
+        return TEXT;
+    }
+
+    /**
+     * Returns the {@link StorageMode} selected by the {@code sora.storage.mode}
+     * system property.
+     *
+     * @return The configured {@link StorageMode}.
+     */
+    public static StorageMode fromSystemProperty() {
+        return fromString(System.getProperty(MODE_PROPERTY));
+    }
+}
@@ -0,0 +1,184 @@
+package sora.storage;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+
+import sora.exception.InvalidFormatException;
+import sora.exception.SoraException;
+import sora.parser.ParsedDateTime;
+import sora.task.Deadline;
+import sora.task.Event;
+import sora.task.Task;
+import sora.task.ToDo;
+
+/**
+ * Streams tasks between the task list and CSV or JSON Lines files.
+ * <p>
+ * Files are read and written one line at a time, so memory use does not
+ * depend on the size of the file. Rows are turned into tasks through the
+ * {@link ToDo}, {@link Deadline} and {@link Event} constructors and
+ * {@link ParsedDateTime#dateTimeParser(String)}, applying the same rules as
+ * the commands that add them.
+ */
+public class TaskTransfer {
+
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+    private static final String STORAGE_SEPARATOR = "|";
+    private static final String ID_PREFIX = "#";
+
+    private TaskTransfer() {
+        // utility class
+    }
+
+    /**
+     * Reads every task of the given file.
+     * <p>
+     * Rows that cannot be turned into a task are skipped and recorded in the report.
+     *
+     * @param source Path of a {@code .csv} or {@code .jsonl} file.
+     * @param sink   Receives every task read, in file order.
+     * @param report The report where skipped rows will be recorded.
+     * @throws InvalidFormatException If the file extension is not supported.
+     * @throws IOException            If the file cannot be read.
+     */
+    public static void importTasks(Path source, Consumer<Task> sink, CorruptionReport report)
+            throws IOException {
+        TransferFormat format = TransferFormat.fromPath(source);
+
+        try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (lineNo == 1 && !line.isEmpty() && line.charAt(0) == BYTE_ORDER_MARK) {
+                    line = line.substring(1);
+                }
+                if (line.isBlank() || (lineNo == 1 && format.isHeader(line))) {
+                    continue;
+                }
+
+                try {
+                    sink.accept(toTask(format.parseRow(line)));
+                } catch (SoraException soraException) {
+                    report.record(lineNo, soraException.getMessage(), line);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the given tasks to a file, replacing its content.
+     *
+     * @param target Path of a {@code .csv} or {@code .jsonl} file.
+     * @param tasks  Tasks to be written.
+     * @throws InvalidFormatException If the file extension is not supported.
+     * @throws IOException            If the file cannot be written.
+     */
+    public static void exportTasks(Path target, List<Task> tasks) throws IOException {
+        TransferFormat format = TransferFormat.fromPath(target);
+
+        try (BufferedWriter writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            if (format.getHeader() != null) {
+                writer.write(format.getHeader());
+                writer.newLine();
+            }
+            for (Task task : tasks) {
+                writer.write(format.formatRow(toFields(task), task.isDone()));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Builds a task from the fields of a row.
+     *
+     * @param fields Values of the fields in {@link TransferFormat#FIELDS} order.
+     * @return The corresponding {@link Task}.
+     * @throws InvalidFormatException If a field is missing or invalid.
+     */
+    static Task toTask(String[] fields) throws InvalidFormatException {
+        String type = fields[0] == null ? "" : fields[0].trim();
+        String name = fields[2] == null ? "" : fields[2].trim();
+        if (name.isEmpty()) {
+            throw new InvalidFormatException("Hmm... your input seems too short"
+                    + "\n Please provide more information");
+        }
+        if (name.contains(STORAGE_SEPARATOR) || name.indexOf('\n') >= 0 || name.indexOf('\r') >= 0) {
+            throw new InvalidFormatException("Oops! Task names cannot contain | or line breaks");
+        }
+
+        Task task = switch (type.toUpperCase()) {
+        case "T", "TODO"
+                -> new ToDo(name);
+        case "D", "DEADLINE"
+                -> new Deadline(name, parseDate(fields[3], "Oops! Deadline requires /by and name"));
+        case "E", "EVENT"
+                -> toEvent(name, fields);
+        default
+                -> throw new InvalidFormatException("Oops! Unknown task type");
+        };
+
+        if (isDone(fields[1])) {
+            task.markAsDone();
+        }
+        if (fields[5] != null && !fields[5].isBlank()) {
+            String id = fields[5].trim();
+            task.setId(Storage.parseId(id.startsWith(ID_PREFIX) ? id.substring(ID_PREFIX.length()) : id));
+        }
+        return task;
+    }
+
+    private static Event toEvent(String name, String[] fields) throws InvalidFormatException {
+        String missing = "Oops! Event requires /from, /to and name";
+        ParsedDateTime from = parseDate(fields[3], missing);
+        ParsedDateTime to = parseDate(fields[4], missing);
+        if (!ParsedDateTime.isValidStartEnd(from, to)) {
+            throw new InvalidFormatException("Oops! End date/time cannot be before start date/time");
+        }
+        return new Event(name, from, to);
+    }
+
+    private static ParsedDateTime parseDate(String value, String missingMessage) throws InvalidFormatException {
+        if (value == null || value.isBlank()) {
+            throw new InvalidFormatException(missingMessage);
+        }
+        return ParsedDateTime.dateTimeParser(value.trim());
+    }
+
+    private static boolean isDone(String value) throws InvalidFormatException {
+        String status = value == null ? "" : value.trim().toLowerCase();
+        return switch (status) {
+        case "1", "true", "x"
+                -> true;
+        case "", "0", "false"
+                -> false;
+        default
+                -> throw new InvalidFormatException("Oops! Unknown completion status");
+        };
+    }
+
+    private static String[] toFields(Task task) {
+        String[] fields = new String[TransferFormat.FIELDS.length];
+        fields[2] = task.getName();
+        if (task instanceof Deadline deadline) {
+            fields[0] = "D";
+            fields[3] = deadline.getDeadline().toStorageString();
+        } else if (task instanceof Event event) {
+            fields[0] = "E";
+            fields[3] = event.getStartDate().toStorageString();
+            fields[4] = event.getEndDate().toStorageString();
+        } else {
+            fields[0] = "T";
+        }
+        if (task.getId() != Task.NO_ID) {
+            fields[5] = Long.toString(task.getId());
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,344 @@
+package sora.storage;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+import sora.exception.InvalidFormatException;
+
+/**
+ * Enum representing the file formats supported by {@code import} and
+ * {@code export}.
+ * <p>
+ * There are 2 formats, chosen by the extension of the file:
+ * <ul>
+ *     <li>{@link #CSV} - {@code .csv}, one task per row with the columns
+ *         {@code type,done,name,start,end,id}</li>
+ *     <li>{@link #JSONL} - {@code .jsonl}, one JSON object per line with the
+ *         same fields, e.g. {@code {"type":"T","done":false,"name":"read book"}}</li>
+ * </ul>
+ * {@code type} is {@code T}, {@code D} or {@code E}, and {@code start} and
+ * {@code end} use the storage date format. A deadline keeps its due date in
+ * {@code start}.
+ */
+public enum TransferFormat {
+    CSV,
+    JSONL;
+
+    /** Names of the fields of a row, in column order. */
+    static final String[] FIELDS = {"type", "done", "name", "start", "end", "id"};
+
+    private static final String CSV_HEADER = String.join(",", FIELDS);
+    private static final String CSV_HEADER_START = FIELDS[0] + ",";
+
+    /**
+     * Picks the format matching the extension of the given file.
+     *
+     * @param path Path of the file to import or export.
+     * @return The matching {@link TransferFormat}.
+     * @throws InvalidFormatException If the extension is not supported.
+     */
+    public static TransferFormat fromPath(Path path) throws InvalidFormatException {
+        Path fileName = path.getFileName();
+        String name = fileName == null ? "" : fileName.toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return JSONL;
+        }
+        throw new InvalidFormatException("Hmm... I can only work with .csv and .jsonl files");
+    }
+
+    /**
+     * Returns the first line written before any row, if the format has one.
+     *
+     * @return The header line, or {@code null}.
+     */
+    String getHeader() {
+        return this == CSV ? CSV_HEADER : null;
+    }
+
+    /**
+     * Checks if the given line is a header rather than a row.
+     * <p>
+     * Headers without the {@code id} column, as written before tasks had
+     * IDs, are recognised too.
+     *
+     * @param line A line of the file.
+     * @return {@code true} if the line should be skipped.
+     */
+    boolean isHeader(String line) {
+        return this == CSV && line.trim().regionMatches(true, 0, CSV_HEADER_START, 0, CSV_HEADER_START.length());
+    }
+
+    /**
+     * Writes a row of fields in this format.
+     *
+     * @param fields Values of the fields in column order; {@code null} for a missing value.
+     * @param done   Completion status of the task.
+     * @return The encoded line, without a line break.
+     */
+    String formatRow(String[] fields, boolean done) {
+        StringBuilder line = new StringBuilder(64);
+        if (this == CSV) {
+            for (int i = 0; i < fields.length; i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                appendCsvField(line, i == 1 ? (done ? "1" : "0") : fields[i]);
+            }
+            return line.toString();
+        }
+
+        line.append('{');
+        for (int i = 0; i < fields.length; i++) {
+            if (i != 1 && fields[i] == null) {
+                continue;
+            }
+            if (line.length() > 1) {
+                line.append(',');
+            }
+            appendJsonString(line, FIELDS[i]);
+            line.append(':');
+            if (i == 1) {
+                line.append(done);
+            } else {
+                appendJsonString(line, fields[i]);
+            }
+        }
+        return line.append('}').toString();
+    }
+
+    /**
+     * Splits a line of this format into its fields.
+     *
+     * @param line A line of the file.
+     * @return Values of the fields in column order; missing values are {@code null}.
+     * @throws InvalidFormatException If the line is malformed.
+     */
+    String[] parseRow(String line) throws InvalidFormatException {
+        return this == CSV ? parseCsv(line) : parseJson(line);
+    }
+
+    private static void appendCsvField(StringBuilder line, String value) {
+        if (value == null) {
+            return;
+        }
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            line.append(value);
+            return;
+        }
+
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    private static String[] parseCsv(String line) throws InvalidFormatException {
+        String[] fields = new String[FIELDS.length];
+        int column = 0;
+        int pos = 0;
+        int length = line.length();
+
+        while (true) {
+            if (column == FIELDS.length) {
+                throw new InvalidFormatException("Hmm... this row has too many columns");
+            }
+
+            StringBuilder value = new StringBuilder();
+            if (pos < length && line.charAt(pos) == '"') {
+                pos++;
+                while (true) {
+                    if (pos >= length) {
+                        throw new InvalidFormatException("Oops! A quoted value is not closed");
+                    }
+                    char c = line.charAt(pos++);
+                    if (c != '"') {
+                        value.append(c);
+                    } else if (pos < length && line.charAt(pos) == '"') {
+                        value.append('"');
+                        pos++;
+                    } else {
+                        break;
+                    }
+                }
+                if (pos < length && line.charAt(pos) != ',') {
+                    throw new InvalidFormatException("Oops! Unexpected text after a quoted value");
+                }
+            } else {
+                int next = line.indexOf(',', pos);
+                int end = next < 0 ? length : next;
+                value.append(line, pos, end);
+                pos = end;
+            }
+
+            fields[column++] = value.length() == 0 ? null : value.toString();
+            if (pos >= length) {
+                return fields;
+            }
+            pos++; // skip the comma
+        }
+    }
+
+    private static void appendJsonString(StringBuilder line, String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '"' -> line.append("\\\"");
+            case '\\' -> line.append("\\\\");
+            case '\n' -> line.append("\\n");
+            case '\r' -> line.append("\\r");
+            case '\t' -> line.append("\\t");
+            default -> {
+                if (c < ' ') {
+                    line.append(String.format("\\u%04x", (int) c));
+                } else {
+                    line.append(c);
+                }
+            }
+            }
+        }
+        line.append('"');
+    }
+
+    /**
+     * Parses a flat JSON object whose values are strings, booleans, numbers or
+     * {@code null}. Keys that are not fields of a row are ignored.
+     */
+    private static String[] parseJson(String line) throws InvalidFormatException {
+        String[] fields = new String[FIELDS.length];
+        JsonCursor cursor = new JsonCursor(line);
+
+        cursor.expect('{');
+        if (!cursor.consume('}')) {
+            do {
+                String key = cursor.readString();
+                cursor.expect(':');
+                String value = cursor.readValue();
+                for (int i = 0; i < FIELDS.length; i++) {
+                    if (FIELDS[i].equals(key)) {
+                        fields[i] = value;
+                    }
+                }
+            } while (cursor.consume(','));
+            cursor.expect('}');
+        }
+        cursor.expectEnd();
+        return fields;
+    }
+
+    /**
+     * Reads the tokens of a single line of JSON.
+     */
+    private static class JsonCursor {
+        private final String line;
+        private int pos;
+
+        JsonCursor(String line) {
+            this.line = line;
+        }
+
+        boolean consume(char expected) {
+            skipSpaces();
+            if (this.pos < this.line.length() && this.line.charAt(this.pos) == expected) {
+                this.pos++;
+                return true;
+            }
+            return false;
+        }
+
+        void expect(char expected) throws InvalidFormatException {
+            if (!consume(expected)) {
+                throw malformed();
+            }
+        }
+
+        void expectEnd() throws InvalidFormatException {
+            skipSpaces();
+            if (this.pos != this.line.length()) {
+                throw malformed();
+            }
+        }
+
+        String readValue() throws InvalidFormatException {
+            skipSpaces();
+            if (this.pos < this.line.length() && this.line.charAt(this.pos) == '"') {
+                return readString();
+            }
+
+            int start = this.pos;
+            while (this.pos < this.line.length() && ",} \t".indexOf(this.line.charAt(this.pos)) < 0) {
+                this.pos++;
+            }
+            String literal = this.line.substring(start, this.pos);
+            if (literal.isEmpty() || literal.charAt(0) == '{' || literal.charAt(0) == '[') {
+                throw malformed();
+            }
+            return literal.equals("null") ? null : literal;
+        }
+
+        String readString() throws InvalidFormatException {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (this.pos < this.line.length()) {
+                char c = this.line.charAt(this.pos++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (this.pos >= this.line.length()) {
+                    break;
+                }
+                char escaped = this.line.charAt(this.pos++);
+                switch (escaped) {
+                case 'n' -> value.append('\n');
+                case 'r' -> value.append('\r');
+                case 't' -> value.append('\t');
+                case 'b' -> value.append('\b');
+                case 'f' -> value.append('\f');
+                case 'u' -> value.append(readUnicode());
+                default -> value.append(escaped);
+                }
+            }
+            throw malformed();
+        }
+
+        private char readUnicode() throws InvalidFormatException {
+            if (this.pos + 4 > this.line.length()) {
+                throw malformed();
+            }
+            try {
+                char c = (char) Integer.parseInt(this.line.substring(this.pos, this.pos + 4), 16);
+                this.pos += 4;
+                return c;
+            } catch (NumberFormatException numberFormatException) {
+                throw malformed();
+            }
+        }
+
+        private void skipSpaces() {
+            while (this.pos < this.line.length() && Character.isWhitespace(this.line.charAt(this.pos))) {
+                this.pos++;
+            }
+        }
+
+        private static InvalidFormatException malformed() {
+            return new InvalidFormatException("Oops! This line is not a valid JSON object");
+        }
+    }
+}
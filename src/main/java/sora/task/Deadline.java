@@ -29,6 +29,11 @@ public class Deadline extends Task {
         this.by = by;
     }
 
+    @Override
+    protected Task copy() {
+        return new Deadline(getName(), this.by);
+    }
+
     /**
      * Returns the deadline of this task.
      *
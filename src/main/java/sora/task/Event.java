@@ -55,6 +55,11 @@ public class Event extends Task {
         return this.to;
     }
 
+    @Override
+    protected Task copy() {
+        return new Event(getName(), this.from, this.to);
+    }
+
     /**
      * Returns the string representation of the Event task for display.
      *
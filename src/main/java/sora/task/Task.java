@@ -11,19 +11,26 @@ package sora.task;
  */
 public abstract class Task {
 
+    /** ID of a task that has not been given an ID yet. */
+    public static final long NO_ID = 0;
+
     private static final char DONE = '1';
     private static final char NOT_DONE = '0';
 
     private final String name;
     private boolean isDone;
+    private long id = NO_ID;
 
     /**
      * Constructs a new task with the given name.
+     * <p>
+     * The name is passed through the {@link TaskNamePool}, so tasks with
+     * equal names share one string.
      *
      * @param name The name of the task.
      */
     public Task(String name) {
-        this.name = name;
+        this.name = TaskNamePool.getShared().canonicalize(name);
         this.isDone = false;
     }
 
@@ -41,6 +48,60 @@ public abstract class Task {
         this.isDone = false;
     }
 
+    /**
+     * Returns a copy of the task with the given completion status and the
+     * same ID.
+     * <p>
+     * A task in the task list may also be part of snapshots read on other
+     * threads, so its status is changed by replacing it with a copy.
+     *
+     * @param isDone Completion status of the copy.
+     * @return The copy.
+     */
+    public Task withStatus(boolean isDone) {
+        Task copy = copy();
+        copy.isDone = isDone;
+        copy.id = this.id;
+        return copy;
+    }
+
+    /**
+     * Returns a new task with the same details, not done and without an ID.
+     *
+     * @return The new task.
+     */
+    protected abstract Task copy();
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns the ID of the task.
+     * <p>
+     * Unlike its number in the task list, the ID of a task never changes and
+     * is kept in the data file, so it can be used to refer to the task after
+     * other tasks have been removed.
+     *
+     * @return The ID of the task, or {@link #NO_ID} if it has none yet.
+     */
+    public long getId() {
+        return this.id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    /**
+     * Returns the completion status of the task.
+     *
+     * @return {@code true} if the task is done.
+     */
+    public boolean isDone() {
+        return this.isDone;
+    }
+
     /**
      * Checks the status of the task and return the relevant symbol.
      *
@@ -0,0 +1,145 @@
+package sora.task;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shares one {@link String} between tasks with equal names.
+ * <p>
+ * Recurring tasks such as "standup" or "gym" are created and loaded many
+ * times over, each time with a new string. Every task passes its name
+ * through the pool when it is constructed, so equal names end up as a single
+ * string and the copies can be collected.
+ * <p>
+ * Names are only weakly referenced: a name is dropped from the pool once no
+ * task uses it any more. The pool holds at most {@code sora.task.namepool.size}
+ * names (default {@value #DEFAULT_MAX_NAMES}); once it is full, new names are
+ * used as they are until names are dropped.
+ * <p>
+ * Tasks are created on many threads at once, e.g. when a data file is parsed
+ * in parallel, so the names are split by hash code into stripes with a lock
+ * each, and threads only wait for one another when their names fall into the
+ * same stripe. The lookups and hits behind {@link #getHitRatio()} are counted
+ * in {@link LongAdder}s, which threads do not contend on either.
+ */
+public class TaskNamePool {
+
+    /** System property for the number of names the shared pool holds. */
+    public static final String SIZE_PROPERTY = "sora.task.namepool.size";
+
+    private static final int DEFAULT_MAX_NAMES = 8192;
+    private static final int MAX_STRIPES = 64;
+    private static final TaskNamePool SHARED = new TaskNamePool(
+            Math.max(0, Integer.getInteger(SIZE_PROPERTY, DEFAULT_MAX_NAMES)));
+
+    private final Stripe[] stripes;
+    private final int maxNamesPerStripe;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * The names whose hash codes fall into one stripe, guarded by the lock
+     * of the stripe.
+     */
+    private static class Stripe {
+        private final Map<String, WeakReference<String>> names = new WeakHashMap<>();
+    }
+
+    /**
+     * Constructs an empty {@code TaskNamePool}.
+     *
+     * @param maxNames Number of names the pool holds at most.
+     */
+    public TaskNamePool(int maxNames) {
+        int stripeCount = Integer.highestOneBit(Math.max(1, Math.min(MAX_STRIPES, maxNames)));
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.maxNamesPerStripe = maxNames / stripeCount;
+    }
+
+    /**
+     * Returns the pool every task passes its name through.
+     *
+     * @return The shared pool.
+     */
+    public static TaskNamePool getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the pooled string equal to the given name, adding the name to
+     * the pool if it is not there yet and the pool has room.
+     *
+     * @param name The name of a task.
+     * @return An equal string, shared with other tasks where possible.
+     */
+    public String canonicalize(String name) {
+        if (name == null) {
+            return null;
+        }
+
+        this.lookups.increment();
+        int hash = name.hashCode();
+        Stripe stripe = this.stripes[(hash ^ (hash >>> 16)) & (this.stripes.length - 1)];
+        synchronized (stripe) {
+            WeakReference<String> reference = stripe.names.get(name);
+            String pooled = reference == null ? null : reference.get();
+            if (pooled != null) {
+                this.hits.increment();
+                return pooled;
+            }
+            if (stripe.names.size() < this.maxNamesPerStripe) {
+                stripe.names.put(name, new WeakReference<>(name));
+            }
+            return name;
+        }
+    }
+
+    /**
+     * Returns the share of names passed through the pool that were already
+     * in it.
+     * <p>
+     * Names passed while the ratio is computed may be counted as looked up
+     * but not yet as hits, so the ratio is only exact while the pool is idle.
+     *
+     * @return The hit ratio between 0 and 1, or 0 if no name was passed yet.
+     */
+    public double getHitRatio() {
+        long hitCount = this.hits.sum();
+        long lookupCount = this.lookups.sum();
+        return lookupCount == 0 ? 0 : Math.min(1, (double) hitCount / lookupCount);
+    }
+
+    /**
+     * Returns the distinct names of the tasks currently in use, e.g. as the
+     * vocabulary for a search.
+     *
+     * @return The pooled names, in no particular order.
+     */
+    public List<String> getNames() {
+        List<String> names = new ArrayList<>();
+        for (Stripe stripe : this.stripes) {
+            synchronized (stripe) {
+                names.addAll(stripe.names.keySet());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Returns a summary of how well the pool is doing.
+     *
+     * @return The number of pooled names and the hit ratio.
+     */
+    @Override
+    public String toString() {
+        return String.format("%d names, %.1f%% hits over %d lookups",
+                getNames().size(), getHitRatio() * 100, this.lookups.sum());
+    }
+}
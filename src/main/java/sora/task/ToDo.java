@@ -21,6 +21,11 @@ public class ToDo extends Task {
         super(name);
     }
 
+    @Override
+    protected Task copy() {
+        return new ToDo(getName());
+    }
+
     /**
      * Returns the string representation of the ToDo task for display.
      *
@@ -1,7 +1,11 @@
 package sora.ui;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.List;
 
+import sora.storage.ArchiveEntry;
+import sora.storage.CorruptionReport;
 import sora.task.Task;
 
 /**
@@ -62,7 +66,7 @@ public class Ui {
      * @param count The current number of tasks in the list.
      */
     public void showAddTask(Task task, int count) {
-        String addTaskMsg = "Task added! Here's what I've recorded:\n" + " " + task
+        String addTaskMsg = "Task added! Here's what I've recorded:\n" + " " + withId(task)
                 + "\n" + "All set! You now have " + count + " in your list";
 
         this.output.show(addTaskMsg);
@@ -84,10 +88,10 @@ public class Ui {
     /**
      * Displays all tasks in the task list.
      *
-     * @param tasks Arraylist containing all the tasks.
+     * @param tasks List containing all the tasks.
      * @param count Current number of tasks in the list.
      */
-    public void showTasks(ArrayList<Task> tasks, int count) {
+    public void showTasks(List<Task> tasks, int count) {
         if (count == 0) {
             String errorMsg = "Hmm... it looks like you haven't add any tasks yet\n"
                     + "Why not start adding a new task?";
@@ -96,9 +100,13 @@ public class Ui {
         }
 
         StringBuilder sb = new StringBuilder("Here are your tasks: \n");
-        for (int i = 0; i < count; i++) {
-            sb.append(i + 1).append(". ")
-                    .append(tasks.get(i))
+        int number = 0;
+        for (Task task : tasks) {
+            if (number == count) {
+                break;
+            }
+            sb.append(++number).append(". ")
+                    .append(withId(task))
                     .append("\n");
         }
         this.output.show(sb.toString());
@@ -129,11 +137,11 @@ public class Ui {
     /**
      * Displays a list of matching tasks.
      *
-     * @param tasks          Arraylist containing all the tasks.
+     * @param tasks          List containing all the tasks.
      * @param matchingResult List of all matching tasks.
      * @param keyword        Keyword to search for.
      */
-    public void showSearchResult(ArrayList<Task> tasks, ArrayList<Task> matchingResult, String keyword) {
+    public void showSearchResult(List<Task> tasks, List<Task> matchingResult, String keyword) {
         if (matchingResult.isEmpty()) {
             String errorMsg = "Hmm... No tasks found on " + keyword + " yet\n"
                     + "Try refining your search";
@@ -146,12 +154,77 @@ public class Ui {
         for (Task match : matchingResult) {
             int originalIndex = tasks.indexOf(match);
             results.append(originalIndex + 1).append(". ")
-                    .append(match)
+                    .append(withId(match))
                     .append("\n");
         }
         this.output.show(results.toString());
     }
 
+    /**
+     * Displays a list of matching archived tasks.
+     *
+     * @param matchingResult List of all matching archive entries.
+     * @param keyword        Keyword to search for.
+     */
+    public void showArchiveResult(ArrayList<ArchiveEntry> matchingResult, String keyword) {
+        if (matchingResult.isEmpty()) {
+            String errorMsg = "Hmm... No archived tasks found on " + keyword + "\n"
+                    + "Try refining your search";
+            showError(errorMsg);
+            return;
+        }
+
+        StringBuilder results = new StringBuilder("Here are the archived tasks I found"
+                + " matching " + keyword + ":\n");
+        for (ArchiveEntry entry : matchingResult) {
+            results.append(entry.getEntryNo()).append(". ")
+                    .append(entry.getTask())
+                    .append("\n");
+        }
+        results.append("Use restore <number> to bring one back");
+        this.output.show(results.toString());
+    }
+
+    /**
+     * Displays a task that has been restored from the archive.
+     *
+     * @param task  The restored task.
+     * @param count Current number of tasks in the list.
+     */
+    public void showTaskRestored(Task task, int count) {
+        String restoreMsg = "Welcome back! I've restored this task:\n" + "  " + task
+                + "\n" + "All set! You now have " + count + " in your list";
+
+        this.output.show(restoreMsg);
+    }
+
+    /**
+     * Displays the result of an import.
+     *
+     * @param imported Number of imported tasks.
+     * @param count    Current number of tasks in the list.
+     * @param report   Rows of the file that were skipped.
+     */
+    public void showTasksImported(int imported, int count, CorruptionReport report) {
+        String importMsg = "Done! I've imported " + imported + " tasks\n"
+                + "You now have " + count + " in your list";
+        if (!report.isEmpty()) {
+            importMsg += "\n" + report.toMessage("rows");
+        }
+
+        this.output.show(importMsg);
+    }
+
+    /**
+     * Displays the result of an export.
+     *
+     * @param exported Number of exported tasks.
+     * @param target   Path of the written file.
+     */
+    public void showTasksExported(int exported, Path target) {
+        this.output.show("Done! I've exported " + exported + " tasks to " + target);
+    }
+
     /**
      * Displays an error message.
      *
@@ -167,4 +240,15 @@ public class Ui {
     public void farewellMessage() {
         this.output.show("Oh, leaving already? Hope you have a productive day!");
     }
+
+    /**
+     * Formats a task followed by its ID, which can be typed instead of its
+     * number, e.g. {@code mark #12}.
+     *
+     * @param task The task to format.
+     * @return The formatted task, e.g. "[T][ ] read book  #12".
+     */
+    private static String withId(Task task) {
+        return task.getId() == Task.NO_ID ? task.toString() : task + "  #" + task.getId();
+    }
 }
@@ -6,6 +6,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
@@ -25,6 +26,11 @@ public class FindCommandTest {
         public FakeTask(String name) {
             super(name);
         }
+
+        @Override
+        protected Task copy() {
+            return new FakeTask(getName());
+        }
     }
 
     /**
@@ -43,11 +49,11 @@ public class FindCommandTest {
      * Fake Ui to capture search results.
      */
     private static class FakeUi extends Ui {
-        private ArrayList<Task> receivedMatches;
+        private List<Task> receivedMatches;
         private String receivedKeyword;
 
         @Override
-        public void showSearchResult(ArrayList<Task> tasks, ArrayList<Task> matchingResult, String keyword) {
+        public void showSearchResult(List<Task> tasks, List<Task> matchingResult, String keyword) {
             this.receivedMatches = matchingResult;
             this.receivedKeyword = keyword;
         }
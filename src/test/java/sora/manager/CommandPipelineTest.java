@@ -0,0 +1,65 @@
+package sora.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sora.storage.ArchiveStore;
+import sora.storage.InMemoryStorageEngine;
+import sora.task.ToDo;
+import sora.ui.OutputHandler;
+
+public class CommandPipelineTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void submit_mixedCommands_messagesInInputOrderAndReadersSeeEarlierChangesOnly() {
+        List<String> shown = Collections.synchronizedList(new ArrayList<>());
+        OutputHandler output = new OutputHandler() {
+            @Override
+            public void show(String message) {
+                shown.add(message);
+            }
+
+            @Override
+            public void showError(String message) {
+                shown.add("error: " + message);
+            }
+        };
+        TaskManager taskManager = new TaskManager(new InMemoryStorageEngine(),
+                new ArchiveStore(this.tempDir.resolve("archive.txt"), 0));
+
+        List<String> expected = new ArrayList<>();
+        try (CommandPipeline pipeline = new CommandPipeline(output, taskManager, (command, manager, ui) -> {
+            if (command.isReadOnly()) {
+                Thread.yield(); // let later changes race ahead of the reader
+                ui.showError("read " + manager.getTaskCount());
+            } else {
+                manager.addTask(new ToDo("task"));
+                ui.showError("write " + manager.getTaskCount());
+            }
+        }, 4, 3)) {
+            int added = 0;
+            for (int i = 0; i < 200; i++) {
+                if (i % 3 == 0) {
+                    pipeline.submit("todo task " + i);
+                    added++;
+                    expected.add("error: write " + added);
+                } else {
+                    pipeline.submit(i % 3 == 1 ? "list" : "find task");
+                    expected.add("error: read " + added);
+                }
+            }
+        }
+
+        assertEquals(expected, shown);
+    }
+}
@@ -0,0 +1,114 @@
+package sora.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sora.parser.ParsedDateTime;
+import sora.storage.ArchiveStore;
+import sora.storage.InMemoryStorageEngine;
+import sora.task.Deadline;
+import sora.task.Event;
+import sora.task.Task;
+import sora.task.ToDo;
+
+public class DateIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    private TaskManager taskManager;
+
+    @BeforeEach
+    void setUp() {
+        this.taskManager = new TaskManager(new InMemoryStorageEngine(),
+                new ArchiveStore(this.tempDir.resolve("archive.txt"), 0));
+        this.taskManager.addTask(new ToDo("read book"));
+        this.taskManager.addTask(new Event("camp", ParsedDateTime.dateTimeParser("2026-03-01 09:00"),
+                ParsedDateTime.dateTimeParser("2026-03-04")));
+        this.taskManager.addTask(new Deadline("report", ParsedDateTime.dateTimeParser("2026-03-02 18:00")));
+        this.taskManager.addTask(new Deadline("essay", ParsedDateTime.dateTimeParser("2026-03-05")));
+    }
+
+    @Test
+    public void getTasksOn_eventSpanningDate_foundOnEveryDay() {
+        assertEquals(List.of(), names(this.taskManager.getTasksOn(LocalDate.of(2026, 2, 28))));
+        assertEquals(List.of("camp"), names(this.taskManager.getTasksOn(LocalDate.of(2026, 3, 1))));
+        assertEquals(List.of("camp", "report"), names(this.taskManager.getTasksOn(LocalDate.of(2026, 3, 2))));
+        assertEquals(List.of("camp"), names(this.taskManager.getTasksOn(LocalDate.of(2026, 3, 3))));
+        assertEquals(List.of("camp"), names(this.taskManager.getTasksOn(LocalDate.of(2026, 3, 4))));
+        assertEquals(List.of("essay"), names(this.taskManager.getTasksOn(LocalDate.of(2026, 3, 5))));
+    }
+
+    @Test
+    public void getTasksBetween_boundsInclusive() {
+        assertEquals(List.of("camp"), names(between("2026-02-20", "2026-03-01")));
+        assertEquals(List.of("camp", "essay"), names(between("2026-03-04", "2026-03-05")));
+        assertEquals(List.of("camp", "report"), names(between("2026-03-02", "2026-03-02")));
+        assertEquals(List.of("camp", "report", "essay"), names(between("2026-01-01", "2026-12-31")));
+        assertEquals(List.of(), names(between("2026-03-06", "2026-03-10")));
+    }
+
+    @Test
+    public void snapshot_laterChanges_notSeen() {
+        TaskManager snapshot = this.taskManager.snapshot();
+        this.taskManager.removeTask(1);
+        this.taskManager.addTask(new Deadline("slides", ParsedDateTime.dateTimeParser("2026-03-02")));
+
+        assertEquals(List.of("camp", "report"), names(snapshot.getTasksOn(LocalDate.of(2026, 3, 2))));
+        assertEquals(List.of("report", "slides"), names(this.taskManager.getTasksOn(LocalDate.of(2026, 3, 2))));
+        assertEquals(4, snapshot.getTaskCount());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.addTask(new ToDo("swim")));
+    }
+
+    @Test
+    public void getTasksOn_afterMark_showsUpdatedTask() {
+        this.taskManager.markTask(2);
+
+        List<Task> found = this.taskManager.getTasksOn(LocalDate.of(2026, 3, 2));
+
+        assertEquals(List.of("camp", "report"), names(found));
+        assertTrue(found.get(1).isDone());
+    }
+
+    @Test
+    public void getTasksOn_afterDelete_taskGone() {
+        this.taskManager.removeTask(1);
+
+        assertEquals(List.of(), names(this.taskManager.getTasksOn(LocalDate.of(2026, 3, 3))));
+        assertEquals(List.of("report"), names(this.taskManager.getTasksOn(LocalDate.of(2026, 3, 2))));
+    }
+
+    @Test
+    public void getTasksOn_afterArchiveAndRestore_taskFoundAgain() {
+        this.taskManager.markTask(2);
+        assertEquals(1, this.taskManager.archiveCompletedTasks(LocalDate.of(2026, 4, 1)));
+        assertEquals(List.of("camp"), names(this.taskManager.getTasksOn(LocalDate.of(2026, 3, 2))));
+
+        this.taskManager.restoreArchivedTask(0);
+
+        assertEquals(List.of("camp", "report"), names(this.taskManager.getTasksOn(LocalDate.of(2026, 3, 2))));
+        assertEquals(List.of("camp", "report"), names(between("2026-03-02", "2026-03-03")));
+    }
+
+    private List<Task> between(String from, String to) {
+        return this.taskManager.getTasksBetween(LocalDate.parse(from), LocalDate.parse(to));
+    }
+
+    private static List<String> names(List<Task> tasks) {
+        List<String> names = new ArrayList<>();
+        for (Task task : tasks) {
+            names.add(task.getName().trim());
+        }
+        return names;
+    }
+}
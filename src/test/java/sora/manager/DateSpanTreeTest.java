@@ -0,0 +1,69 @@
+package sora.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import sora.parser.DateInputType;
+import sora.parser.ParsedDateTime;
+import sora.task.Event;
+
+public class DateSpanTreeTest {
+
+    private static final LocalDate BASE = LocalDate.of(2026, 1, 1);
+
+    @Test
+    public void findOverlapping_randomEvents_matchesScan() {
+        Random random = new Random(20);
+        DateSpanTree tree = new DateSpanTree();
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            int start = random.nextInt(365);
+            Event event = new Event("event " + i, dateOf(start), dateOf(start + random.nextInt(10)));
+            event.setId(i + 1);
+            events.add(event);
+            tree.add(event.getId(), event.getStartDate().getEpochDay(), event.getEndDate().getEpochDay());
+        }
+        for (int i = 0; i < 100; i++) {
+            Event removed = events.remove(random.nextInt(events.size()));
+            tree.remove(removed.getId(), removed.getStartDate().getEpochDay());
+        }
+
+        for (int i = 0; i < 200; i++) {
+            LocalDate from = BASE.plusDays(random.nextInt(380));
+            LocalDate to = from.plusDays(random.nextInt(5));
+            Set<Long> expected = new HashSet<>();
+            for (Event event : events) {
+                if (!event.getStartDate().getDate().isAfter(to) && !event.getEndDate().getDate().isBefore(from)) {
+                    expected.add(event.getId());
+                }
+            }
+
+            List<Long> matches = new ArrayList<>();
+            tree.findOverlapping(from, to, matches);
+            assertEquals(expected.size(), matches.size());
+            assertEquals(expected, new HashSet<>(matches));
+        }
+    }
+
+    @Test
+    public void findActive_middleDayOfEvent_found() {
+        DateSpanTree tree = new DateSpanTree();
+        tree.add(7, BASE.plusDays(10).toEpochDay(), BASE.plusDays(12).toEpochDay());
+
+        List<Long> matches = new ArrayList<>();
+        tree.findActive(BASE.plusDays(11), matches);
+        assertEquals(List.of(7L), matches);
+    }
+
+    private static ParsedDateTime dateOf(int day) {
+        return new ParsedDateTime(BASE.plusDays(day).atStartOfDay(), DateInputType.DATE_ONLY);
+    }
+}
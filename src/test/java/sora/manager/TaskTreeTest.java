@@ -0,0 +1,238 @@
+package sora.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import sora.parser.ParsedDateTime;
+import sora.task.Deadline;
+import sora.task.Event;
+import sora.task.Task;
+import sora.task.ToDo;
+
+public class TaskTreeTest {
+
+    @Test
+    public void randomOperations_matchArrayList() {
+        Random random = new Random(17);
+        List<Task> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            expected.add(new ToDo("task " + i));
+        }
+        TaskTree tree = new TaskTree(expected);
+
+        for (int i = 0; i < 5000; i++) {
+            int size = expected.size();
+            switch (random.nextInt(4)) {
+            case 0, 1 -> {
+                int index = random.nextInt(size + 1);
+                Task task = new ToDo("added " + i);
+                expected.add(index, task);
+                tree.add(index, task);
+            }
+            case 2 -> {
+                if (size > 0) {
+                    int index = random.nextInt(size);
+                    assertEquals(expected.remove(index), tree.remove(index));
+                }
+            }
+            default -> {
+                if (size > 0) {
+                    int index = random.nextInt(size);
+                    assertEquals(expected.get(index), tree.get(index));
+                }
+            }
+            }
+        }
+
+        assertEquals(expected, tree);
+        List<Task> added = new ArrayList<>();
+        for (int i = 0; i < expected.size(); i++) {
+            added.add(new ToDo("bulk " + i));
+        }
+        tree.addAll(added);
+        expected.addAll(added);
+        assertEquals(expected, tree);
+    }
+
+    @Test
+    public void indexOfId_afterRemovals_matchesPosition() {
+        ToDo first = new ToDo("read book");
+        ToDo duplicate = new ToDo("return book");
+        first.setId(5);
+        duplicate.setId(5);
+        TaskTree tree = new TaskTree(List.of(first, new ToDo("buy milk"), duplicate));
+
+        assertEquals(6, tree.getById(6).getId());
+        assertEquals(7, duplicate.getId());
+        assertEquals(2, tree.takeAssignedIdCount());
+        assertEquals(0, tree.takeAssignedIdCount());
+
+        for (int i = 0; i < 1000; i++) {
+            tree.add(1, new ToDo("task " + i));
+        }
+        tree.remove(0);
+        assertEquals(1000, tree.indexOfId(6));
+        assertEquals(1001, tree.indexOf(duplicate));
+        assertEquals(-1, tree.indexOfId(5));
+        assertEquals(duplicate, tree.getById(7));
+    }
+
+    @Test
+    public void set_readDuringReplacement_keepsId() throws Exception {
+        TaskTree tree = new TaskTree(List.of(new ToDo("read book"), new ToDo("buy milk")));
+        long id = tree.get(1).getId();
+        tree.takeAssignedIdCount();
+        AtomicBoolean isWriting = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        Thread reader = new Thread(() -> {
+            while (isWriting.get() && failure.get() == null) {
+                if (tree.indexOfId(id) != 1 || tree.getById(id) == null) {
+                    failure.set("Task " + id + " was missing");
+                }
+            }
+        });
+        reader.start();
+        try {
+            for (int i = 0; i < 20000; i++) {
+                tree.set(1, tree.get(1).withStatus(i % 2 == 0));
+            }
+        } finally {
+            isWriting.set(false);
+            reader.join();
+        }
+
+        assertNull(failure.get());
+        assertEquals(id, tree.get(1).getId());
+        assertEquals(0, tree.takeAssignedIdCount());
+    }
+
+    @Test
+    public void set_taskWithOtherId_removesOldId() {
+        TaskTree tree = new TaskTree(List.of(new ToDo("read book")));
+        long id = tree.get(0).getId();
+
+        tree.set(0, new ToDo("buy milk"));
+
+        assertEquals(-1, tree.indexOfId(id));
+        assertNull(tree.getById(id));
+        assertEquals(0, tree.indexOfId(tree.get(0).getId()));
+    }
+
+    @Test
+    public void snapshot_laterChanges_notVisible() {
+        TaskTree tree = new TaskTree(List.of(new ToDo("read book"), new ToDo("buy milk")));
+        List<Task> snapshot = tree.snapshot();
+
+        Task added = new ToDo("return book");
+        tree.add(0, added);
+        Task removed = tree.remove(2);
+
+        assertEquals(2, snapshot.size());
+        assertEquals(removed, snapshot.get(1));
+        assertEquals(1, snapshot.indexOf(removed));
+        assertEquals(-1, snapshot.indexOf(added));
+        assertEquals(0, tree.indexOf(added));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(added));
+    }
+
+    @Test
+    public void columnar_randomOperations_matchArrayList() throws Exception {
+        Random random = new Random(23);
+        List<Task> expected = new ArrayList<>();
+        TaskTree tree = new TaskTree(List.of(), true);
+
+        for (int i = 0; i < 5000; i++) {
+            int size = expected.size();
+            switch (random.nextInt(4)) {
+            case 0, 1 -> {
+                int index = random.nextInt(size + 1);
+                Task task = switch (i % 3) {
+                case 0 -> new ToDo("täsk " + i);
+                case 1 -> new Deadline("return book " + i, ParsedDateTime.dateTimeParser("2026-03-0" + (i % 9 + 1)));
+                default -> new Event("camp " + i, ParsedDateTime.dateTimeParser("2026-03-01 09:00"),
+                        ParsedDateTime.dateTimeParser("2026-03-04"));
+                };
+                expected.add(index, task);
+                tree.add(index, task);
+            }
+            case 2 -> {
+                if (size > 0) {
+                    int index = random.nextInt(size);
+                    assertEquals(expected.remove(index).toStorageString(), tree.remove(index).toStorageString());
+                }
+            }
+            default -> {
+                if (size > 0) {
+                    int index = random.nextInt(size);
+                    Task marked = expected.get(index).withStatus(true);
+                    expected.set(index, marked);
+                    tree.set(index, marked);
+                }
+            }
+            }
+        }
+
+        assertEquals(expected.size(), tree.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Task task = expected.get(i);
+            assertEquals(task.toStorageString(), tree.get(i).toStorageString());
+            assertEquals(task.toString(), tree.getById(task.getId()).toString());
+            assertEquals(i, tree.indexOf(task));
+        }
+    }
+
+    @Test
+    public void columnar_snapshotReadDuringWrites_seesCompleteRows() throws Exception {
+        TaskTree tree = new TaskTree(List.of(), true);
+        tree.add(new Deadline("return book", ParsedDateTime.dateTimeParser("2026-03-01 09:00")));
+        AtomicBoolean isWriting = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        Thread reader = new Thread(() -> {
+            while (isWriting.get() && failure.get() == null) {
+                TaskTree snapshot = tree.snapshot();
+                for (int i = 0; i < snapshot.size(); i++) {
+                    String task = snapshot.get(i).toStorageString();
+                    if (!task.contains(i == 0 ? "return book" : "task " + i)) {
+                        failure.set(i + ": " + task);
+                    }
+                }
+            }
+        });
+        reader.start();
+        try {
+            for (int i = 1; i < 20000; i++) {
+                tree.add(i % 2 == 0
+                        ? new ToDo("task " + i)
+                        : new Event("task " + i, ParsedDateTime.dateTimeParser("2026-03-01 09:00"),
+                                ParsedDateTime.dateTimeParser("2026-03-04")));
+            }
+        } finally {
+            isWriting.set(false);
+            reader.join();
+        }
+
+        assertNull(failure.get());
+        assertEquals(20000, tree.size());
+    }
+
+    @Test
+    public void get_outOfBounds_throwsException() {
+        TaskTree tree = new TaskTree();
+        tree.add(new ToDo("read book"));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.remove(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.add(2, new ToDo("return book")));
+    }
+}
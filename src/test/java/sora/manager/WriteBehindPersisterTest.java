@@ -0,0 +1,136 @@
+package sora.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import sora.command.ExitCommand;
+import sora.exception.SaveFailedException;
+import sora.storage.InMemoryStorageEngine;
+import sora.storage.SaveReport;
+import sora.task.Task;
+import sora.task.ToDo;
+import sora.ui.OutputHandler;
+import sora.ui.Ui;
+
+public class WriteBehindPersisterTest {
+
+    private static final long NEVER_MS = 60_000;
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty(WriteBehindPersister.MODE_PROPERTY);
+        System.clearProperty(WriteBehindPersister.LATENCY_PROPERTY);
+    }
+
+    @Test
+    public void flush_manyChanges_savedOnceWithLatestList() {
+        List<Task> tasks = new ArrayList<>();
+        List<Integer> savedSizes = new ArrayList<>();
+        WriteBehindPersister persister = new WriteBehindPersister(() -> List.copyOf(tasks),
+                snapshot -> savedSizes.add(snapshot.size()), NEVER_MS, 1000);
+
+        for (int i = 0; i < 50; i++) {
+            tasks.add(new ToDo("task " + i));
+            persister.markDirty();
+        }
+        persister.flush();
+
+        assertEquals(List.of(50), savedSizes);
+        persister.close();
+    }
+
+    @Test
+    public void markDirty_batchFull_savedWithoutFlush() throws InterruptedException {
+        CountDownLatch saved = new CountDownLatch(1);
+        WriteBehindPersister persister = new WriteBehindPersister(List::of, snapshot -> saved.countDown(),
+                NEVER_MS, 5);
+
+        for (int i = 0; i < 5; i++) {
+            persister.markDirty();
+        }
+
+        assertTrue(saved.await(5, TimeUnit.SECONDS));
+        persister.close();
+    }
+
+    @Test
+    public void saverThrows_writerSurvivesAndFlushReportsFailure() {
+        AtomicInteger attempts = new AtomicInteger();
+        List<Integer> savedAttempts = new ArrayList<>();
+        WriteBehindPersister persister = new WriteBehindPersister(List::of, snapshot -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("disk full");
+            }
+            savedAttempts.add(attempts.get());
+        }, NEVER_MS, 1000);
+
+        persister.markDirty();
+        SaveFailedException failure = assertThrows(SaveFailedException.class, persister::flush);
+        assertTrue(failure.getMessage().contains("disk full"));
+        assertTrue(persister.hasPendingChanges());
+
+        persister.flush();
+        assertEquals(List.of(2), savedAttempts);
+        assertFalse(persister.hasPendingChanges());
+        persister.close();
+    }
+
+    @Test
+    public void exitCommand_pendingChanges_flushedBeforeExit() {
+        System.setProperty(WriteBehindPersister.MODE_PROPERTY, "async");
+        System.setProperty(WriteBehindPersister.LATENCY_PROPERTY, String.valueOf(NEVER_MS));
+        List<Integer> savedSizes = new ArrayList<>();
+        TaskManager taskManager = new TaskManager(new InMemoryStorageEngine() {
+            @Override
+            public SaveReport save(List<Task> tasks) {
+                savedSizes.add(tasks.size());
+                return super.save(tasks);
+            }
+        });
+
+        taskManager.addTask(new ToDo("read book"));
+        taskManager.addTask(new ToDo("return book"));
+        new ExitCommand().execute(taskManager, new Ui(new OutputHandler() {
+            @Override
+            public void show(String message) {
+            }
+
+            @Override
+            public void showError(String message) {
+            }
+        }));
+
+        assertEquals(List.of(2), savedSizes);
+    }
+
+    @Test
+    public void flush_storageSaveFails_reportsFailure() {
+        System.setProperty(WriteBehindPersister.MODE_PROPERTY, "async");
+        System.setProperty(WriteBehindPersister.LATENCY_PROPERTY, String.valueOf(NEVER_MS));
+        AtomicInteger attempts = new AtomicInteger();
+        TaskManager taskManager = new TaskManager(new InMemoryStorageEngine() {
+            @Override
+            public SaveReport save(List<Task> tasks) {
+                return attempts.incrementAndGet() == 1 ? null : super.save(tasks);
+            }
+        });
+
+        taskManager.addTask(new ToDo("read book"));
+        SaveFailedException failure = assertThrows(SaveFailedException.class, taskManager::flush);
+
+        assertTrue(failure.getMessage().contains("could not be written"));
+        taskManager.flush();
+        assertEquals(2, attempts.get());
+    }
+}
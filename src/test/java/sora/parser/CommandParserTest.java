@@ -6,6 +6,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
 
+import sora.command.BetweenCommand;
 import sora.command.Command;
 import sora.command.ExitCommand;
 import sora.command.ListCommand;
@@ -55,6 +56,18 @@ public class CommandParserTest {
         assertTrue(cmd instanceof DeleteCommand);
     }
 
+    @Test
+    public void parse_betweenCommand_validRangeSuccess() {
+        assertTrue(CommandParser.parse("between 2026-01-24 2026-01-30") instanceof BetweenCommand);
+        assertTrue(CommandParser.parse("between 2026-01-24 10:00 2026-01-30") instanceof BetweenCommand);
+    }
+
+    @Test
+    public void parse_betweenCommand_reversedRangeThrowsInvalidFormatException() {
+        assertThrows(InvalidFormatException.class, () -> CommandParser.parse("between 2026-01-30 2026-01-24"));
+        assertThrows(InvalidFormatException.class, () -> CommandParser.parse("between 2026-01-30"));
+    }
+
     @Test
     public void parse_onCommand_validTargetSuccess() {
         Command cmd = CommandParser.parse("on 2026-01-24");
@@ -0,0 +1,64 @@
+package sora.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+
+public class ParsedDateTimeTest {
+
+    @Test
+    public void dateTimeParser_dateOnly_keepsDateAndType() throws Exception {
+        ParsedDateTime date = ParsedDateTime.dateTimeParser("2026-02-16");
+
+        assertTrue(date.isDateOnly());
+        assertEquals(LocalDate.of(2026, 2, 16), date.getDate());
+        assertEquals(LocalDate.of(2026, 2, 16).toEpochDay(), date.getEpochDay());
+        assertEquals("2026-02-16", date.toStorageString());
+    }
+
+    @Test
+    public void ofEpochMinute_beforeEpoch_roundTrips() {
+        LocalDateTime dateTime = LocalDateTime.of(1969, 12, 31, 23, 59);
+        ParsedDateTime parsed = new ParsedDateTime(dateTime, DateInputType.DATETIME);
+        ParsedDateTime copy = ParsedDateTime.ofEpochMinute(parsed.toEpochMinute(), DateInputType.DATETIME);
+
+        assertFalse(copy.isDateOnly());
+        assertEquals(-1, copy.toEpochMinute());
+        assertEquals(dateTime, copy.getDateTime());
+        assertEquals(-1, copy.getEpochDay());
+    }
+
+    @Test
+    public void ofEpochMinute_outsideLocalDateTimeRange_throws() {
+        long maxEpochMinute = LocalDateTime.MAX.toEpochSecond(ZoneOffset.UTC) / 60;
+        assertEquals(LocalDateTime.MAX.withSecond(0).withNano(0),
+                ParsedDateTime.ofEpochMinute(maxEpochMinute, DateInputType.DATETIME).getDateTime());
+
+        assertThrows(DateTimeException.class,
+                () -> ParsedDateTime.ofEpochMinute(maxEpochMinute + 1, DateInputType.DATETIME));
+        assertThrows(DateTimeException.class,
+                () -> ParsedDateTime.ofEpochMinute(Long.MAX_VALUE / 4, DateInputType.DATETIME));
+        assertThrows(DateTimeException.class,
+                () -> ParsedDateTime.ofEpochMinute(Long.MIN_VALUE, DateInputType.DATE_ONLY));
+    }
+
+    @Test
+    public void compareTo_sameMinuteDifferentType_equal() throws Exception {
+        ParsedDateTime date = ParsedDateTime.dateTimeParser("2026-02-16");
+        ParsedDateTime midnight = ParsedDateTime.dateTimeParser("2026-02-16 00:00");
+        ParsedDateTime later = ParsedDateTime.dateTimeParser("2026-02-16 09:30");
+
+        assertEquals(0, date.compareTo(midnight));
+        assertTrue(date.compareTo(later) < 0);
+        assertTrue(ParsedDateTime.isValidStartEnd(date, later));
+        assertFalse(ParsedDateTime.isValidStartEnd(later, date));
+    }
+}
@@ -0,0 +1,117 @@
+package sora.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sora.exception.InvalidFormatException;
+import sora.manager.TaskManager;
+import sora.parser.ParsedDateTime;
+import sora.task.Deadline;
+import sora.task.Task;
+import sora.task.ToDo;
+import sora.ui.OutputHandler;
+
+public class ArchiveStoreTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 1);
+
+    @TempDir
+    Path tempDir;
+
+    private static final OutputHandler SILENT_OUTPUT = new OutputHandler() {
+        @Override
+        public void show(String message) {
+        }
+
+        @Override
+        public void showError(String message) {
+        }
+    };
+
+    private ArchiveStore archive;
+
+    @BeforeEach
+    void setUp() {
+        this.archive = new ArchiveStore(this.tempDir.resolve("archive.txt"), 30);
+    }
+
+    @Test
+    public void isDue_onlyOldCompletedDatedTasks() {
+        Deadline old = new Deadline("old report", ParsedDateTime.dateTimeParser("2026-01-01"));
+        Deadline recent = new Deadline("new report", ParsedDateTime.dateTimeParser("2026-02-20"));
+        ToDo todo = new ToDo("read book");
+
+        assertFalse(this.archive.isDue(old, TODAY));
+        old.markAsDone();
+        recent.markAsDone();
+        todo.markAsDone();
+
+        assertTrue(this.archive.isDue(old, TODAY));
+        assertFalse(this.archive.isDue(recent, TODAY));
+        assertFalse(this.archive.isDue(todo, TODAY));
+    }
+
+    @Test
+    public void getThenRemove_removesEntryFromArchive() throws IOException {
+        this.archive.append(List.of(new ToDo("read book"), new ToDo("swim"), new ToDo("read news")));
+
+        ArrayList<ArchiveEntry> matches = this.archive.search("READ");
+        Task restored = this.archive.get(3);
+        assertEquals(3, Files.readAllLines(this.tempDir.resolve("archive.txt")).size());
+        this.archive.remove(3);
+
+        assertEquals(2, matches.size());
+        assertEquals(3, matches.get(1).getEntryNo());
+        assertEquals("[T][ ] read news", restored.toString());
+        assertEquals(2, Files.readAllLines(this.tempDir.resolve("archive.txt")).size());
+        assertThrows(InvalidFormatException.class, () -> this.archive.get(3));
+        assertThrows(InvalidFormatException.class, () -> this.archive.remove(3));
+    }
+
+    @Test
+    public void archiveCompletedTasks_coldSegment_archivedWithoutLoading() throws IOException {
+        Path dataFile = this.tempDir.resolve("sora.txt");
+        Files.write(dataFile, List.of(
+                "T | 0 | read book",
+                "D | 1 | old report | 2025-11-03 11:00",
+                "D | 0 | old plan | 2025-11-20"));
+
+        TaskManager taskManager = new TaskManager(
+                new PartitionedStorageEngine(dataFile, SILENT_OUTPUT, YearMonth.of(2026, 2)), this.archive);
+
+        assertEquals(1, taskManager.getTaskCount());
+        assertEquals(1, this.archive.search("old report").size());
+        List<String> coldSegment = Files.readAllLines(this.tempDir.resolve("partitions").resolve("2025-11.txt"));
+        assertEquals(1, coldSegment.size());
+        assertTrue(coldSegment.get(0).contains("old plan"));
+    }
+
+    @Test
+    public void restoreArchivedTask_savedBeforeRemovedFromArchive() throws IOException {
+        Path dataFile = this.tempDir.resolve("sora.txt");
+        this.archive.append(List.of(new ToDo("read book"), new ToDo("swim")));
+        TaskManager taskManager = new TaskManager(new Storage(dataFile, SILENT_OUTPUT, StorageMode.TEXT),
+                this.archive);
+
+        Task restored = taskManager.restoreArchivedTask(1);
+
+        assertEquals("[T][ ] swim", restored.toString());
+        assertEquals(List.of("[T][ ] swim"), new Storage(dataFile, SILENT_OUTPUT, StorageMode.TEXT).load()
+                .stream().map(Task::toString).toList());
+        assertEquals(1, Files.readAllLines(this.tempDir.resolve("archive.txt")).size());
+    }
+}
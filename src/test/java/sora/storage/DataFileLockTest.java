@@ -0,0 +1,94 @@
+package sora.storage;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DataFileLockTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void runExclusive_heldByAnotherThread_timesOut() throws Exception {
+        DataFileLock lock = DataFileLock.forDataFile(this.tempDir.resolve("sora.txt"));
+        CountDownLatch isHeld = new CountDownLatch(1);
+        CountDownLatch isDone = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            try {
+                lock.runExclusive(() -> {
+                    isHeld.countDown();
+                    try {
+                        isDone.await();
+                    } catch (InterruptedException interruptedException) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (IOException ioException) {
+                isHeld.countDown();
+            }
+        });
+        holder.start();
+        isHeld.await();
+
+        String previous = System.setProperty(DataFileLock.TIMEOUT_PROPERTY, "50");
+        try {
+            assertThrows(DataFileLock.LockTimeoutException.class, () -> lock.runShared(() -> { }));
+        } finally {
+            if (previous == null) {
+                System.clearProperty(DataFileLock.TIMEOUT_PROPERTY);
+            } else {
+                System.setProperty(DataFileLock.TIMEOUT_PROPERTY, previous);
+            }
+            isDone.countDown();
+            holder.join();
+        }
+
+        assertTrue(lock.callExclusive(() -> lock.callShared(() ->
+                Files.exists(this.tempDir.resolve("sora.txt.lock")))));
+    }
+
+    @Test
+    public void runExclusive_holdingShared_refusedAndSharedKept() throws Exception {
+        DataFileLock lock = DataFileLock.forDataFile(this.tempDir.resolve("sora.txt"));
+        boolean[] isWriterLocked = new boolean[1];
+
+        lock.runShared(() -> {
+            assertThrows(IllegalStateException.class, () -> lock.runExclusive(() -> { }));
+            Thread writer = new Thread(() -> isWriterLocked[0] = tryExclusive(lock));
+            writer.start();
+            try {
+                writer.join();
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertFalse(isWriterLocked[0]);
+        assertTrue(tryExclusive(lock));
+    }
+
+    private static boolean tryExclusive(DataFileLock lock) {
+        String previous = System.setProperty(DataFileLock.TIMEOUT_PROPERTY, "50");
+        try {
+            lock.runExclusive(() -> { });
+            return true;
+        } catch (IOException ioException) {
+            return false;
+        } finally {
+            if (previous == null) {
+                System.clearProperty(DataFileLock.TIMEOUT_PROPERTY);
+            } else {
+                System.setProperty(DataFileLock.TIMEOUT_PROPERTY, previous);
+            }
+        }
+    }
+}
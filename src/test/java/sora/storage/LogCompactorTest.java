@@ -0,0 +1,132 @@
+package sora.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sora.task.Task;
+import sora.task.ToDo;
+import sora.ui.OutputHandler;
+
+public class LogCompactorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final OutputHandler silentOutput = new OutputHandler() {
+        @Override
+        public void show(String message) {
+        }
+
+        @Override
+        public void showError(String message) {
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty(LogCompactor.RECORDS_PROPERTY);
+    }
+
+    @Test
+    public void shouldCompact_recordCountOrRatioReached_true() {
+        LogCompactor compactor = new LogCompactor(100, 0.5);
+
+        assertTrue(compactor.shouldCompact(100, 10_000));
+        assertFalse(compactor.shouldCompact(99, 10_000));
+        assertTrue(compactor.shouldCompact(70, 100));
+        assertFalse(compactor.shouldCompact(40, 10), "too few records for the ratio to count");
+    }
+
+    @Test
+    public void shouldCompact_compactionRunning_false() throws Exception {
+        LogCompactor compactor = new LogCompactor(1, 0.5);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        compactor.submit(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+            }
+        }, () -> { });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertFalse(compactor.shouldCompact(100, 0));
+        release.countDown();
+        compactor.awaitIdle();
+        assertTrue(compactor.shouldCompact(100, 0));
+    }
+
+    @Test
+    public void load_pendingNextFile_replacesDataFileWithoutReplayingSealed() throws IOException {
+        Path dataFile = this.tempDir.resolve("sora.txt");
+        Files.write(dataFile, List.of("T | 0 | old"));
+        Files.write(this.tempDir.resolve("sora.txt.next"), List.of("T | 0 | old", "T | 0 | sealed"));
+        Files.write(this.tempDir.resolve("sora.txt.log.sealed"), List.of("ADD T | 0 | sealed"));
+        Files.write(this.tempDir.resolve("sora.txt.log"), List.of("ADD T | 0 | active"));
+
+        List<Task> tasks = new Storage(dataFile, this.silentOutput, StorageMode.LOG).load();
+
+        assertEquals(List.of("[T][ ] old", "[T][ ] sealed", "[T][ ] active"), names(tasks));
+        assertFalse(Files.exists(this.tempDir.resolve("sora.txt.next")));
+        assertFalse(Files.exists(this.tempDir.resolve("sora.txt.log.sealed")));
+        assertEquals(2, Files.readAllLines(dataFile).size());
+    }
+
+    @Test
+    public void load_sealedSegmentWithoutNextFile_replaysBothSegments() throws IOException {
+        Path dataFile = this.tempDir.resolve("sora.txt");
+        Files.write(dataFile, List.of("T | 0 | old"));
+        Files.write(this.tempDir.resolve("sora.txt.log.sealed"), List.of("ADD T | 0 | sealed", "MARK 0"));
+        Files.write(this.tempDir.resolve("sora.txt.log"), List.of("ADD T | 0 | active"));
+
+        List<Task> tasks = new Storage(dataFile, this.silentOutput, StorageMode.LOG).load();
+
+        assertEquals(List.of("[T][X] old", "[T][ ] sealed", "[T][ ] active"), names(tasks));
+    }
+
+    @Test
+    public void append_duringBackgroundCompaction_noChangeLost() {
+        System.setProperty(LogCompactor.RECORDS_PROPERTY, "8");
+        Path dataFile = this.tempDir.resolve("sora.txt");
+        Storage storage = new Storage(dataFile, this.silentOutput, StorageMode.LOG);
+        ArrayList<Task> tasks = new ArrayList<>();
+
+        for (int i = 0; i < 300; i++) {
+            tasks.add(new ToDo("task " + i));
+            storage.append(tasks, tasks.get(i));
+            if (i % 7 == 0) {
+                tasks.get(i / 2).markAsDone();
+                storage.update(tasks, i / 2);
+            }
+        }
+        storage.flush();
+
+        assertTrue(Files.exists(dataFile), "the log should have been compacted at least once");
+        List<Task> loaded = new Storage(dataFile, this.silentOutput, StorageMode.LOG).load();
+        assertEquals(names(tasks), names(loaded));
+    }
+
+    private static List<String> names(List<Task> tasks) {
+        List<String> names = new ArrayList<>();
+        for (Task task : tasks) {
+            names.add(task.toString());
+        }
+        return names;
+    }
+}
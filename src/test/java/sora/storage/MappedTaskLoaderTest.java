@@ -0,0 +1,97 @@
+package sora.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sora.exception.SoraException;
+import sora.task.Task;
+
+public class MappedTaskLoaderTest {
+
+    private static final String[] SAMPLE_LINES = {
+        "T | 0 | read book | #1",
+        "D | 1 | return book | 2026-02-16 | #+2",
+        "E | 0 | camp | 2026-03-01 09:00 | 2026-03-04 | #003",
+        "X | 0 | unknown type",
+        "D | 0 | no date",
+        "T | 2 | bad status",
+        "E | 1 | trip | 2026-02-30 | 2026-03-01",
+        "T | 0 | bad id | #-4",
+        "T | 0 |  spaced name  ",
+    };
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void load_manyChunks_matchesLoadTask() throws IOException {
+        StringBuilder content = new StringBuilder();
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            String line = SAMPLE_LINES[i % SAMPLE_LINES.length];
+            lines.add(line);
+            content.append(line).append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(content.toString().getBytes(StandardCharsets.UTF_8));
+
+        List<String> expectedTasks = new ArrayList<>();
+        List<Integer> expectedLines = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            try {
+                expectedTasks.add(Storage.saveTask(Storage.loadTask(lines.get(i))));
+            } catch (SoraException soraException) {
+                expectedLines.add(i + 1);
+            }
+        }
+
+        for (int chunkCount : new int[] {1, 3, 7, 64}) {
+            ArrayList<Task> tasks = new ArrayList<>();
+            CorruptionReport report = new CorruptionReport(false);
+            MappedTaskLoader.parseInParallel(buffer, chunkCount, tasks, report);
+
+            assertEquals(expectedTasks, storageLines(tasks), "chunks: " + chunkCount);
+            assertEquals(expectedLines.subList(0, report.getLineNumbers().size()), report.getLineNumbers());
+            assertEquals(expectedLines.size(), report.getTotal());
+        }
+
+        Path dataFile = this.tempDir.resolve("sora.txt");
+        Files.writeString(dataFile, content);
+        ArrayList<Task> tasks = new ArrayList<>();
+        CorruptionReport report = new CorruptionReport(false);
+        MappedTaskLoader.load(dataFile, tasks, report);
+        assertEquals(expectedTasks, storageLines(tasks));
+        assertEquals(expectedLines.size(), report.getTotal());
+    }
+
+    @Test
+    public void parseLines_signedId_sameAsLoadTask() throws Exception {
+        byte[] bytes = "T | 0 | read book | #+12\nT | 0 | swim | #+\n".getBytes(StandardCharsets.UTF_8);
+        ArrayList<Task> tasks = new ArrayList<>();
+        CorruptionReport report = new CorruptionReport(false);
+
+        MappedTaskLoader.parseLines(ByteBuffer.wrap(bytes), 0, bytes.length, 0, tasks, report);
+
+        assertEquals(1, tasks.size());
+        assertEquals(12, tasks.get(0).getId());
+        assertEquals(Storage.loadTask("T | 0 | read book | #+12").getId(), tasks.get(0).getId());
+        assertEquals(List.of(2), report.getLineNumbers());
+    }
+
+    private static List<String> storageLines(List<Task> tasks) {
+        List<String> lines = new ArrayList<>();
+        for (Task task : tasks) {
+            lines.add(Storage.saveTask(task));
+        }
+        return lines;
+    }
+}
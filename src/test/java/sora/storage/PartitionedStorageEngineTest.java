@@ -0,0 +1,153 @@
+package sora.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sora.parser.ParsedDateTime;
+import sora.task.Deadline;
+import sora.task.Task;
+import sora.task.ToDo;
+import sora.ui.OutputHandler;
+
+public class PartitionedStorageEngineTest {
+
+    private static final YearMonth HOT_FROM = YearMonth.of(2026, 2);
+
+    @TempDir
+    Path tempDir;
+
+    private Path dataFile;
+    private OutputHandler output;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        this.dataFile = this.tempDir.resolve("sora.txt");
+        this.output = new OutputHandler() {
+            @Override
+            public void show(String message) {
+            }
+
+            @Override
+            public void showError(String message) {
+            }
+        };
+
+        Files.write(this.dataFile, Arrays.asList(
+                "T | 0 | read book",
+                "D | 1 |  old report | 2025-11-03 11:00",
+                "D | 0 |  new report | 2026-02-16 11:00"
+        ));
+    }
+
+    @Test
+    public void load_onlyHotSegmentsLoaded() {
+        PartitionedStorageEngine engine = new PartitionedStorageEngine(this.dataFile, this.output, HOT_FROM);
+
+        ArrayList<Task> tasks = engine.load();
+
+        assertEquals(2, tasks.size());
+        assertTrue(Files.exists(this.tempDir.resolve("partitions").resolve("2025-11.txt")));
+        assertEquals(1, engine.loadCold(LocalDate.of(2025, 1, 1)).size());
+        assertTrue(engine.loadCold(null).isEmpty());
+    }
+
+    @Test
+    public void remove_lastTaskOfSegment_segmentDeleted() {
+        PartitionedStorageEngine engine = new PartitionedStorageEngine(this.dataFile, this.output, HOT_FROM);
+        ArrayList<Task> tasks = engine.load();
+        Task newTask = new Deadline("old plan", ParsedDateTime.dateTimeParser("2025-11-20"));
+        assertTrue(engine.isCold(newTask));
+
+        tasks.addAll(engine.loadCold(null));
+        tasks.add(newTask);
+        engine.append(tasks, newTask);
+        tasks.remove(2);
+        engine.remove(tasks, 2);
+        tasks.remove(2);
+        engine.remove(tasks, 2);
+
+        assertFalse(Files.exists(this.tempDir.resolve("partitions").resolve("2025-11.txt")));
+        assertEquals(2, new PartitionedStorageEngine(this.dataFile, this.output, YearMonth.of(2000, 1))
+                .load().size());
+    }
+
+    @Test
+    public void load_afterRestart_keepsOrderAcrossSegments() {
+        YearMonth allHot = YearMonth.of(2000, 1);
+        PartitionedStorageEngine engine = new PartitionedStorageEngine(this.dataFile, this.output, allHot);
+        ArrayList<Task> tasks = engine.load();
+        Task newTask = new ToDo("water plants");
+        newTask.setId(4);
+        tasks.add(newTask);
+        engine.append(tasks, newTask);
+
+        ArrayList<Task> reloaded = new PartitionedStorageEngine(this.dataFile, this.output, allHot).load();
+
+        assertEquals(names(tasks), names(reloaded));
+        assertEquals(List.of("read book", "old report", "new report", "water plants"), names(reloaded));
+    }
+
+    @Test
+    public void update_completedToDo_movedToColdSegmentAfterRestart() {
+        PartitionedStorageEngine engine = new PartitionedStorageEngine(this.dataFile, this.output, HOT_FROM);
+        ArrayList<Task> tasks = engine.load();
+        assertFalse(engine.hasColdTasks(LocalDate.of(2026, 1, 1)));
+        assertTrue(engine.hasColdTasks(null));
+
+        tasks.set(0, tasks.get(0).withStatus(true));
+        engine.update(tasks, 0);
+        assertFalse(engine.isCold(tasks.get(0)));
+
+        PartitionedStorageEngine reopened = new PartitionedStorageEngine(this.dataFile, this.output, HOT_FROM);
+        assertEquals(List.of("new report"), names(reopened.load()));
+        assertTrue(Files.exists(this.tempDir.resolve("partitions").resolve("done.txt")));
+        assertFalse(reopened.hasColdTasks(LocalDate.of(2026, 1, 1)));
+        assertTrue(reopened.hasColdTasks(null));
+
+        ArrayList<Task> cold = reopened.loadCold(null);
+        assertEquals(List.of("read book", "old report"), names(cold));
+        assertTrue(cold.get(0).isDone());
+        assertFalse(reopened.hasColdTasks(null));
+    }
+
+    @Test
+    public void update_reopenedToDo_movedBackToUndatedSegment() {
+        PartitionedStorageEngine engine = new PartitionedStorageEngine(this.dataFile, this.output, HOT_FROM);
+        ArrayList<Task> tasks = engine.load();
+        tasks.set(0, tasks.get(0).withStatus(true));
+        engine.update(tasks, 0);
+
+        engine = new PartitionedStorageEngine(this.dataFile, this.output, HOT_FROM);
+        tasks = engine.load();
+        tasks.addAll(engine.loadCold(null));
+        int index = names(tasks).indexOf("read book");
+        tasks.set(index, tasks.get(index).withStatus(false));
+        engine.update(tasks, index);
+
+        assertFalse(Files.exists(this.tempDir.resolve("partitions").resolve("done.txt")));
+        assertEquals(List.of("read book", "new report"),
+                names(new PartitionedStorageEngine(this.dataFile, this.output, HOT_FROM).load()));
+    }
+
+    private static List<String> names(List<Task> tasks) {
+        List<String> names = new ArrayList<>();
+        for (Task task : tasks) {
+            names.add(task.getName().trim());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,150 @@
+package sora.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sora.manager.TaskManager;
+import sora.parser.ParsedDateTime;
+import sora.task.Deadline;
+import sora.task.Event;
+import sora.task.Task;
+import sora.task.ToDo;
+import sora.ui.OutputHandler;
+
+public class StorageEngineTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final OutputHandler silentOutput = new OutputHandler() {
+        @Override
+        public void show(String message) {
+        }
+
+        @Override
+        public void showError(String message) {
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty(StorageMode.MODE_PROPERTY);
+    }
+
+    @Test
+    public void fromSystemProperty_eachMode_selectsMode() {
+        for (StorageMode mode : StorageMode.values()) {
+            System.setProperty(StorageMode.MODE_PROPERTY, " " + mode.getKeyword().toUpperCase() + " ");
+            assertEquals(mode, StorageMode.fromSystemProperty());
+        }
+
+        System.setProperty(StorageMode.MODE_PROPERTY, "tape");
+        assertEquals(StorageMode.TEXT, StorageMode.fromSystemProperty());
+        System.clearProperty(StorageMode.MODE_PROPERTY);
+        assertEquals(StorageMode.TEXT, StorageMode.fromSystemProperty());
+    }
+
+    @Test
+    public void create_eachMode_selectsEngineAndRoundTrips() throws IOException {
+        for (StorageMode mode : StorageMode.values()) {
+            Path dataFile = this.tempDir.resolve(mode.getKeyword()).resolve("sora.txt");
+            StorageEngine engine = StorageEngine.create(dataFile, this.silentOutput, mode);
+            Class<?> expectedEngine = switch (mode) {
+            case MEMORY -> InMemoryStorageEngine.class;
+            case PARTITIONED -> PartitionedStorageEngine.class;
+            default -> Storage.class;
+            };
+            assertEquals(expectedEngine, engine.getClass(), mode.getKeyword());
+
+            List<Task> tasks = sampleTasks();
+            engine.load();
+            engine.save(tasks);
+            engine.flush();
+
+            StorageEngine reopened = StorageEngine.create(dataFile, this.silentOutput, mode);
+            List<Task> loaded = reopened.load();
+            loaded.addAll(reopened.loadCold(null));
+            if (mode == StorageMode.MEMORY) {
+                assertTrue(loaded.isEmpty());
+                assertFalse(Files.exists(dataFile));
+                continue;
+            }
+            assertEquals(storageLines(tasks), storageLines(loaded), mode.getKeyword());
+        }
+
+        assertTrue(BinaryTaskCodec.isBinary(this.tempDir.resolve("binary").resolve("sora.txt")));
+        assertTrue(BlockCompression.isCompressed(this.tempDir.resolve("compressed").resolve("sora.txt")));
+    }
+
+    @Test
+    public void taskManager_highestIdRemoved_idNotReusedAfterRestart() {
+        Path dataFile = this.tempDir.resolve("sora.txt");
+        TaskManager taskManager = new TaskManager(new Storage(dataFile, this.silentOutput, StorageMode.TEXT));
+        taskManager.addTask(new ToDo("read book"));
+        taskManager.addTask(new ToDo("swim"));
+        taskManager.removeTask(1);
+
+        TaskManager restarted = new TaskManager(new Storage(dataFile, this.silentOutput, StorageMode.TEXT));
+        Task added = new ToDo("run");
+        restarted.addTask(added);
+
+        assertEquals(3, added.getId());
+        assertEquals(1, restarted.getTask(0).getId());
+    }
+
+    @Test
+    public void taskManager_coldSegmentIds_notGivenToNewTasks() throws IOException {
+        Path dataFile = this.tempDir.resolve("sora.txt");
+        Files.write(dataFile, List.of("T | 0 | read book | #1", "D | 0 | old report | 2025-11-03 | #5"));
+        YearMonth hotFrom = YearMonth.of(2026, 2);
+        TaskManager taskManager = new TaskManager(new PartitionedStorageEngine(dataFile, this.silentOutput, hotFrom));
+        assertEquals(1, taskManager.getTaskCount());
+
+        Task added = new ToDo("swim");
+        taskManager.addTask(added);
+        taskManager.loadAllTasks();
+
+        assertEquals(6, added.getId());
+        assertEquals(5, taskManager.getTask(2).getId());
+        taskManager.removeTask(1);
+
+        TaskManager restarted = new TaskManager(new PartitionedStorageEngine(dataFile, this.silentOutput, hotFrom));
+        Task addedAfterRestart = new ToDo("run");
+        restarted.addTask(addedAfterRestart);
+        assertEquals(7, addedAfterRestart.getId());
+    }
+
+    private static List<Task> sampleTasks() {
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(new ToDo("read book"));
+        Task deadline = new Deadline("return book", ParsedDateTime.dateTimeParser("2026-02-16 18:00"));
+        deadline.markAsDone();
+        tasks.add(deadline);
+        tasks.add(new Event("camp", ParsedDateTime.dateTimeParser("2026-03-01"),
+                ParsedDateTime.dateTimeParser("2026-03-04")));
+        for (int i = 0; i < tasks.size(); i++) {
+            tasks.get(i).setId(i + 1);
+        }
+        return tasks;
+    }
+
+    private static List<String> storageLines(List<Task> tasks) {
+        List<String> lines = new ArrayList<>();
+        for (Task task : tasks) {
+            lines.add(Storage.saveTask(task));
+        }
+        return lines;
+    }
+}
@@ -3,6 +3,7 @@ package sora.storage;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -11,8 +12,11 @@ import java.io.IOException;
 import java.lang.reflect.Field;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -35,10 +39,12 @@ public class StorageTest {
 
     private static class FakeOutputHandler implements OutputHandler {
         private String lastMessage;
+        private int messageCount;
 
         @Override
         public void show(String message) throws InvalidFormatException {
             this.lastMessage = message;
+            this.messageCount++;
         }
 
         @Override
@@ -105,6 +111,23 @@ public class StorageTest {
         assertNotNull(fakeOutput.lastMessage);
     }
 
+    @Test
+    public void load_manyCorruptedLines_reportedOnce() throws IOException {
+        ArrayList<String> lines = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            lines.add("T | 0 | read book");
+            lines.add("INVALID LINE");
+        }
+        Files.write(this.testFile, lines);
+
+        ArrayList<Task> tasks = new Storage(this.testFile, fakeOutput, StorageMode.TEXT).load();
+
+        assertEquals(50, tasks.size());
+        assertEquals(1, fakeOutput.messageCount);
+        assertTrue(fakeOutput.lastMessage.contains("skipped 50 corrupted tasks"));
+        assertTrue(fakeOutput.lastMessage.contains("First lines: 2, 4, 6"));
+    }
+
     @Test
     public void save_nullTaskList_throwException() {
         assertThrows(IllegalArgumentException.class, ()
@@ -257,4 +280,239 @@ public class StorageTest {
         assertEquals(500, tasks.size());
     }
 
+    @Test
+    public void logMode_changesReplayedOnLoad() {
+        Storage logStorage = new Storage(this.testFile, this.fakeOutput, StorageMode.LOG);
+        ArrayList<Task> tasks = new ArrayList<>();
+
+        tasks.add(new ToDo("read book"));
+        logStorage.append(tasks, tasks.get(0));
+        tasks.add(new ToDo("swim"));
+        logStorage.append(tasks, tasks.get(1));
+        tasks.get(1).markAsDone();
+        logStorage.update(tasks, 1);
+        tasks.remove(0);
+        logStorage.remove(tasks, 0);
+
+        assertFalse(Files.exists(this.testFile));
+
+        ArrayList<Task> loadTasks = logStorage.load();
+
+        assertEquals(1, loadTasks.size());
+        assertEquals("[T][X] swim", loadTasks.get(0).toString());
+    }
+
+    @Test
+    public void logMode_fsyncDurability_recordsReplayed() throws IOException {
+        Storage syncStorage = new Storage(this.testFile, this.fakeOutput, StorageMode.LOG, Durability.FSYNC);
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new ToDo("read book"));
+        syncStorage.append(tasks, tasks.get(0));
+        tasks.get(0).markAsDone();
+        syncStorage.update(tasks, 0);
+
+        assertEquals(2, Files.readAllLines(this.tempDir.resolve("sora.txt.log")).size());
+        ArrayList<Task> loadTasks = new Storage(this.testFile, this.fakeOutput, StorageMode.LOG).load();
+        assertEquals("[T][X] read book", loadTasks.get(0).toString());
+    }
+
+    @Test
+    public void logMode_saveFoldsLogIntoDataFile() throws IOException {
+        Storage logStorage = new Storage(this.testFile, this.fakeOutput, StorageMode.LOG);
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new ToDo("read book"));
+        logStorage.append(tasks, tasks.get(0));
+
+        logStorage.save(tasks);
+
+        assertEquals(1, Files.readAllLines(this.testFile).size());
+        assertEquals(1, logStorage.load().size());
+    }
+
+    @Test
+    public void binaryMode_saveThenLoad_tasksRemainSame() throws IOException {
+        Storage binaryStorage = new Storage(this.testFile, this.fakeOutput, StorageMode.BINARY);
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new ToDo("read book"));
+        Deadline deadline = new Deadline("submit report",
+                sora.parser.ParsedDateTime.dateTimeParser("2026-02-16 11:00"));
+        deadline.markAsDone();
+        tasks.add(deadline);
+
+        binaryStorage.save(tasks);
+        ArrayList<Task> loadTasks = binaryStorage.load();
+
+        assertTrue(BinaryTaskCodec.isBinary(this.testFile));
+        assertEquals(tasks.size(), loadTasks.size());
+        assertEquals(tasks.get(1).toString(), loadTasks.get(1).toString());
+    }
+
+    @Test
+    public void binaryMode_corruptedNameLength_recordReportedAsCorrupted() throws IOException {
+        Storage binaryStorage = new Storage(this.testFile, this.fakeOutput, StorageMode.BINARY);
+        binaryStorage.save(List.of(new ToDo("read book"), new ToDo("swim")));
+        byte[] bytes = Files.readAllBytes(this.testFile);
+        int secondLength = bytes.length - "swim".length() - Integer.BYTES;
+        bytes[secondLength] = 0x7f;
+        Files.write(this.testFile, bytes);
+
+        ArrayList<Task> loadTasks = binaryStorage.load();
+
+        assertEquals(1, loadTasks.size());
+        assertTrue(this.fakeOutput.lastMessage.contains("1 x Oops! Invalid task name"), this.fakeOutput.lastMessage);
+    }
+
+    @Test
+    public void binaryMode_corruptedDate_recordReportedAsCorrupted() throws IOException {
+        Storage binaryStorage = new Storage(this.testFile, this.fakeOutput, StorageMode.BINARY);
+        binaryStorage.save(List.of(new ToDo("read book"),
+                new Deadline("report", sora.parser.ParsedDateTime.dateTimeParser("2026-02-16"))));
+        byte[] bytes = Files.readAllBytes(this.testFile);
+        int dateStart = bytes.length - "report".length() - Integer.BYTES - Long.BYTES;
+        bytes[dateStart] = 0x3f;
+        Files.write(this.testFile, bytes);
+
+        ArrayList<Task> loadTasks = binaryStorage.load();
+
+        assertEquals(1, loadTasks.size());
+        assertTrue(this.fakeOutput.lastMessage.contains("1 x Oops! This is an invalid date"),
+                this.fakeOutput.lastMessage);
+    }
+
+    @Test
+    public void saveThenLoad_taskIds_keptInEveryFormat() {
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new ToDo("read book"));
+        tasks.add(new Deadline("submit report", sora.parser.ParsedDateTime.dateTimeParser("2026-02-16")));
+        tasks.get(0).setId(7);
+        tasks.get(1).setId(Long.MAX_VALUE);
+
+        for (StorageMode mode : List.of(StorageMode.TEXT, StorageMode.BINARY, StorageMode.INDEXED)) {
+            Storage modeStorage = new Storage(this.testFile, this.fakeOutput, mode);
+            modeStorage.save(tasks);
+            ArrayList<Task> loadTasks = modeStorage.load();
+
+            assertEquals(7, loadTasks.get(0).getId());
+            assertEquals(Long.MAX_VALUE, loadTasks.get(1).getId());
+        }
+        assertEquals("T | 0 |  read book | #7", Storage.saveTask(tasks.get(0)));
+    }
+
+    @Test
+    public void load_binaryFileInTextMode_formatDetected() throws IOException {
+        Path textFile = this.tempDir.resolve("source.txt");
+        Files.write(textFile, Arrays.asList(
+                "T | 0 | read book",
+                "INVALID LINE",
+                "E | 1 |  CS2103 Project Meeting | 2026-02-16 | 2026-02-16 12:00"
+        ));
+
+        ArrayList<Integer> skipped = StorageFormatConverter.toBinary(textFile, this.testFile);
+        ArrayList<Task> tasks = this.storage.load();
+
+        assertEquals(1, skipped.size());
+        assertEquals(2, tasks.size());
+        assertEquals("[E][X] CS2103 Project Meeting (from: Feb 16 2026 to: Feb 16 2026 12:00)",
+                tasks.get(1).toString());
+    }
+
+    @Test
+    public void save_fsyncDurability_replacesFileAndReportsCost() throws IOException {
+        Files.write(this.testFile, Arrays.asList("T | 0 | old task"));
+        Storage syncStorage = new Storage(this.testFile, this.fakeOutput, StorageMode.TEXT, Durability.FSYNC);
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new ToDo("read book"));
+
+        SaveReport report = syncStorage.save(tasks);
+
+        assertNotNull(report);
+        assertTrue(report.isFsynced());
+        assertEquals(Files.size(this.testFile), report.getBytesWritten());
+        assertEquals(1, Files.readAllLines(this.testFile).size());
+        assertFalse(Files.exists(this.tempDir.resolve("sora.txt.tmp")));
+    }
+
+    @Test
+    public void indexedMode_statusToggle_rewritesOnlyStatusByte() throws IOException {
+        Files.write(this.testFile, Arrays.asList(
+                "T|0|read book",
+                "D | 0 |  submit report | 2026-02-16 11:00"
+        ));
+        Storage indexedStorage = new Storage(this.testFile, this.fakeOutput, StorageMode.INDEXED);
+        ArrayList<Task> tasks = indexedStorage.load();
+
+        tasks.get(1).markAsDone();
+        indexedStorage.update(tasks, 1);
+        tasks.add(new ToDo("swim"));
+        indexedStorage.append(tasks, tasks.get(2));
+        tasks.get(2).markAsDone();
+        indexedStorage.update(tasks, 2);
+
+        assertEquals("T|0|read book", Files.readAllLines(this.testFile).get(0));
+        ArrayList<Task> loadTasks = indexedStorage.load();
+        assertEquals(3, loadTasks.size());
+        assertTrue(loadTasks.get(1).isDone());
+        assertTrue(loadTasks.get(2).isDone());
+    }
+
+    @Test
+    public void compressedMode_saveThenLoad_tasksRemainSame() throws IOException {
+        Storage compressedStorage = new Storage(this.testFile, this.fakeOutput, StorageMode.COMPRESSED);
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            tasks.add(new ToDo("task " + i));
+        }
+
+        compressedStorage.save(tasks);
+        ArrayList<Task> loadTasks = this.storage.load();
+
+        assertTrue(BlockCompression.isCompressed(this.testFile));
+        assertEquals(tasks.size(), loadTasks.size());
+        assertEquals("[T][ ] task 19999", loadTasks.get(19999).toString());
+    }
+
+    @Test
+    public void checkExternalChange_appendedAndReplaced_mergedOrKept() throws IOException {
+        Storage textStorage = new Storage(this.testFile, this.fakeOutput, StorageMode.TEXT);
+        ArrayList<Task> tasks = new ArrayList<>(List.of(new ToDo("read book")));
+        textStorage.save(tasks);
+
+        Files.writeString(this.testFile, "T | 1 | swim" + System.lineSeparator(), StandardOpenOption.APPEND);
+        ExternalChange appended = textStorage.checkExternalChange();
+
+        assertTrue(appended.isAppend());
+        assertEquals("[T][X] swim", appended.getTasks().get(0).toString());
+        assertNull(textStorage.checkExternalChange());
+
+        Files.write(this.testFile, List.of("T | 0 | edited on another machine"));
+        tasks.add(new ToDo("jog"));
+        textStorage.append(tasks, tasks.get(1));
+
+        try (Stream<Path> files = Files.list(this.tempDir)) {
+            assertTrue(files.anyMatch(file -> file.getFileName().toString().startsWith("sora.txt.conflict-")));
+        }
+        assertEquals(2, textStorage.load().size());
+    }
+
+    @Test
+    public void saveLastId_concurrentProcesses_keepsHighestWithoutTempFiles() throws Exception {
+        Storage first = new Storage(this.testFile, this.fakeOutput, StorageMode.TEXT, Durability.FSYNC);
+        Storage second = new Storage(this.testFile, this.fakeOutput, StorageMode.TEXT, Durability.FSYNC);
+        Thread writer = new Thread(() -> {
+            for (long id = 1; id <= 200; id += 2) {
+                first.saveLastId(id);
+            }
+        });
+        writer.start();
+        for (long id = 2; id <= 200; id += 2) {
+            second.saveLastId(id);
+        }
+        writer.join();
+
+        long lastId = new Storage(this.testFile, this.fakeOutput, StorageMode.TEXT).loadLastId();
+        assertTrue(lastId == 199 || lastId == 200, "Last ID was " + lastId);
+        try (Stream<Path> files = Files.list(this.tempDir)) {
+            assertFalse(files.anyMatch(file -> file.getFileName().toString().endsWith(".tmp")));
+        }
+    }
 }
@@ -0,0 +1,105 @@
+package sora.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sora.exception.InvalidFormatException;
+import sora.manager.TaskManager;
+import sora.parser.ParsedDateTime;
+import sora.task.Deadline;
+import sora.task.Event;
+import sora.task.Task;
+import sora.task.ToDo;
+
+public class TaskTransferTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void exportThenImport_csvAndJsonl_tasksRemainSame() throws IOException {
+        Deadline deadline = new Deadline("submit \"final\", report", ParsedDateTime.dateTimeParser("2026-02-16 11:00"));
+        deadline.markAsDone();
+        List<Task> tasks = List.of(new ToDo("read book"), deadline,
+                new Event("meeting", ParsedDateTime.dateTimeParser("2026-02-16"),
+                        ParsedDateTime.dateTimeParser("2026-02-17")));
+
+        for (String fileName : List.of("tasks.csv", "tasks.jsonl")) {
+            Path file = this.tempDir.resolve(fileName);
+            TaskTransfer.exportTasks(file, tasks);
+
+            ArrayList<Task> imported = new ArrayList<>();
+            CorruptionReport report = new CorruptionReport(false);
+            TaskTransfer.importTasks(file, imported::add, report);
+
+            assertTrue(report.isEmpty());
+            assertEquals(tasks.size(), imported.size());
+            for (int i = 0; i < tasks.size(); i++) {
+                assertEquals(tasks.get(i).toStorageString(), imported.get(i).toStorageString());
+            }
+        }
+    }
+
+    @Test
+    public void importTasks_invalidRows_skipsRows() throws IOException {
+        Path file = this.tempDir.resolve("tasks.csv");
+        Files.write(file, Arrays.asList(
+                "type,done,name,start,end",
+                "T,0,read book",
+                "D,1,report,tomorrow",
+                "E,0,meeting,2026-02-17,2026-02-16",
+                "T,0,a | b"
+        ));
+
+        ArrayList<Task> imported = new ArrayList<>();
+        CorruptionReport report = new CorruptionReport(false);
+        TaskTransfer.importTasks(file, imported::add, report);
+
+        assertEquals(1, imported.size());
+        assertEquals(3, report.getTotal());
+        assertEquals(List.of(3, 4, 5), report.getLineNumbers());
+    }
+
+    @Test
+    public void importTasks_unsupportedExtension_throwException() {
+        assertThrows(InvalidFormatException.class, ()
+                -> TaskTransfer.importTasks(this.tempDir.resolve("tasks.txt"), task -> { },
+                        new CorruptionReport(false)));
+    }
+
+    @Test
+    public void importTasks_manyRows_addedInBatches() throws Exception {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            tasks.add(new ToDo("task " + i));
+        }
+        Path file = this.tempDir.resolve("tasks.csv");
+        TaskTransfer.exportTasks(file, tasks);
+        List<Integer> savedSizes = new ArrayList<>();
+        TaskManager taskManager = new TaskManager(new InMemoryStorageEngine() {
+            @Override
+            public SaveReport save(List<Task> tasks) {
+                savedSizes.add(tasks.size());
+                return super.save(tasks);
+            }
+        });
+
+        int imported = taskManager.importTasks(file, new CorruptionReport(false));
+
+        assertEquals(2500, imported);
+        assertEquals(2500, taskManager.getTaskCount());
+        assertEquals(List.of(1000, 2000, 2500), savedSizes);
+        assertEquals("[T][ ] task 2499", taskManager.getTask(2499).toString());
+    }
+}
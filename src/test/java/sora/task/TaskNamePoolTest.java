@@ -0,0 +1,74 @@
+package sora.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+public class TaskNamePoolTest {
+
+    @Test
+    public void canonicalize_equalNames_sameString() {
+        TaskNamePool pool = new TaskNamePool(10);
+        String first = pool.canonicalize(new String("standup"));
+
+        assertSame(first, pool.canonicalize(new String("standup")));
+        assertEquals(List.of("standup"), pool.getNames());
+    }
+
+    @Test
+    public void getHitRatio_repeatedNames_countsHits() {
+        TaskNamePool pool = new TaskNamePool(10);
+        assertEquals(0.0, pool.getHitRatio());
+
+        for (int i = 0; i < 4; i++) {
+            pool.canonicalize(new String("standup"));
+            pool.canonicalize(new String(i % 2 == 0 ? "gym" : "standup"));
+        }
+
+        // 8 lookups, of which all but the first "standup" and "gym" were hits
+        assertEquals(0.75, pool.getHitRatio());
+        assertTrue(pool.toString().contains("2 names"), pool.toString());
+    }
+
+    @Test
+    public void canonicalize_poolFull_nameUsedAsIs() {
+        TaskNamePool pool = new TaskNamePool(1);
+        String gym = pool.canonicalize("gym");
+        String quiz = new String("CS2103 quiz");
+
+        assertSame(quiz, pool.canonicalize(quiz));
+        assertNotSame(quiz, pool.canonicalize(new String("CS2103 quiz")));
+        assertSame(gym, pool.canonicalize(new String("gym")));
+    }
+
+    @Test
+    public void canonicalize_manyThreads_oneStringPerName() {
+        TaskNamePool pool = new TaskNamePool(1000);
+        List<String> names = List.of("standup", "gym", "read book", "CS2103 quiz");
+        ConcurrentMap<String, String> first = new ConcurrentHashMap<>();
+
+        IntStream.range(0, 10_000).parallel().forEach(i -> {
+            String name = new String(names.get(i % names.size()));
+            String pooled = pool.canonicalize(name);
+            assertSame(first.computeIfAbsent(pooled, key -> pooled), pooled);
+        });
+
+        assertEquals(names.size(), first.size());
+    }
+
+    @Test
+    public void newTask_equalNames_shareString() {
+        Task first = new ToDo(new String("gym"));
+        Task second = new ToDo(new String("gym"));
+
+        assertSame(first.getName(), second.getName());
+    }
+}